@@ -1,16 +1,18 @@
 package org.telegram.telegrambots.meta.api.methods;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JavaType;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.CollectionType;
 import org.telegram.telegrambots.meta.api.interfaces.Validable;
 import org.telegram.telegrambots.meta.api.objects.ApiResponse;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import org.telegram.telegrambots.meta.serialization.TelegramJsonMapper;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 
 /**
@@ -19,9 +21,6 @@ import java.util.ArrayList;
  * Api method that can't be use completely as Json
  */
 public abstract class PartialBotApiMethod<T extends Serializable> implements Validable {
-    @JsonIgnore
-    protected static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
-
     /**
      * Deserialize a json answer to the response type to a method
      * @param answer Json answer received
@@ -29,35 +28,75 @@ public abstract class PartialBotApiMethod<T extends Serializable> implements Val
      */
     public abstract T deserializeResponse(String answer) throws TelegramApiRequestException;
 
+    /**
+     * Deserialize a json answer read from a stream, without loading the whole answer in memory first
+     * @param answer Stream with the json answer received, it is read until the end and closed
+     * @return Answer for the method
+     * @implSpec Default implementation reads the stream into a String and calls {@link #deserializeResponse(String)}.
+     * Methods with large answers override it to parse the stream directly.
+     */
+    public T deserializeResponse(InputStream answer) throws TelegramApiRequestException {
+        try (InputStream input = answer) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                content.write(buffer, 0, read);
+            }
+            return deserializeResponse(new String(content.toByteArray(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new TelegramApiRequestException("Unable to deserialize response", e);
+        }
+    }
+
     public T deserializeResponse(String answer, Class<T> returnClass) throws TelegramApiRequestException {
-        JavaType type = OBJECT_MAPPER.getTypeFactory().constructType(returnClass);
-        return deserializeResponseInternal(answer, type);
+        return deserializeResponseInternal(answer, TelegramJsonMapper.getDefault().getTypeFactory().constructType(returnClass));
     }
 
     public <K extends Serializable> T deserializeResponseArray(String answer, Class<K> returnClass) throws TelegramApiRequestException {
-        CollectionType collectionType = OBJECT_MAPPER.getTypeFactory().constructCollectionType(ArrayList.class, returnClass);
-        return deserializeResponseInternal(answer, collectionType);
+        return deserializeResponseInternal(answer, constructArrayType(returnClass));
+    }
+
+    public <K extends Serializable> T deserializeResponseArray(InputStream answer, Class<K> returnClass) throws TelegramApiRequestException {
+        try (InputStream input = answer) {
+            return checkResult(TelegramJsonMapper.getDefault().getResponseReader(constructArrayType(returnClass)).readValue(input));
+        } catch (IOException e) {
+            throw new TelegramApiRequestException("Unable to deserialize response", e);
+        }
     }
 
     protected <K extends Serializable> T deserializeResponseSerializable(String answer, Class<K> returnClass) throws TelegramApiRequestException {
-        JavaType type = OBJECT_MAPPER.getTypeFactory().constructType(returnClass);
-        return deserializeResponseInternal(answer, type);
+        return deserializeResponseInternal(answer, TelegramJsonMapper.getDefault().getTypeFactory().constructType(returnClass));
     }
 
     private T deserializeResponseInternal(String answer, JavaType type) throws TelegramApiRequestException {
         try {
-            JavaType responseType = OBJECT_MAPPER.getTypeFactory().constructParametricType(ApiResponse.class, type);
-            ApiResponse<T> result = OBJECT_MAPPER.readValue(answer, responseType);
-            if (result.getOk()) {
-                return result.getResult();
-            } else {
-                throw new TelegramApiRequestException(String.format("Error executing %s query", this.getClass().getName()), result);
-            }
+            return checkResult(TelegramJsonMapper.getDefault().getResponseReader(type).readValue(answer));
         } catch (IOException e) {
-            throw new TelegramApiRequestException("Unable to deserialize response", e);
+            throw new TelegramApiRequestException("Unable to deserialize response", e, isGatewayResponse(answer));
         }
     }
 
+    /**
+     * @param answer Answer received
+     * @return True if the answer is not a json object, i.e. the error page of a proxy or gateway in front of the API
+     */
+    protected static boolean isGatewayResponse(String answer) {
+        return answer == null || !answer.trim().startsWith("{");
+    }
+
+    private T checkResult(ApiResponse<T> result) throws TelegramApiRequestException {
+        if (result.getOk()) {
+            return result.getResult();
+        } else {
+            throw new TelegramApiRequestException(String.format("Error executing %s query", this.getClass().getName()), result);
+        }
+    }
+
+    private static CollectionType constructArrayType(Class<?> elementClass) {
+        return TelegramJsonMapper.getDefault().getTypeFactory().constructCollectionType(ArrayList.class, elementClass);
+    }
+
     /**
      * Getter for method path (that is the same as method name)
      * @return Method path
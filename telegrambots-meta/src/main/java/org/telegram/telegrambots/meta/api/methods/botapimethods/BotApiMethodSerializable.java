@@ -38,6 +38,6 @@ public abstract class BotApiMethodSerializable extends BotApiMethod<Serializable
             }
         }
 
-        throw new TelegramApiRequestException("Unable to deserialize response", lastException);
+        throw new TelegramApiRequestException("Unable to deserialize response", lastException, isGatewayResponse(answer));
     }
 }
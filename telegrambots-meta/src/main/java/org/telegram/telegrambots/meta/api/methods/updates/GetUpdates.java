@@ -13,6 +13,7 @@ import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -85,4 +86,9 @@ public class GetUpdates extends BotApiMethod<ArrayList<Update>>{
     public ArrayList<Update> deserializeResponse(String answer) throws TelegramApiRequestException {
         return deserializeResponseArray(answer, Update.class);
     }
+
+    @Override
+    public ArrayList<Update> deserializeResponse(InputStream answer) throws TelegramApiRequestException {
+        return deserializeResponseArray(answer, Update.class);
+    }
 }
@@ -2,7 +2,6 @@ package org.telegram.telegrambots.meta.api.objects;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
-import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
@@ -12,6 +11,9 @@ import org.telegram.telegrambots.meta.exceptions.TelegramApiValidationException;
 
 import java.io.File;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
 
 /**
  * Input file used to upload a file to Telegram server and use it afterwards
@@ -23,7 +25,6 @@ import java.io.InputStream;
 @EqualsAndHashCode(callSuper = false)
 @ToString
 @NoArgsConstructor
-@AllArgsConstructor
 public class InputFile implements Validable, BotApiObject {
 
     private String attachName;
@@ -43,12 +44,30 @@ public class InputFile implements Validable, BotApiObject {
      */
     @JsonIgnore
     private InputStream newMediaStream;
+    /**
+     * New media channel
+     */
+    @JsonIgnore
+    private ReadableByteChannel newMediaChannel;
+    /**
+     * Bytes to read from the new media channel, -1 if unknown
+     */
+    @JsonIgnore
+    private long newMediaSize = -1;
     /**
      * True if the file is new, false if it is a file_id
      */
     @JsonIgnore
     private boolean isNew;
 
+    public InputFile(String attachName, String mediaName, File newMediaFile, InputStream newMediaStream, boolean isNew) {
+        this.attachName = attachName;
+        this.mediaName = mediaName;
+        this.newMediaFile = newMediaFile;
+        this.newMediaStream = newMediaStream;
+        this.isNew = isNew;
+    }
+
     public InputFile(String attachName) {
         this();
         setMedia(attachName);
@@ -86,6 +105,27 @@ public class InputFile implements Validable, BotApiObject {
         setMedia(mediaStream, fileName);
     }
 
+    /**
+     * Constructor to set a new file from a path
+     *
+     * @param mediaPath File to send
+     */
+    public InputFile(Path mediaPath) {
+        this();
+        setMedia(mediaPath.toFile(), mediaPath.getFileName().toString());
+    }
+
+    /**
+     * Constructor to set a new file as channel
+     *
+     * @param mediaChannel File to send, read until its end. The size of a {@link FileChannel} is known beforehand.
+     * @param fileName Name of the file
+     */
+    public InputFile(ReadableByteChannel mediaChannel, String fileName) {
+        this();
+        setMedia(mediaChannel, fileName);
+    }
+
     /**
      * Use this setter to send new file.
      * @param mediaFile File to send
@@ -127,6 +167,32 @@ public class InputFile implements Validable, BotApiObject {
         return this;
     }
 
+    /**
+     * Use this setter to send new file as channel.
+     * @param mediaChannel File to send, read until its end
+     * @param fileName Name of the file
+     * @return This object
+     */
+    public InputFile setMedia(ReadableByteChannel mediaChannel, String fileName) {
+        return setMedia(mediaChannel, -1, fileName);
+    }
+
+    /**
+     * Use this setter to send new file as channel of a known size, so it is sent without chunked encoding.
+     * @param mediaChannel File to send
+     * @param size Bytes to read from the channel, -1 to read until its end
+     * @param fileName Name of the file
+     * @return This object
+     */
+    public InputFile setMedia(ReadableByteChannel mediaChannel, long size, String fileName) {
+        this.newMediaChannel = mediaChannel;
+        this.newMediaSize = size;
+        this.mediaName = fileName;
+        this.attachName = "attach://" + fileName;
+        this.isNew = true;
+        return this;
+    }
+
     public InputFile setMedia(String attachName) {
         this.attachName = attachName;
         this.isNew = false;
@@ -149,6 +215,17 @@ public class InputFile implements Validable, BotApiObject {
         return newMediaStream;
     }
 
+    public ReadableByteChannel getNewMediaChannel() {
+        return newMediaChannel;
+    }
+
+    /**
+     * @return Bytes to read from the new media channel, -1 if unknown
+     */
+    public long getNewMediaSize() {
+        return newMediaSize;
+    }
+
     public boolean isNew() {
         return isNew;
     }
@@ -159,7 +236,7 @@ public class InputFile implements Validable, BotApiObject {
             if (mediaName == null || mediaName.isEmpty()) {
                 throw new TelegramApiValidationException("Media name can't be empty", this);
             }
-            if (newMediaFile == null && newMediaStream == null) {
+            if (newMediaFile == null && newMediaStream == null && newMediaChannel == null) {
                 throw new TelegramApiValidationException("Media can't be empty", this);
             }
         } else {
@@ -17,7 +17,6 @@
 
 package org.telegram.telegrambots.meta.exceptions;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.telegram.telegrambots.meta.api.objects.ApiResponse;
@@ -32,7 +31,6 @@ import org.telegram.telegrambots.meta.api.objects.ResponseParameters;
 public class TelegramApiRequestException extends TelegramApiException {
     private static final Logger log = LoggerFactory.getLogger(TelegramApiRequestException.class);
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     private static final String ERRORDESCRIPTIONFIELD = "description";
     private static final String ERRORCODEFIELD = "error_code";
     private static final String PARAMETERSFIELD = "parameters";
@@ -40,6 +38,7 @@ public class TelegramApiRequestException extends TelegramApiException {
     private String apiResponse = null;
     private Integer errorCode = 0;
     private ResponseParameters parameters;
+    private boolean gatewayError;
 
     public TelegramApiRequestException(String message) {
         super(message);
@@ -56,6 +55,16 @@ public class TelegramApiRequestException extends TelegramApiException {
         super(message, cause);
     }
 
+    /**
+     * @param message Error message
+     * @param cause Error reading the response
+     * @param gatewayError True if the response was not a Bot API response at all
+     */
+    public TelegramApiRequestException(String message, Throwable cause, boolean gatewayError) {
+        super(message, cause);
+        this.gatewayError = gatewayError;
+    }
+
     public String getApiResponse() {
         return apiResponse;
     }
@@ -68,6 +77,22 @@ public class TelegramApiRequestException extends TelegramApiException {
         return parameters;
     }
 
+    /**
+     * @return True if the response was not a Bot API response but the error page of a proxy or gateway in front
+     * of it, like a 502 or 504 with an HTML body
+     */
+    public boolean isGatewayError() {
+        return gatewayError;
+    }
+
+    /**
+     * @return True if the request failed on the server side (5xx), either in the Bot API or in a gateway in front
+     * of it, so it may succeed if sent again
+     */
+    public boolean isServerError() {
+        return gatewayError || (errorCode != null && errorCode >= 500);
+    }
+
     /**
      * More detailed error description.
      * 
@@ -0,0 +1,117 @@
+package org.telegram.telegrambots.meta.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.telegram.telegrambots.meta.api.objects.ApiResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Jackson configuration shared by senders, sessions and webhooks to read and write Telegram objects.
+ *
+ * Readers and writers are cached per type, so types and (de)serializers are resolved once per mapper instead
+ * of on every request. A tuned ObjectMapper (i.e. with the Blackbird module registered) can be installed for
+ * the whole library with {@link #setDefault(TelegramJsonMapper)}, or for a single bot in its options.
+ */
+public class TelegramJsonMapper {
+    private static volatile TelegramJsonMapper defaultMapper = new TelegramJsonMapper(new ObjectMapper());
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final Map<JavaType, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<JavaType, ObjectReader> responseReaders = new ConcurrentHashMap<>();
+
+    /**
+     * @param objectMapper Mapper to use, it must not be reconfigured once in use
+     */
+    public TelegramJsonMapper(ObjectMapper objectMapper) {
+        this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper");
+    }
+
+    public static TelegramJsonMapper getDefault() {
+        return defaultMapper;
+    }
+
+    /**
+     * @param jsonMapper Mapper to use from now on by all the components not configured with a specific one
+     */
+    public static void setDefault(TelegramJsonMapper jsonMapper) {
+        defaultMapper = Objects.requireNonNull(jsonMapper, "jsonMapper");
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    public TypeFactory getTypeFactory() {
+        return objectMapper.getTypeFactory();
+    }
+
+    public ObjectWriter getWriter(Class<?> type) {
+        return writers.computeIfAbsent(type, objectMapper::writerFor);
+    }
+
+    public ObjectReader getReader(Class<?> type) {
+        return getReader(getTypeFactory().constructType(type));
+    }
+
+    public ObjectReader getReader(JavaType type) {
+        return readers.computeIfAbsent(type, objectMapper::readerFor);
+    }
+
+    /**
+     * @param resultType Type of the result field of the response
+     * @return Reader for an {@link ApiResponse} with the given result type
+     */
+    public ObjectReader getResponseReader(JavaType resultType) {
+        return responseReaders.computeIfAbsent(resultType, key ->
+                objectMapper.readerFor(getTypeFactory().constructParametricType(ApiResponse.class, key)));
+    }
+
+    /**
+     * Serialize a value with the cached writer for its runtime class
+     * @param value Value to serialize
+     * @return Json representation of the value
+     */
+    public String writeValueAsString(Object value) throws JsonProcessingException {
+        if (value == null) {
+            return objectMapper.writeValueAsString(null);
+        }
+        return getWriter(value.getClass()).writeValueAsString(value);
+    }
+
+    /**
+     * Serialize a value as UTF-8 with the cached writer for its runtime class
+     * @param value Value to serialize
+     * @return Json representation of the value
+     */
+    public byte[] writeValueAsBytes(Object value) throws JsonProcessingException {
+        if (value == null) {
+            return objectMapper.writeValueAsBytes(null);
+        }
+        return getWriter(value.getClass()).writeValueAsBytes(value);
+    }
+
+    /**
+     * Serialize a value as UTF-8 straight to a stream, with the cached writer for its runtime class.
+     * The stream is not closed.
+     * @param outputStream Stream to write to
+     * @param value Value to serialize
+     */
+    public void writeValue(OutputStream outputStream, Object value) throws IOException {
+        ObjectWriter writer = value == null ? objectMapper.writer() : getWriter(value.getClass());
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            writer.writeValue(generator, value);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.telegram.telegrambots.meta.serialization;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.methods.StopMessageLiveLocation;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updates.GetUpdates;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageMedia;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.test.TelegramBotsHelper;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TelegramJsonMapperTest {
+    private final TelegramJsonMapper originalDefault = TelegramJsonMapper.getDefault();
+
+    @AfterEach
+    void tearDown() {
+        TelegramJsonMapper.setDefault(originalDefault);
+    }
+
+    @Test
+    void readersAndWritersAreCached() {
+        TelegramJsonMapper jsonMapper = new TelegramJsonMapper(new ObjectMapper());
+        assertSame(jsonMapper.getWriter(SendMessage.class), jsonMapper.getWriter(SendMessage.class));
+        assertSame(jsonMapper.getReader(Update.class), jsonMapper.getReader(Update.class));
+        JavaType updateType = jsonMapper.getTypeFactory().constructType(Update.class);
+        assertSame(jsonMapper.getResponseReader(updateType), jsonMapper.getResponseReader(updateType));
+    }
+
+    @Test
+    void valuesAreWrittenWithConfiguredMapper() throws Exception {
+        TelegramJsonMapper jsonMapper = new TelegramJsonMapper(new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT));
+        String json = jsonMapper.writeValueAsString(SendMessage.builder().chatId(1L).text("Hello").build());
+        assertTrue(json.contains("\n"));
+        assertEquals("null", jsonMapper.writeValueAsString(null));
+    }
+
+    @Test
+    void responsesAreReadWithDefaultMapper() throws Exception {
+        AtomicInteger responseReaders = new AtomicInteger();
+        TelegramJsonMapper.setDefault(new TelegramJsonMapper(new ObjectMapper()) {
+            @Override
+            public ObjectReader getResponseReader(JavaType resultType) {
+                responseReaders.incrementAndGet();
+                return super.getResponseReader(resultType);
+            }
+        });
+
+        List<Update> updates = new GetUpdates().deserializeResponse(TelegramBotsHelper.GetResponseWithoutError());
+        assertEquals(1, updates.size());
+        assertEquals(1, responseReaders.get());
+    }
+
+    @Test
+    void messageOrBooleanResponsesAreReadWithDefaultMapper() throws Exception {
+        AtomicInteger responseReaders = new AtomicInteger();
+        TelegramJsonMapper.setDefault(new TelegramJsonMapper(new ObjectMapper()) {
+            @Override
+            public ObjectReader getResponseReader(JavaType resultType) {
+                responseReaders.incrementAndGet();
+                return super.getResponseReader(resultType);
+            }
+        });
+        String messageResponse = "{\"ok\":true,\"result\":{\"message_id\":1,\"date\":0,\"chat\":{\"id\":1,\"type\":\"private\"}}}";
+
+        assertTrue(new EditMessageMedia().deserializeResponse(messageResponse) instanceof Message);
+        assertEquals(true, new EditMessageMedia().deserializeResponse("{\"ok\":true,\"result\":true}"));
+        assertTrue(new StopMessageLiveLocation().deserializeResponse(messageResponse) instanceof Message);
+        assertEquals(true, new StopMessageLiveLocation().deserializeResponse("{\"ok\":true,\"result\":true}"));
+        assertTrue(responseReaders.get() >= 4);
+    }
+}
@@ -9,6 +9,8 @@ import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
 import org.telegram.telegrambots.meta.test.TelegramBotsHelper;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -45,6 +47,22 @@ class TestGetUpdates {
         assertEquals(1, result.size());
     }
 
+    @Test
+    void testGetUpdatesMustDeserializeCorrectResponseFromStream() throws Exception {
+        ArrayList<Update> result = getUpdates.deserializeResponse(
+                new ByteArrayInputStream(TelegramBotsHelper.GetResponseWithoutError().getBytes(StandardCharsets.UTF_8)));
+        assertNotNull(result);
+        assertEquals(1, result.size());
+        assertEquals(getUpdates.deserializeResponse(TelegramBotsHelper.GetResponseWithoutError()), result);
+    }
+
+    @Test
+    void testGetUpdatesMustThrowAnExceptionForInCorrectResponseFromStream() {
+        TelegramApiRequestException e = assertThrows(TelegramApiRequestException.class, () -> getUpdates.deserializeResponse(
+                new ByteArrayInputStream(TelegramBotsHelper.getResponseWithError409().getBytes(StandardCharsets.UTF_8))));
+        assertEquals(Integer.valueOf(409), e.getErrorCode());
+    }
+
     @Test
     void testGetUpdatesMustThrowAnExceptionForInCorrectResponse() {
         try {
@@ -8,6 +8,7 @@ import org.springframework.context.annotation.Configuration;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.meta.generics.LongPollingBot;
+import org.telegram.telegrambots.meta.serialization.TelegramJsonMapper;
 import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 
 import java.util.Collections;
@@ -25,11 +26,16 @@ public class TelegramBotStarterConfiguration {
         return new TelegramBotsApi(DefaultBotSession.class);
     }
 
+    /**
+     * A {@link TelegramJsonMapper} bean, if defined, replaces the default mapper used by all the bots
+     */
     @Bean
     @ConditionalOnMissingBean
     public TelegramBotInitializer telegramBotInitializer(TelegramBotsApi telegramBotsApi,
                                                          ObjectProvider<List<LongPollingBot>> longPollingBots,
-                                                         ObjectProvider<List<SpringWebhookBot>> webHookBots) {
+                                                         ObjectProvider<List<SpringWebhookBot>> webHookBots,
+                                                         ObjectProvider<TelegramJsonMapper> jsonMapper) {
+        jsonMapper.ifAvailable(TelegramJsonMapper::setDefault);
         return new TelegramBotInitializer(telegramBotsApi,
                 longPollingBots.getIfAvailable(Collections::emptyList),
                 webHookBots.getIfAvailable(Collections::emptyList));
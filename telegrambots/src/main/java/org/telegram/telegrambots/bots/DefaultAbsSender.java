@@ -1,20 +1,34 @@
 package org.telegram.telegrambots.bots;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.config.RequestConfig;
-import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.StringEntity;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.util.EntityUtils;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.telegram.telegrambots.facilities.TelegramHttpClientBuilder;
+import org.telegram.telegrambots.facilities.cache.BotApiCache;
+import org.telegram.telegrambots.facilities.filedownloader.DownloaderOptions;
 import org.telegram.telegrambots.facilities.filedownloader.TelegramFileDownloader;
+import org.telegram.telegrambots.facilities.coalesce.EditCoalescer;
+import org.telegram.telegrambots.facilities.concurrency.AdaptiveConcurrencyLimiter;
+import org.telegram.telegrambots.facilities.priority.PriorityLanes;
+import org.telegram.telegrambots.facilities.priority.RequestPriority;
+import org.telegram.telegrambots.facilities.ratelimit.TelegramRateLimiter;
+import org.telegram.telegrambots.facilities.retry.TelegramRetryEngine;
+import org.telegram.telegrambots.facilities.template.TemplatedMethod;
+import org.telegram.telegrambots.facilities.transport.HttpClientTransport;
+import org.telegram.telegrambots.facilities.transport.JsonEntity;
+import org.telegram.telegrambots.facilities.transport.TelegramTransport;
+import org.telegram.telegrambots.facilities.upload.ChannelBody;
+import org.telegram.telegrambots.facilities.upload.UploadCache;
+import org.telegram.telegrambots.facilities.upload.UploadMeter;
 import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.PartialBotApiMethod;
 import org.telegram.telegrambots.meta.api.methods.groupadministration.SetChatPhoto;
 import org.telegram.telegrambots.meta.api.methods.send.SendAnimation;
 import org.telegram.telegrambots.meta.api.methods.send.SendAudio;
@@ -47,6 +61,7 @@ import org.telegram.telegrambots.meta.updateshandlers.DownloadFileCallback;
 import org.telegram.telegrambots.meta.updateshandlers.SentCallback;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.net.InetSocketAddress;
@@ -54,8 +69,12 @@ import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static org.telegram.telegrambots.Constants.SOCKET_TIMEOUT;
 
@@ -70,11 +89,19 @@ public abstract class DefaultAbsSender extends AbsSender {
     private static final ContentType TEXT_PLAIN_CONTENT_TYPE = ContentType.create("text/plain", StandardCharsets.UTF_8);
 
     protected final ExecutorService exe;
-    private final ObjectMapper objectMapper = new ObjectMapper();
     private final DefaultBotOptions options;
     private final CloseableHttpClient httpClient;
     private final RequestConfig requestConfig;
     private final TelegramFileDownloader telegramFileDownloader;
+    private final TelegramTransport transport;
+    private final TelegramRateLimiter rateLimiter;
+    private final TelegramRetryEngine retryEngine;
+    private final PriorityLanes priorityLanes;
+    private final EditCoalescer editCoalescer;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final BotApiCache apiCache;
+    private final UploadCache uploadCache;
+    private final UploadMeter uploadMeter = new UploadMeter();
     private final String botToken;
 
     /**
@@ -93,8 +120,19 @@ public abstract class DefaultAbsSender extends AbsSender {
         this.exe = Executors.newFixedThreadPool(options.getMaxThreads());
         this.options = options;
 
-        httpClient = TelegramHttpClientBuilder.build(options);
-        this.telegramFileDownloader = new TelegramFileDownloader(httpClient, this::getBotToken);
+        PoolingHttpClientConnectionManager connectionManager = TelegramHttpClientBuilder.createConnectionManager(options);
+        httpClient = TelegramHttpClientBuilder.build(options, connectionManager);
+        this.transport = options.getTransport() != null ? options.getTransport() :
+                new HttpClientTransport(httpClient, connectionManager, options.getHttpContext(), exe);
+        this.rateLimiter = options.getRateLimiter();
+        this.retryEngine = options.getRetryEngine();
+        this.priorityLanes = options.getPriorityLanes();
+        this.editCoalescer = options.getEditCoalescer();
+        this.concurrencyLimiter = options.getConcurrencyLimiter();
+        this.apiCache = options.getApiCache();
+        this.uploadCache = options.getUploadCache();
+        this.telegramFileDownloader = new TelegramFileDownloader(httpClient, this::getBotToken,
+                options.getDownloaderOptions() != null ? options.getDownloaderOptions() : new DownloaderOptions());
         configureHttpContext();
 
         final RequestConfig configFromOptions = options.getRequestConfig();
@@ -122,10 +160,32 @@ public abstract class DefaultAbsSender extends AbsSender {
         return options;
     }
 
+    /**
+     * @return Downloader of the bot, to download files into a path, channel or stream
+     */
+    public final TelegramFileDownloader getFileDownloader() {
+        return telegramFileDownloader;
+    }
+
+    /**
+     * @return Throughput of the files and channels uploaded by the bot
+     */
+    public final UploadMeter getUploadMeter() {
+        return uploadMeter;
+    }
+
     public String getBaseUrl() {
         return options.getBaseUrl() + getBotToken() + "/";
     }
 
+    /**
+     * @return Current usage of the connection pool used to send requests, null if the transport has no pool.
+     * Pending requests mean the pool is full and requests are waiting for a connection.
+     */
+    public PoolStats getConnectionPoolStats() {
+        return transport.getPoolStats();
+    }
+
     // Send Requests
 
     public final java.io.File downloadFile(String filePath) throws TelegramApiException {
@@ -176,10 +236,10 @@ public abstract class DefaultAbsSender extends AbsSender {
             builder.setCharset(StandardCharsets.UTF_8);
             builder.addTextBody(SendDocument.CHATID_FIELD, sendDocument.getChatId(), TEXT_PLAIN_CONTENT_TYPE);
 
-            addInputFile(builder, sendDocument.getDocument(), SendDocument.DOCUMENT_FIELD, true);
+            MediaUpload upload = addMediaFile(builder, sendDocument.getDocument(), SendDocument.PATH, SendDocument.DOCUMENT_FIELD);
 
             if (sendDocument.getReplyMarkup() != null) {
-                builder.addTextBody(SendDocument.REPLYMARKUP_FIELD, objectMapper.writeValueAsString(sendDocument.getReplyMarkup()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendDocument.REPLYMARKUP_FIELD, options.getJsonMapper().writeValueAsString(sendDocument.getReplyMarkup()), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendDocument.getReplyToMessageId() != null) {
                 builder.addTextBody(SendDocument.REPLYTOMESSAGEID_FIELD, sendDocument.getReplyToMessageId().toString(), TEXT_PLAIN_CONTENT_TYPE);
@@ -207,20 +267,20 @@ public abstract class DefaultAbsSender extends AbsSender {
                 builder.addTextBody(SendDocument.DISABLECONTENTTYPEDETECTION_FIELD, sendDocument.getDisableContentTypeDetection().toString(), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendDocument.getCaptionEntities() != null) {
-                builder.addTextBody(SendDocument.CAPTION_ENTITIES_FIELD, objectMapper.writeValueAsString(sendDocument.getCaptionEntities()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendDocument.CAPTION_ENTITIES_FIELD, options.getJsonMapper().writeValueAsString(sendDocument.getCaptionEntities()), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendDocument.getThumbnail() != null) {
                 addInputFile(builder, sendDocument.getThumbnail(), SendDocument.THUMBNAIL_FIELD, false);
                 builder.addTextBody(SendDocument.THUMBNAIL_FIELD, sendDocument.getThumbnail().getAttachName(), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendDocument.getReplyParameters() != null) {
-                builder.addTextBody(SendDocument.REPLY_PARAMETERS_FIELD, objectMapper.writeValueAsString(sendDocument.getReplyParameters()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendDocument.REPLY_PARAMETERS_FIELD, options.getJsonMapper().writeValueAsString(sendDocument.getReplyParameters()), TEXT_PLAIN_CONTENT_TYPE);
             }
 
             HttpEntity multipart = builder.build();
             httppost.setEntity(multipart);
 
-            return sendDocument.deserializeResponse(sendHttpPostRequest(httppost));
+            return executeUpload(sendDocument, httppost, upload, () -> execute(sendDocument));
         } catch (IOException e) {
             throw new TelegramApiException("Unable to send document", e);
         }
@@ -239,10 +299,10 @@ public abstract class DefaultAbsSender extends AbsSender {
             builder.setLaxMode();
             builder.setCharset(StandardCharsets.UTF_8);
             builder.addTextBody(SendPhoto.CHATID_FIELD, sendPhoto.getChatId(), TEXT_PLAIN_CONTENT_TYPE);
-            addInputFile(builder, sendPhoto.getPhoto(), SendPhoto.PHOTO_FIELD, true);
+            MediaUpload upload = addMediaFile(builder, sendPhoto.getPhoto(), SendPhoto.PATH, SendPhoto.PHOTO_FIELD);
 
             if (sendPhoto.getReplyMarkup() != null) {
-                builder.addTextBody(SendPhoto.REPLYMARKUP_FIELD, objectMapper.writeValueAsString(sendPhoto.getReplyMarkup()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendPhoto.REPLYMARKUP_FIELD, options.getJsonMapper().writeValueAsString(sendPhoto.getReplyMarkup()), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendPhoto.getReplyToMessageId() != null) {
                 builder.addTextBody(SendPhoto.REPLYTOMESSAGEID_FIELD, sendPhoto.getReplyToMessageId().toString(), TEXT_PLAIN_CONTENT_TYPE);
@@ -266,18 +326,18 @@ public abstract class DefaultAbsSender extends AbsSender {
                 builder.addTextBody(SendPhoto.PROTECTCONTENT_FIELD, sendPhoto.getProtectContent().toString(), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendPhoto.getCaptionEntities() != null) {
-                builder.addTextBody(SendPhoto.CAPTION_ENTITIES_FIELD, objectMapper.writeValueAsString(sendPhoto.getCaptionEntities()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendPhoto.CAPTION_ENTITIES_FIELD, options.getJsonMapper().writeValueAsString(sendPhoto.getCaptionEntities()), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendPhoto.getHasSpoiler() != null) {
-                builder.addTextBody(SendPhoto.HASSPOILER_FIELD, objectMapper.writeValueAsString(sendPhoto.getHasSpoiler()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendPhoto.HASSPOILER_FIELD, options.getJsonMapper().writeValueAsString(sendPhoto.getHasSpoiler()), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendPhoto.getReplyParameters() != null) {
-                builder.addTextBody(SendPhoto.REPLY_PARAMETERS_FIELD, objectMapper.writeValueAsString(sendPhoto.getReplyParameters()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendPhoto.REPLY_PARAMETERS_FIELD, options.getJsonMapper().writeValueAsString(sendPhoto.getReplyParameters()), TEXT_PLAIN_CONTENT_TYPE);
             }
             HttpEntity multipart = builder.build();
             httppost.setEntity(multipart);
 
-            return sendPhoto.deserializeResponse(sendHttpPostRequest(httppost));
+            return executeUpload(sendPhoto, httppost, upload, () -> execute(sendPhoto));
         } catch (IOException e) {
             throw new TelegramApiException("Unable to send photo", e);
         }
@@ -296,10 +356,10 @@ public abstract class DefaultAbsSender extends AbsSender {
             builder.setLaxMode();
             builder.setCharset(StandardCharsets.UTF_8);
             builder.addTextBody(SendVideo.CHATID_FIELD, sendVideo.getChatId(), TEXT_PLAIN_CONTENT_TYPE);
-            addInputFile(builder, sendVideo.getVideo(), SendVideo.VIDEO_FIELD, true);
+            MediaUpload upload = addMediaFile(builder, sendVideo.getVideo(), SendVideo.PATH, SendVideo.VIDEO_FIELD);
 
             if (sendVideo.getReplyMarkup() != null) {
-                builder.addTextBody(SendVideo.REPLYMARKUP_FIELD, objectMapper.writeValueAsString(sendVideo.getReplyMarkup()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendVideo.REPLYMARKUP_FIELD, options.getJsonMapper().writeValueAsString(sendVideo.getReplyMarkup()), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendVideo.getReplyToMessageId() != null) {
                 builder.addTextBody(SendVideo.REPLYTOMESSAGEID_FIELD, sendVideo.getReplyToMessageId().toString(), TEXT_PLAIN_CONTENT_TYPE);
@@ -339,18 +399,18 @@ public abstract class DefaultAbsSender extends AbsSender {
                 builder.addTextBody(SendVideo.ALLOWSENDINGWITHOUTREPLY_FIELD, sendVideo.getAllowSendingWithoutReply().toString(), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendVideo.getCaptionEntities() != null) {
-                builder.addTextBody(SendVideo.CAPTION_ENTITIES_FIELD, objectMapper.writeValueAsString(sendVideo.getCaptionEntities()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendVideo.CAPTION_ENTITIES_FIELD, options.getJsonMapper().writeValueAsString(sendVideo.getCaptionEntities()), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendVideo.getHasSpoiler() != null) {
-                builder.addTextBody(SendVideo.HASSPOILER_FIELD, objectMapper.writeValueAsString(sendVideo.getHasSpoiler()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendVideo.HASSPOILER_FIELD, options.getJsonMapper().writeValueAsString(sendVideo.getHasSpoiler()), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendVideo.getReplyParameters() != null) {
-                builder.addTextBody(SendVideo.REPLY_PARAMETERS_FIELD, objectMapper.writeValueAsString(sendVideo.getReplyParameters()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendVideo.REPLY_PARAMETERS_FIELD, options.getJsonMapper().writeValueAsString(sendVideo.getReplyParameters()), TEXT_PLAIN_CONTENT_TYPE);
             }
             HttpEntity multipart = builder.build();
             httppost.setEntity(multipart);
 
-            return sendVideo.deserializeResponse(sendHttpPostRequest(httppost));
+            return executeUpload(sendVideo, httppost, upload, () -> execute(sendVideo));
         } catch (IOException e) {
             throw new TelegramApiException("Unable to send video", e);
         }
@@ -369,10 +429,10 @@ public abstract class DefaultAbsSender extends AbsSender {
             builder.setLaxMode();
             builder.setCharset(StandardCharsets.UTF_8);
             builder.addTextBody(SendVideoNote.CHATID_FIELD, sendVideoNote.getChatId(), TEXT_PLAIN_CONTENT_TYPE);
-            addInputFile(builder, sendVideoNote.getVideoNote(), SendVideoNote.VIDEONOTE_FIELD, true);
+            MediaUpload upload = addMediaFile(builder, sendVideoNote.getVideoNote(), SendVideoNote.PATH, SendVideoNote.VIDEONOTE_FIELD);
 
             if (sendVideoNote.getReplyMarkup() != null) {
-                builder.addTextBody(SendVideoNote.REPLYMARKUP_FIELD, objectMapper.writeValueAsString(sendVideoNote.getReplyMarkup()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendVideoNote.REPLYMARKUP_FIELD, options.getJsonMapper().writeValueAsString(sendVideoNote.getReplyMarkup()), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendVideoNote.getReplyToMessageId() != null) {
                 builder.addTextBody(SendVideoNote.REPLYTOMESSAGEID_FIELD, sendVideoNote.getReplyToMessageId().toString(), TEXT_PLAIN_CONTENT_TYPE);
@@ -400,13 +460,13 @@ public abstract class DefaultAbsSender extends AbsSender {
                 builder.addTextBody(SendVideoNote.ALLOWSENDINGWITHOUTREPLY_FIELD, sendVideoNote.getAllowSendingWithoutReply().toString(), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendVideoNote.getReplyParameters() != null) {
-                builder.addTextBody(SendVideoNote.REPLY_PARAMETERS_FIELD, objectMapper.writeValueAsString(sendVideoNote.getReplyParameters()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendVideoNote.REPLY_PARAMETERS_FIELD, options.getJsonMapper().writeValueAsString(sendVideoNote.getReplyParameters()), TEXT_PLAIN_CONTENT_TYPE);
             }
             HttpEntity multipart = builder.build();
             httppost.setEntity(multipart);
 
 
-            return sendVideoNote.deserializeResponse(sendHttpPostRequest(httppost));
+            return executeUpload(sendVideoNote, httppost, upload, () -> execute(sendVideoNote));
         } catch (IOException e) {
             throw new TelegramApiException("Unable to send video note", e);
         }
@@ -425,10 +485,10 @@ public abstract class DefaultAbsSender extends AbsSender {
             builder.setLaxMode();
             builder.setCharset(StandardCharsets.UTF_8);
             builder.addTextBody(SendSticker.CHATID_FIELD, sendSticker.getChatId(), TEXT_PLAIN_CONTENT_TYPE);
-            addInputFile(builder, sendSticker.getSticker(), SendSticker.STICKER_FIELD, true);
+            MediaUpload upload = addMediaFile(builder, sendSticker.getSticker(), SendSticker.PATH, SendSticker.STICKER_FIELD);
 
             if (sendSticker.getReplyMarkup() != null) {
-                builder.addTextBody(SendSticker.REPLYMARKUP_FIELD, objectMapper.writeValueAsString(sendSticker.getReplyMarkup()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendSticker.REPLYMARKUP_FIELD, options.getJsonMapper().writeValueAsString(sendSticker.getReplyMarkup()), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendSticker.getReplyToMessageId() != null) {
                 builder.addTextBody(SendSticker.REPLYTOMESSAGEID_FIELD, sendSticker.getReplyToMessageId().toString(), TEXT_PLAIN_CONTENT_TYPE);
@@ -449,12 +509,12 @@ public abstract class DefaultAbsSender extends AbsSender {
                 builder.addTextBody(SendSticker.EMOJI_FIELD, sendSticker.getEmoji(), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendSticker.getReplyParameters() != null) {
-                builder.addTextBody(SendSticker.REPLY_PARAMETERS_FIELD, objectMapper.writeValueAsString(sendSticker.getReplyParameters()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendSticker.REPLY_PARAMETERS_FIELD, options.getJsonMapper().writeValueAsString(sendSticker.getReplyParameters()), TEXT_PLAIN_CONTENT_TYPE);
             }
             HttpEntity multipart = builder.build();
             httppost.setEntity(multipart);
 
-            return sendSticker.deserializeResponse(sendHttpPostRequest(httppost));
+            return executeUpload(sendSticker, httppost, upload, () -> execute(sendSticker));
         } catch (IOException e) {
             throw new TelegramApiException("Unable to send sticker", e);
         }
@@ -477,10 +537,10 @@ public abstract class DefaultAbsSender extends AbsSender {
             builder.setLaxMode();
             builder.setCharset(StandardCharsets.UTF_8);
             builder.addTextBody(SendAudio.CHATID_FIELD, sendAudio.getChatId(), TEXT_PLAIN_CONTENT_TYPE);
-            addInputFile(builder, sendAudio.getAudio(), SendAudio.AUDIO_FIELD, true);
+            MediaUpload upload = addMediaFile(builder, sendAudio.getAudio(), SendAudio.PATH, SendAudio.AUDIO_FIELD);
 
             if (sendAudio.getReplyMarkup() != null) {
-                builder.addTextBody(SendAudio.REPLYMARKUP_FIELD, objectMapper.writeValueAsString(sendAudio.getReplyMarkup()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendAudio.REPLYMARKUP_FIELD, options.getJsonMapper().writeValueAsString(sendAudio.getReplyMarkup()), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendAudio.getReplyToMessageId() != null) {
                 builder.addTextBody(SendAudio.REPLYTOMESSAGEID_FIELD, sendAudio.getReplyToMessageId().toString(), TEXT_PLAIN_CONTENT_TYPE);
@@ -517,16 +577,16 @@ public abstract class DefaultAbsSender extends AbsSender {
                 builder.addTextBody(SendAudio.PROTECTCONTENT_FIELD, sendAudio.getProtectContent().toString(), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendAudio.getCaptionEntities() != null) {
-                builder.addTextBody(SendAudio.CAPTION_ENTITIES_FIELD, objectMapper.writeValueAsString(sendAudio.getCaptionEntities()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendAudio.CAPTION_ENTITIES_FIELD, options.getJsonMapper().writeValueAsString(sendAudio.getCaptionEntities()), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendAudio.getReplyParameters() != null) {
-                builder.addTextBody(SendAudio.REPLY_PARAMETERS_FIELD, objectMapper.writeValueAsString(sendAudio.getReplyParameters()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendAudio.REPLY_PARAMETERS_FIELD, options.getJsonMapper().writeValueAsString(sendAudio.getReplyParameters()), TEXT_PLAIN_CONTENT_TYPE);
             }
             HttpEntity multipart = builder.build();
             httppost.setEntity(multipart);
 
 
-            return sendAudio.deserializeResponse(sendHttpPostRequest(httppost));
+            return executeUpload(sendAudio, httppost, upload, () -> execute(sendAudio));
         } catch (IOException e) {
             throw new TelegramApiException("Unable to send audio", e);
         }
@@ -550,10 +610,10 @@ public abstract class DefaultAbsSender extends AbsSender {
             builder.setLaxMode();
             builder.setCharset(StandardCharsets.UTF_8);
             builder.addTextBody(SendVoice.CHATID_FIELD, sendVoice.getChatId(), TEXT_PLAIN_CONTENT_TYPE);
-            addInputFile(builder, sendVoice.getVoice(), SendVoice.VOICE_FIELD, true);
+            MediaUpload upload = addMediaFile(builder, sendVoice.getVoice(), SendVoice.PATH, SendVoice.VOICE_FIELD);
 
             if (sendVoice.getReplyMarkup() != null) {
-                builder.addTextBody(SendVoice.REPLYMARKUP_FIELD, objectMapper.writeValueAsString(sendVoice.getReplyMarkup()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendVoice.REPLYMARKUP_FIELD, options.getJsonMapper().writeValueAsString(sendVoice.getReplyMarkup()), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendVoice.getReplyToMessageId() != null) {
                 builder.addTextBody(SendVoice.REPLYTOMESSAGEID_FIELD, sendVoice.getReplyToMessageId().toString(), TEXT_PLAIN_CONTENT_TYPE);
@@ -580,15 +640,15 @@ public abstract class DefaultAbsSender extends AbsSender {
                 builder.addTextBody(SendVoice.PROTECTCONTENT_FIELD, sendVoice.getProtectContent().toString(), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendVoice.getCaptionEntities() != null) {
-                builder.addTextBody(SendVoice.CAPTION_ENTITIES_FIELD, objectMapper.writeValueAsString(sendVoice.getCaptionEntities()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendVoice.CAPTION_ENTITIES_FIELD, options.getJsonMapper().writeValueAsString(sendVoice.getCaptionEntities()), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendVoice.getReplyParameters() != null) {
-                builder.addTextBody(SendVoice.REPLY_PARAMETERS_FIELD, objectMapper.writeValueAsString(sendVoice.getReplyParameters()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendVoice.REPLY_PARAMETERS_FIELD, options.getJsonMapper().writeValueAsString(sendVoice.getReplyParameters()), TEXT_PLAIN_CONTENT_TYPE);
             }
             HttpEntity multipart = builder.build();
             httppost.setEntity(multipart);
 
-            return sendVoice.deserializeResponse(sendHttpPostRequest(httppost));
+            return executeUpload(sendVoice, httppost, upload, () -> execute(sendVoice));
         } catch (IOException e) {
             throw new TelegramApiException("Unable to send voice", e);
         }
@@ -612,11 +672,15 @@ public abstract class DefaultAbsSender extends AbsSender {
                 builder.addBinaryBody(SetChatPhoto.PHOTO_FIELD, photo.getNewMediaFile());
             } else if (photo.getNewMediaStream() != null) {
                 builder.addBinaryBody(SetChatPhoto.PHOTO_FIELD, photo.getNewMediaStream(), ContentType.APPLICATION_OCTET_STREAM, photo.getMediaName());
+            } else if (photo.getNewMediaChannel() != null) {
+                builder.addPart(SetChatPhoto.PHOTO_FIELD, new ChannelBody(photo.getNewMediaChannel(), photo.getNewMediaSize(), ContentType.APPLICATION_OCTET_STREAM, photo.getMediaName(), uploadMeter));
             }
             HttpEntity multipart = builder.build();
             httppost.setEntity(multipart);
 
-            return setChatPhoto.deserializeResponse(sendHttpPostRequest(httppost));
+            Boolean result = deserializeResponse(setChatPhoto, sendHttpPostRequest(setChatPhoto, httppost));
+            onMethodExecuted(setChatPhoto);
+            return result;
         } catch (IOException e) {
             throw new TelegramApiException("Unable to set chat photo", e);
         }
@@ -654,13 +718,13 @@ public abstract class DefaultAbsSender extends AbsSender {
                 builder.addTextBody(SendMediaGroup.PROTECTCONTENT_FIELD, sendMediaGroup.getProtectContent().toString(), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendMediaGroup.getReplyParameters() != null) {
-                builder.addTextBody(SendMediaGroup.REPLY_PARAMETERS_FIELD, objectMapper.writeValueAsString(sendMediaGroup.getReplyParameters()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendMediaGroup.REPLY_PARAMETERS_FIELD, options.getJsonMapper().writeValueAsString(sendMediaGroup.getReplyParameters()), TEXT_PLAIN_CONTENT_TYPE);
             }
 
             HttpEntity multipart = builder.build();
             httppost.setEntity(multipart);
 
-            return sendMediaGroup.deserializeResponse(sendHttpPostRequest(httppost));
+            return deserializeResponse(sendMediaGroup, sendHttpPostRequest(sendMediaGroup, httppost));
         } catch (IOException e) {
             throw new TelegramApiException("Unable to set chat photo", e);
         }
@@ -693,13 +757,13 @@ public abstract class DefaultAbsSender extends AbsSender {
                 }
 
                 if (addStickerToSet.getMaskPosition() != null) {
-                    builder.addTextBody(AddStickerToSet.MASKPOSITION_FIELD, objectMapper.writeValueAsString(addStickerToSet.getMaskPosition()), TEXT_PLAIN_CONTENT_TYPE);
+                    builder.addTextBody(AddStickerToSet.MASKPOSITION_FIELD, options.getJsonMapper().writeValueAsString(addStickerToSet.getMaskPosition()), TEXT_PLAIN_CONTENT_TYPE);
                 }
             }
             HttpEntity multipart = builder.build();
             httppost.setEntity(multipart);
 
-            return addStickerToSet.deserializeResponse(sendHttpPostRequest(httppost));
+            return deserializeResponse(addStickerToSet, sendHttpPostRequest(addStickerToSet, httppost));
         } catch (IOException e) {
             throw new TelegramApiException("Unable to add sticker to set", e);
         }
@@ -723,7 +787,7 @@ public abstract class DefaultAbsSender extends AbsSender {
             HttpEntity multipart = builder.build();
             httppost.setEntity(multipart);
 
-            return setStickerSetThumb.deserializeResponse(sendHttpPostRequest(httppost));
+            return deserializeResponse(setStickerSetThumb, sendHttpPostRequest(setStickerSetThumb, httppost));
         } catch (IOException e) {
             throw new TelegramApiException("Unable to set sticker set thumb", e);
         }
@@ -761,13 +825,13 @@ public abstract class DefaultAbsSender extends AbsSender {
                 addInputFile(builder, createNewStickerSet.getWebmSticker(), CreateNewStickerSet.WEBMSTICKER_FIELD, true);
             }
             if (createNewStickerSet.getMaskPosition() != null) {
-                builder.addTextBody(CreateNewStickerSet.MASKPOSITION_FIELD, objectMapper.writeValueAsString(createNewStickerSet.getMaskPosition()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(CreateNewStickerSet.MASKPOSITION_FIELD, options.getJsonMapper().writeValueAsString(createNewStickerSet.getMaskPosition()), TEXT_PLAIN_CONTENT_TYPE);
             }
 
             HttpEntity multipart = builder.build();
             httppost.setEntity(multipart);
 
-            return createNewStickerSet.deserializeResponse(sendHttpPostRequest(httppost));
+            return deserializeResponse(createNewStickerSet, sendHttpPostRequest(createNewStickerSet, httppost));
         } catch (IOException e) {
             throw new TelegramApiException("Unable to create new sticker set", e);
         }
@@ -789,7 +853,7 @@ public abstract class DefaultAbsSender extends AbsSender {
             HttpEntity multipart = builder.build();
             httppost.setEntity(multipart);
 
-            return uploadStickerFile.deserializeResponse(sendHttpPostRequest(httppost));
+            return deserializeResponse(uploadStickerFile, sendHttpPostRequest(uploadStickerFile, httppost));
         } catch (IOException e) {
             throw new TelegramApiException("Unable to upload new sticker file", e);
         }
@@ -813,7 +877,7 @@ public abstract class DefaultAbsSender extends AbsSender {
                 builder.addTextBody(EditMessageMedia.INLINE_MESSAGE_ID_FIELD, editMessageMedia.getInlineMessageId(), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (editMessageMedia.getReplyMarkup() != null) {
-                builder.addTextBody(EditMessageMedia.REPLYMARKUP_FIELD, objectMapper.writeValueAsString(editMessageMedia.getReplyMarkup()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(EditMessageMedia.REPLYMARKUP_FIELD, options.getJsonMapper().writeValueAsString(editMessageMedia.getReplyMarkup()), TEXT_PLAIN_CONTENT_TYPE);
             }
 
             addInputData(builder, editMessageMedia.getMedia(), EditMessageMedia.MEDIA_FIELD, true);
@@ -821,7 +885,7 @@ public abstract class DefaultAbsSender extends AbsSender {
             HttpEntity multipart = builder.build();
             httppost.setEntity(multipart);
 
-            return editMessageMedia.deserializeResponse(sendHttpPostRequest(httppost));
+            return deserializeResponse(editMessageMedia, sendHttpPostRequest(editMessageMedia, httppost));
         } catch (IOException e) {
             throw new TelegramApiException("Unable to edit message media", e);
         }
@@ -838,10 +902,10 @@ public abstract class DefaultAbsSender extends AbsSender {
             builder.setLaxMode();
             builder.setCharset(StandardCharsets.UTF_8);
             builder.addTextBody(SendAnimation.CHATID_FIELD, sendAnimation.getChatId(), TEXT_PLAIN_CONTENT_TYPE);
-            addInputFile(builder, sendAnimation.getAnimation(), SendAnimation.ANIMATION_FIELD, true);
+            MediaUpload upload = addMediaFile(builder, sendAnimation.getAnimation(), SendAnimation.PATH, SendAnimation.ANIMATION_FIELD);
 
             if (sendAnimation.getReplyMarkup() != null) {
-                builder.addTextBody(SendAnimation.REPLYMARKUP_FIELD, objectMapper.writeValueAsString(sendAnimation.getReplyMarkup()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendAnimation.REPLYMARKUP_FIELD, options.getJsonMapper().writeValueAsString(sendAnimation.getReplyMarkup()), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendAnimation.getReplyToMessageId() != null) {
                 builder.addTextBody(SendAnimation.REPLYTOMESSAGEID_FIELD, sendAnimation.getReplyToMessageId().toString(), TEXT_PLAIN_CONTENT_TYPE);
@@ -879,18 +943,18 @@ public abstract class DefaultAbsSender extends AbsSender {
                 builder.addTextBody(SendAnimation.PROTECTCONTENT_FIELD, sendAnimation.getProtectContent().toString(), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendAnimation.getCaptionEntities() != null) {
-                builder.addTextBody(SendAnimation.CAPTION_ENTITIES_FIELD, objectMapper.writeValueAsString(sendAnimation.getCaptionEntities()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendAnimation.CAPTION_ENTITIES_FIELD, options.getJsonMapper().writeValueAsString(sendAnimation.getCaptionEntities()), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendAnimation.getHasSpoiler() != null) {
-                builder.addTextBody(SendAnimation.HASSPOILER_FIELD, objectMapper.writeValueAsString(sendAnimation.getHasSpoiler()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendAnimation.HASSPOILER_FIELD, options.getJsonMapper().writeValueAsString(sendAnimation.getHasSpoiler()), TEXT_PLAIN_CONTENT_TYPE);
             }
             if (sendAnimation.getReplyParameters() != null) {
-                builder.addTextBody(SendAnimation.REPLY_PARAMETERS_FIELD, objectMapper.writeValueAsString(sendAnimation.getReplyParameters()), TEXT_PLAIN_CONTENT_TYPE);
+                builder.addTextBody(SendAnimation.REPLY_PARAMETERS_FIELD, options.getJsonMapper().writeValueAsString(sendAnimation.getReplyParameters()), TEXT_PLAIN_CONTENT_TYPE);
             }
             HttpEntity multipart = builder.build();
             httppost.setEntity(multipart);
 
-            return sendAnimation.deserializeResponse(sendHttpPostRequest(httppost));
+            return executeUpload(sendAnimation, httppost, upload, () -> execute(sendAnimation));
         } catch (IOException e) {
             throw new TelegramApiException("Unable to edit message media", e);
         }
@@ -1098,51 +1162,102 @@ public abstract class DefaultAbsSender extends AbsSender {
 
     @Override
     protected final <T extends Serializable, Method extends BotApiMethod<T>, Callback extends SentCallback<T>> void sendApiMethodAsync(Method method, Callback callback) {
-        //noinspection Convert2Lambda
-        exe.submit(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    String responseContent = sendMethodRequest(method);
-                    try {
-                        callback.onResult(method, method.deserializeResponse(responseContent));
-                    } catch (TelegramApiRequestException e) {
-                        callback.onError(method, e);
-                    }
-                } catch (IOException | TelegramApiValidationException e) {
-                    callback.onException(method, e);
-                }
-
+        executeMethodAsync(method, RequestPriority.of(method)).whenComplete((result, exception) -> {
+            if (exception == null) {
+                callback.onResult(method, result);
+                return;
+            }
+            Exception cause = unwrapException(exception);
+            if (cause instanceof TelegramApiRequestException) {
+                callback.onError(method, (TelegramApiRequestException) cause);
+            } else {
+                callback.onException(method, cause);
             }
         });
     }
 
     @Override
     protected <T extends Serializable, Method extends BotApiMethod<T>> CompletableFuture<T> sendApiMethodAsync(Method method) {
-        CompletableFuture<T> completableFuture = new CompletableFuture<>();
-        exe.submit(() -> {
-            try {
-                String responseContent = sendMethodRequest(method);
-                completableFuture.complete(method.deserializeResponse(responseContent));
-            } catch (IOException | TelegramApiValidationException | TelegramApiRequestException e) {
-                completableFuture.completeExceptionally(e);
-            }
-        });
-        return completableFuture;
+        return executeMethodAsync(method, RequestPriority.of(method));
     }
 
     @Override
     protected final <T extends Serializable, Method extends BotApiMethod<T>> T sendApiMethod(Method method) throws TelegramApiException {
-        try {
-            String responseContent = sendMethodRequest(method);
-            return method.deserializeResponse(responseContent);
-        } catch (IOException e) {
-            throw new TelegramApiException("Unable to execute " + method.getMethod() + " method", e);
+        return executeMethod(method, RequestPriority.of(method));
+    }
+
+    /**
+     * Execute a method with a priority other than its default one, i.e. {@link RequestPriority#BULK} for broadcasts.
+     * Priorities only have effect when {@link DefaultBotOptions#setPriorityLanes(PriorityLanes)} is configured.
+     * @param method Method to execute
+     * @param priority Priority of the request
+     * @return Result of the method
+     */
+    public <T extends Serializable, Method extends BotApiMethod<T>> T execute(Method method, RequestPriority priority) throws TelegramApiException {
+        assertParamNotNull(method, "method");
+        assertParamNotNull(priority, "priority");
+        return executeMethod(method, priority);
+    }
+
+    /**
+     * Execute a method asynchronously with a priority other than its default one.
+     * Priorities only have effect when {@link DefaultBotOptions#setPriorityLanes(PriorityLanes)} is configured.
+     * @param method Method to execute
+     * @param priority Priority of the request
+     * @return Future with the result of the method
+     */
+    public <T extends Serializable, Method extends BotApiMethod<T>> CompletableFuture<T> executeAsync(Method method, RequestPriority priority) {
+        if (method == null || priority == null) {
+            CompletableFuture<T> completableFuture = new CompletableFuture<>();
+            completableFuture.completeExceptionally(new TelegramApiException("Parameters method and priority can not be null"));
+            return completableFuture;
         }
+        return executeMethodAsync(method, priority);
     }
 
     // Private methods
 
+    private <T extends Serializable, Method extends BotApiMethod<T>> T executeMethod(Method method, RequestPriority priority) throws TelegramApiException {
+        if (apiCache != null && apiCache.isCached(method)) {
+            // Loaded in the calling thread, identical requests in flight wait for it
+            return awaitResult(method, apiCache.get(method, () -> {
+                CompletableFuture<T> result = new CompletableFuture<>();
+                try {
+                    result.complete(executeRequest(method, priority));
+                } catch (TelegramApiException e) {
+                    result.completeExceptionally(e);
+                }
+                return result;
+            }));
+        }
+        if (editCoalescer != null && editCoalescer.isCoalesced(method)) {
+            return awaitResult(method, executeMethodAsync(method, priority));
+        }
+        return executeRequest(method, priority);
+    }
+
+    private <T extends Serializable, Method extends BotApiMethod<T>> T executeRequest(Method method, RequestPriority priority) throws TelegramApiException {
+        if (retryEngine != null) {
+            retryEngine.onRequest();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                String responseContent = sendMethodRequest(method, priority);
+                T result = deserializeResponse(method, responseContent);
+                onMethodExecuted(method);
+                return result;
+            } catch (TelegramApiRequestException e) {
+                if (!awaitRetry(method, e, attempt)) {
+                    throw e;
+                }
+            } catch (IOException e) {
+                if (!awaitRetry(method, e, attempt)) {
+                    throw new TelegramApiException("Unable to execute " + method.getMethod() + " method", e);
+                }
+            }
+        }
+    }
+
     private void configureHttpContext() {
 
         if (options.getProxyType() != DefaultBotOptions.ProxyType.NO_PROXY) {
@@ -1159,19 +1274,189 @@ public abstract class DefaultAbsSender extends AbsSender {
 
     }
 
-    private <T extends Serializable, Method extends BotApiMethod<T>> String sendMethodRequest(Method method) throws TelegramApiValidationException, IOException {
+    private <T extends Serializable, Method extends BotApiMethod<T>> String sendMethodRequest(Method method, RequestPriority priority) throws TelegramApiValidationException, IOException {
+        return sendHttpPostRequest(method, priority, createMethodRequest(method));
+    }
+
+    private <T extends Serializable, Method extends BotApiMethod<T>> CompletableFuture<String> sendMethodRequestAsync(Method method) {
+        try {
+            return executeLimitedAsync(createMethodRequest(method));
+        } catch (TelegramApiValidationException | IOException e) {
+            CompletableFuture<String> completableFuture = new CompletableFuture<>();
+            completableFuture.completeExceptionally(e);
+            return completableFuture;
+        }
+    }
+
+    private <T extends Serializable, Method extends BotApiMethod<T>> CompletableFuture<T> executeMethodAsync(Method method, RequestPriority priority) {
+        if (apiCache != null && apiCache.isCached(method)) {
+            return apiCache.get(method, () -> executeRequestAsync(method, priority));
+        }
+        if (editCoalescer != null) {
+            return editCoalescer.submit(method, edit -> executeRequestAsync(edit, priority));
+        }
+        return executeRequestAsync(method, priority);
+    }
+
+    private <T extends Serializable, Method extends BotApiMethod<T>> CompletableFuture<T> executeRequestAsync(Method method, RequestPriority priority) {
+        Supplier<CompletableFuture<T>> send = priorityLanes == null ? () -> sendAndDeserializeAsync(method) :
+                () -> priorityLanes.submit(priority, () -> sendAndDeserializeAsync(method));
+        // Rate limit waits happen before taking a lane turn, so requests parked on their chat don't hold it
+        Supplier<CompletableFuture<T>> request = rateLimiter == null ? send :
+                () -> rateLimiter.acquireAsync(method).thenCompose(ignored -> send.get());
+        if (retryEngine == null) {
+            return request.get();
+        }
+        return retryEngine.execute(method, request);
+    }
+
+    private <T extends Serializable, Method extends BotApiMethod<T>> CompletableFuture<T> sendAndDeserializeAsync(Method method) {
+        CompletableFuture<T> completableFuture = new CompletableFuture<>();
+        sendMethodRequestAsync(method).whenComplete((responseContent, exception) -> {
+            if (exception != null) {
+                completableFuture.completeExceptionally(unwrapException(exception));
+                return;
+            }
+            try {
+                T result = deserializeResponse(method, responseContent);
+                onMethodExecuted(method);
+                completableFuture.complete(result);
+            } catch (TelegramApiRequestException e) {
+                completableFuture.completeExceptionally(e);
+            }
+        });
+        return completableFuture;
+    }
+
+    private void onMethodExecuted(PartialBotApiMethod<?> method) {
+        if (apiCache != null) {
+            apiCache.onMethodExecuted(method);
+        }
+    }
+
+    private <T extends Serializable, Method extends BotApiMethod<T>> HttpPost createMethodRequest(Method method) throws TelegramApiValidationException, IOException {
         method.validate();
         String url = getBaseUrl() + method.getMethod();
         HttpPost httppost = configuredHttpPost(url);
         httppost.addHeader("charset", StandardCharsets.UTF_8.name());
-        httppost.setEntity(new StringEntity(objectMapper.writeValueAsString(method), ContentType.APPLICATION_JSON));
-        return sendHttpPostRequest(httppost);
+        if (method instanceof TemplatedMethod) {
+            httppost.setEntity(new ByteArrayEntity(((TemplatedMethod<?>) method).getBody(), ContentType.APPLICATION_JSON));
+        } else {
+            httppost.setEntity(new JsonEntity(method, options.getJsonMapper()));
+        }
+        return httppost;
+    }
+
+    private String sendHttpPostRequest(PartialBotApiMethod<?> method, HttpPost httppost) throws IOException {
+        return sendHttpPostRequest(method, RequestPriority.of(method), httppost);
+    }
+
+    private String sendHttpPostRequest(PartialBotApiMethod<?> method, RequestPriority priority, HttpPost httppost) throws IOException {
+        try {
+            // Rate limit waits happen before taking a lane turn, so requests parked on their chat don't hold it
+            if (rateLimiter != null) {
+                rateLimiter.acquire(method);
+            }
+            if (priorityLanes != null) {
+                priorityLanes.acquireInterruptibly(priority);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to send " + method.getMethod());
+        }
+        try {
+            return executeLimited(httppost);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to send " + method.getMethod());
+        } finally {
+            if (priorityLanes != null) {
+                priorityLanes.release();
+            }
+        }
+    }
+
+    private String executeLimited(HttpPost httppost) throws IOException, InterruptedException {
+        if (concurrencyLimiter == null) {
+            return transport.execute(httppost);
+        }
+        long start = concurrencyLimiter.acquire();
+        String responseContent = null;
+        IOException exception = null;
+        try {
+            responseContent = transport.execute(httppost);
+            return responseContent;
+        } catch (IOException e) {
+            exception = e;
+            throw e;
+        } finally {
+            concurrencyLimiter.release(start, responseContent, exception, !isUpload(httppost));
+        }
+    }
+
+    private CompletableFuture<String> executeLimitedAsync(HttpPost httppost) {
+        if (concurrencyLimiter == null) {
+            return transport.executeAsync(httppost);
+        }
+        return concurrencyLimiter.acquireAsync().thenCompose(start -> transport.executeAsync(httppost)
+                .whenComplete((responseContent, exception) -> concurrencyLimiter.release(start, responseContent, exception, !isUpload(httppost))));
+    }
+
+    /**
+     * @return True if the request sends files, so the time it takes depends on their size
+     */
+    private static boolean isUpload(HttpPost httppost) {
+        HttpEntity entity = httppost.getEntity();
+        return entity != null && entity.getContentType() != null && entity.getContentType().getValue().startsWith("multipart/");
+    }
+
+    private <T extends Serializable> T deserializeResponse(PartialBotApiMethod<T> method, String responseContent) throws TelegramApiRequestException {
+        try {
+            return method.deserializeResponse(responseContent);
+        } catch (TelegramApiRequestException e) {
+            if (rateLimiter != null) {
+                rateLimiter.onRequestError(method, e);
+            }
+            throw e;
+        }
     }
 
-    private String sendHttpPostRequest(HttpPost httppost) throws IOException {
-        try (CloseableHttpResponse response = httpClient.execute(httppost, options.getHttpContext())) {
-            return EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+    /**
+     * Wait in the current thread for the next attempt of a failed method, if the retry engine allows retrying it
+     * @return True if the method must be sent again, false if the error must be returned to the caller
+     */
+    private boolean awaitRetry(PartialBotApiMethod<?> method, Exception exception, int attempt) throws TelegramApiException {
+        long delay = retryEngine == null ? -1 : retryEngine.getRetryDelay(method, exception, attempt);
+        if (delay < 0) {
+            return false;
         }
+        try {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TelegramApiException("Interrupted while waiting to retry " + method.getMethod() + " method", e);
+        }
+        return true;
+    }
+
+    private <T extends Serializable> T awaitResult(PartialBotApiMethod<T> method, CompletableFuture<T> future) throws TelegramApiException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TelegramApiException("Interrupted while waiting for " + method.getMethod() + " method", e);
+        } catch (ExecutionException e) {
+            Exception cause = unwrapException(e.getCause());
+            if (cause instanceof TelegramApiException) {
+                throw (TelegramApiException) cause;
+            }
+            throw new TelegramApiException("Unable to execute " + method.getMethod() + " method", cause);
+        }
+    }
+
+    private static Exception unwrapException(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        return cause instanceof Exception ? (Exception) cause : new ExecutionException(cause);
     }
 
     private HttpPost configuredHttpPost(String url) {
@@ -1180,10 +1465,10 @@ public abstract class DefaultAbsSender extends AbsSender {
         return httppost;
     }
 
-    private void addInputData(MultipartEntityBuilder builder, InputMedia media, String mediaField, boolean addField) throws JsonProcessingException {
+    private void addInputData(MultipartEntityBuilder builder, InputMedia media, String mediaField, boolean addField) throws IOException {
         if (media.isNewMedia()) {
             if (media.getNewMediaFile() != null) {
-                builder.addBinaryBody(media.getMediaName(), media.getNewMediaFile(), ContentType.APPLICATION_OCTET_STREAM, media.getMediaName());
+                builder.addPart(media.getMediaName(), new ChannelBody(media.getNewMediaFile().toPath(), ContentType.APPLICATION_OCTET_STREAM, media.getMediaName(), uploadMeter));
             } else if (media.getNewMediaStream() != null) {
                 builder.addBinaryBody(media.getMediaName(), media.getNewMediaStream(), ContentType.APPLICATION_OCTET_STREAM, media.getMediaName());
             }
@@ -1212,32 +1497,83 @@ public abstract class DefaultAbsSender extends AbsSender {
         }
 
         if (addField) {
-            builder.addTextBody(mediaField, objectMapper.writeValueAsString(media), TEXT_PLAIN_CONTENT_TYPE);
+            builder.addTextBody(mediaField, options.getJsonMapper().writeValueAsString(media), TEXT_PLAIN_CONTENT_TYPE);
         }
     }
 
-    private void addInputData(MultipartEntityBuilder builder, List<InputMedia> media, String mediaField) throws JsonProcessingException {
+    private void addInputData(MultipartEntityBuilder builder, List<InputMedia> media, String mediaField) throws IOException {
         for (InputMedia inputMedia : media) {
             addInputData(builder, inputMedia, null, false);
         }
 
-        builder.addTextBody(mediaField, objectMapper.writeValueAsString(media), TEXT_PLAIN_CONTENT_TYPE);
+        builder.addTextBody(mediaField, options.getJsonMapper().writeValueAsString(media), TEXT_PLAIN_CONTENT_TYPE);
     }
 
-    private void addStickers(MultipartEntityBuilder builder, List<InputSticker> stickers, String stickersField) throws JsonProcessingException {
+    private void addStickers(MultipartEntityBuilder builder, List<InputSticker> stickers, String stickersField) throws IOException {
         for (InputSticker sticker : stickers) {
             addInputFile(builder, sticker.getSticker(), null, false);
         }
 
-        builder.addTextBody(stickersField, objectMapper.writeValueAsString(stickers), TEXT_PLAIN_CONTENT_TYPE);
+        builder.addTextBody(stickersField, options.getJsonMapper().writeValueAsString(stickers), TEXT_PLAIN_CONTENT_TYPE);
     }
 
-    private void addInputFile(MultipartEntityBuilder builder, InputFile file, String fileField, boolean addField) {
+    /**
+     * Add the main media of a send, referencing the file_id of an identical upload instead if the upload cache knows it
+     * @return Key of the uploaded content in the upload cache and the file_id sent in its place
+     */
+    private MediaUpload addMediaFile(MultipartEntityBuilder builder, InputFile file, String method, String fileField) throws IOException {
+        String uploadKey = uploadCache == null ? null : uploadCache.getKey(method, file);
+        if (uploadKey != null) {
+            String fileId = uploadCache.getFileId(uploadKey);
+            if (fileId != null) {
+                builder.addTextBody(fileField, fileId, TEXT_PLAIN_CONTENT_TYPE);
+                return new MediaUpload(uploadKey, fileId);
+            }
+        }
+        addInputFile(builder, file, fileField, true);
+        return new MediaUpload(uploadKey, null);
+    }
+
+    /**
+     * Send a media, remembering the file_id of the content uploaded. If Telegram rejects a cached file_id it is
+     * forgotten and the media is sent again uploading the content.
+     * @param uploadAgain Sends the media again, building a new request
+     */
+    private Message executeUpload(PartialBotApiMethod<Message> method, HttpPost httppost, MediaUpload upload,
+                                  UploadRetry uploadAgain) throws IOException, TelegramApiException {
+        Message message;
+        try {
+            message = deserializeResponse(method, sendHttpPostRequest(method, httppost));
+        } catch (TelegramApiRequestException e) {
+            if (upload.cachedFileId != null && isFileRejected(e)) {
+                log.debug("Cached file_id {} rejected, uploading the content again: {}", upload.cachedFileId, e.getApiResponse());
+                uploadCache.invalidate(upload.key);
+                return uploadAgain.execute();
+            }
+            throw e;
+        }
+        if (upload.key != null && upload.cachedFileId == null) {
+            uploadCache.put(upload.key, message);
+        }
+        return message;
+    }
+
+    /**
+     * @return True if the error is about the file sent, i.e. "wrong file identifier" or "type of file mismatch"
+     */
+    private static boolean isFileRejected(TelegramApiRequestException e) {
+        return Integer.valueOf(400).equals(e.getErrorCode()) && e.getApiResponse() != null &&
+                e.getApiResponse().toLowerCase().contains("file");
+    }
+
+    private void addInputFile(MultipartEntityBuilder builder, InputFile file, String fileField, boolean addField) throws IOException {
         if (file.isNew()) {
             if (file.getNewMediaFile() != null) {
-                builder.addBinaryBody(file.getMediaName(), file.getNewMediaFile(), ContentType.APPLICATION_OCTET_STREAM, file.getMediaName());
+                builder.addPart(file.getMediaName(), new ChannelBody(file.getNewMediaFile().toPath(), ContentType.APPLICATION_OCTET_STREAM, file.getMediaName(), uploadMeter));
             } else if (file.getNewMediaStream() != null) {
                 builder.addBinaryBody(file.getMediaName(), file.getNewMediaStream(), ContentType.APPLICATION_OCTET_STREAM, file.getMediaName());
+            } else if (file.getNewMediaChannel() != null) {
+                builder.addPart(file.getMediaName(), new ChannelBody(file.getNewMediaChannel(), file.getNewMediaSize(), ContentType.APPLICATION_OCTET_STREAM, file.getMediaName(), uploadMeter));
             }
         }
 
@@ -1251,4 +1587,22 @@ public abstract class DefaultAbsSender extends AbsSender {
             throw new TelegramApiException("Parameter " + paramName + " can not be null");
         }
     }
+
+    /**
+     * Main media of a send: its key in the upload cache, null if not cacheable, and the cached file_id sent instead
+     * of the content, null if uploaded
+     */
+    private static final class MediaUpload {
+        private final String key;
+        private final String cachedFileId;
+
+        private MediaUpload(String key, String cachedFileId) {
+            this.key = key;
+            this.cachedFileId = cachedFileId;
+        }
+    }
+
+    private interface UploadRetry {
+        Message execute() throws TelegramApiException;
+    }
 }
@@ -3,9 +3,19 @@ package org.telegram.telegrambots.bots;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.protocol.HttpContext;
+import org.telegram.telegrambots.facilities.cache.BotApiCache;
+import org.telegram.telegrambots.facilities.coalesce.EditCoalescer;
+import org.telegram.telegrambots.facilities.concurrency.AdaptiveConcurrencyLimiter;
+import org.telegram.telegrambots.facilities.filedownloader.DownloaderOptions;
+import org.telegram.telegrambots.facilities.priority.PriorityLanes;
+import org.telegram.telegrambots.facilities.ratelimit.TelegramRateLimiter;
+import org.telegram.telegrambots.facilities.retry.TelegramRetryEngine;
+import org.telegram.telegrambots.facilities.transport.TelegramTransport;
+import org.telegram.telegrambots.facilities.upload.UploadCache;
 import org.telegram.telegrambots.meta.ApiConstants;
 import org.telegram.telegrambots.meta.generics.BotOptions;
 import org.telegram.telegrambots.meta.generics.BackOff;
+import org.telegram.telegrambots.meta.serialization.TelegramJsonMapper;
 
 import java.util.List;
 
@@ -31,6 +41,27 @@ public class DefaultBotOptions implements BotOptions {
     private int proxyPort;
     private int getUpdatesTimeout;
     private int getUpdatesLimit;
+    private boolean pipelinedPolling;
+    private int updatesDispatchThreads;
+    private int updatesDispatchQueueSize;
+    private int updatesBufferSize;
+    private TelegramTransport transport;
+    private int maxConnectionsTotal;
+    private int maxConnectionsPerRoute;
+    private long connectionTimeToLive;
+    private long connectionMaxIdleTime;
+    private int validateAfterInactivity;
+    private long keepAliveTime;
+    private TelegramJsonMapper jsonMapper;
+    private int duplicateUpdatesWindow;
+    private TelegramRateLimiter rateLimiter;
+    private TelegramRetryEngine retryEngine;
+    private PriorityLanes priorityLanes;
+    private EditCoalescer editCoalescer;
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private BotApiCache apiCache;
+    private UploadCache uploadCache;
+    private DownloaderOptions downloaderOptions;
 
     public enum ProxyType {
         NO_PROXY,
@@ -46,6 +77,15 @@ public class DefaultBotOptions implements BotOptions {
         proxyType = ProxyType.NO_PROXY;
         getUpdatesTimeout = ApiConstants.GETUPDATES_TIMEOUT;
         getUpdatesLimit = 100;
+        updatesDispatchThreads = 0;
+        updatesDispatchQueueSize = 1000;
+        updatesBufferSize = 1000;
+        maxConnectionsTotal = 100;
+        maxConnectionsPerRoute = 100;
+        connectionTimeToLive = 70_000;
+        connectionMaxIdleTime = 0;
+        validateAfterInactivity = 2_000;
+        keepAliveTime = 0;
     }
 
     @Override
@@ -152,4 +192,278 @@ public class DefaultBotOptions implements BotOptions {
     public void setGetUpdatesLimit(int getUpdatesLimit) {
         this.getUpdatesLimit = getUpdatesLimit;
     }
+
+    public boolean isPipelinedPolling() {
+        return pipelinedPolling;
+    }
+
+    /**
+     * @param pipelinedPolling If true, the long polling reader requests the next batch of updates right after
+     *                         handing off the current one, without waiting on an empty batch or holding the
+     *                         session lock during the request.
+     * @implSpec Default is false. Pipelined polling relies on the server side long polling timeout
+     * ({@link #setGetUpdatesTimeout(int)}) to avoid a busy loop, so it should not be used with a timeout of 0.
+     */
+    public void setPipelinedPolling(boolean pipelinedPolling) {
+        this.pipelinedPolling = pipelinedPolling;
+    }
+
+    public int getUpdatesDispatchThreads() {
+        return updatesDispatchThreads;
+    }
+
+    /**
+     * @param updatesDispatchThreads Number of threads used to handle received updates in parallel. Updates are
+     *                               sharded by chat (or user), so updates from the same chat are handled in order.
+     * @implSpec Default is 0, all updates are handled in a single thread
+     */
+    public void setUpdatesDispatchThreads(int updatesDispatchThreads) {
+        this.updatesDispatchThreads = updatesDispatchThreads;
+    }
+
+    public int getUpdatesDispatchQueueSize() {
+        return updatesDispatchQueueSize;
+    }
+
+    /**
+     * @param updatesDispatchQueueSize Max number of pending updates per dispatch thread
+     * @implSpec Default is 1000
+     */
+    public void setUpdatesDispatchQueueSize(int updatesDispatchQueueSize) {
+        this.updatesDispatchQueueSize = updatesDispatchQueueSize;
+    }
+
+    public int getUpdatesBufferSize() {
+        return updatesBufferSize;
+    }
+
+    /**
+     * @param updatesBufferSize Max number of received updates waiting to be handled. While the buffer is full,
+     *                          no more updates are requested to Telegram.
+     * @implSpec Default is 1000
+     */
+    public void setUpdatesBufferSize(int updatesBufferSize) {
+        this.updatesBufferSize = updatesBufferSize;
+    }
+
+    public TelegramTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * @param transport Transport used to send requests to Telegram, i.e.
+     *                  {@link org.telegram.telegrambots.facilities.transport.AsyncHttpClientTransport}
+     *                  to send async methods without blocking a thread per request
+     * @implSpec Default is null, requests are sent with a blocking Apache HttpClient and async methods
+     * are executed in a pool of {@link #getMaxThreads()} threads
+     */
+    public void setTransport(TelegramTransport transport) {
+        this.transport = transport;
+    }
+
+    public int getMaxConnectionsTotal() {
+        return maxConnectionsTotal;
+    }
+
+    /**
+     * @param maxConnectionsTotal Max number of open connections to all hosts
+     * @implSpec Default is 100
+     */
+    public void setMaxConnectionsTotal(int maxConnectionsTotal) {
+        this.maxConnectionsTotal = maxConnectionsTotal;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    /**
+     * @param maxConnectionsPerRoute Max number of open connections to a single host. All the requests of a bot
+     *                               go to the same host, so this is the max number of concurrent requests.
+     * @implSpec Default is 100
+     */
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+    public long getConnectionTimeToLive() {
+        return connectionTimeToLive;
+    }
+
+    /**
+     * @param connectionTimeToLive Max lifetime of a connection in milliseconds, 0 or less to keep them indefinitely
+     * @implSpec Default is 70 seconds
+     */
+    public void setConnectionTimeToLive(long connectionTimeToLive) {
+        this.connectionTimeToLive = connectionTimeToLive;
+    }
+
+    public long getConnectionMaxIdleTime() {
+        return connectionMaxIdleTime;
+    }
+
+    /**
+     * @param connectionMaxIdleTime Time in milliseconds after which idle connections are closed in background
+     * @implSpec Default is 0, idle connections are only closed when their time to live or keep-alive expires
+     */
+    public void setConnectionMaxIdleTime(long connectionMaxIdleTime) {
+        this.connectionMaxIdleTime = connectionMaxIdleTime;
+    }
+
+    public int getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    /**
+     * @param validateAfterInactivity Time in milliseconds of inactivity after which a pooled connection is checked
+     *                                to be still open before reusing it, 0 or less to disable the check
+     * @implSpec Default is 2 seconds
+     */
+    public void setValidateAfterInactivity(int validateAfterInactivity) {
+        this.validateAfterInactivity = validateAfterInactivity;
+    }
+
+    public long getKeepAliveTime() {
+        return keepAliveTime;
+    }
+
+    /**
+     * @param keepAliveTime Max time in milliseconds to keep an idle connection alive, even if the server allows
+     *                      a longer time
+     * @implSpec Default is 0, the Keep-Alive header of the responses is honored, keeping the connection
+     * indefinitely when there is none
+     */
+    public void setKeepAliveTime(long keepAliveTime) {
+        this.keepAliveTime = keepAliveTime;
+    }
+
+    /**
+     * @return Mapper configured in these options, or the shared default one if none was set
+     */
+    public TelegramJsonMapper getJsonMapper() {
+        return jsonMapper != null ? jsonMapper : TelegramJsonMapper.getDefault();
+    }
+
+    /**
+     * @param jsonMapper Mapper used to serialize requests of this bot
+     * @implSpec Default is {@link TelegramJsonMapper#getDefault()}. Responses are always read with the default mapper.
+     */
+    public void setJsonMapper(TelegramJsonMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+    }
+
+    public int getDuplicateUpdatesWindow() {
+        return duplicateUpdatesWindow;
+    }
+
+    /**
+     * @param duplicateUpdatesWindow Number of recent update ids remembered to drop updates received more than once
+     *                               before they reach the bot
+     * @implSpec Default is 0, no duplicates detection
+     */
+    public void setDuplicateUpdatesWindow(int duplicateUpdatesWindow) {
+        this.duplicateUpdatesWindow = duplicateUpdatesWindow;
+    }
+
+    public TelegramRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * @param rateLimiter Limiter delaying outgoing messages to keep the bot within Telegram flood limits.
+     *                    Limits apply per bot token, so the same limiter must not be shared by different bots.
+     * @implSpec Default is null, messages are sent as soon as they are executed
+     */
+    public void setRateLimiter(TelegramRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    public TelegramRetryEngine getRetryEngine() {
+        return retryEngine;
+    }
+
+    /**
+     * @param retryEngine Engine retrying methods failed because of flood control, server or network errors.
+     *                    Sync methods wait for their retries in the caller thread, async ones don't block any thread.
+     * @implSpec Default is null, errors are returned to the caller right away. Methods uploading files are never retried.
+     */
+    public void setRetryEngine(TelegramRetryEngine retryEngine) {
+        this.retryEngine = retryEngine;
+    }
+
+    public PriorityLanes getPriorityLanes() {
+        return priorityLanes;
+    }
+
+    /**
+     * @param priorityLanes Lanes limiting the requests in flight and deciding which queued request goes next
+     *                      depending on its {@link org.telegram.telegrambots.facilities.priority.RequestPriority}
+     * @implSpec Default is null, requests are sent in the order they are executed
+     */
+    public void setPriorityLanes(PriorityLanes priorityLanes) {
+        this.priorityLanes = priorityLanes;
+    }
+
+    public EditCoalescer getEditCoalescer() {
+        return editCoalescer;
+    }
+
+    /**
+     * @param editCoalescer Coalescer sending only the latest of the edits of a message made while the previous
+     *                      one is waiting or being sent
+     * @implSpec Default is null, every edit is sent
+     */
+    public void setEditCoalescer(EditCoalescer editCoalescer) {
+        this.editCoalescer = editCoalescer;
+    }
+
+    public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * @param concurrencyLimiter Limiter adapting the number of requests in flight to the latency and errors of
+     *                           the API. Its max limit should not exceed the connections (or threads, for the
+     *                           default transport) available.
+     * @implSpec Default is null, requests in flight are only limited by the transport
+     */
+    public void setConcurrencyLimiter(AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    public BotApiCache getApiCache() {
+        return apiCache;
+    }
+
+    /**
+     * @param apiCache Cache for the results of read-only methods, i.e. GetChat or GetChatMember
+     * @implSpec Default is null, every method is sent
+     */
+    public void setApiCache(BotApiCache apiCache) {
+        this.apiCache = apiCache;
+    }
+
+    public UploadCache getUploadCache() {
+        return uploadCache;
+    }
+
+    /**
+     * @param uploadCache Cache of the file_ids of uploaded files, to send the same content again without uploading it
+     * @implSpec Default is null, every new file is uploaded
+     */
+    public void setUploadCache(UploadCache uploadCache) {
+        this.uploadCache = uploadCache;
+    }
+
+    public DownloaderOptions getDownloaderOptions() {
+        return downloaderOptions;
+    }
+
+    /**
+     * @param downloaderOptions Threads, queue and buffer of the file downloader
+     * @implSpec Default is null, 4 concurrent downloads with up to 1000 queued
+     */
+    public void setDownloaderOptions(DownloaderOptions downloaderOptions) {
+        this.downloaderOptions = downloaderOptions;
+    }
 }
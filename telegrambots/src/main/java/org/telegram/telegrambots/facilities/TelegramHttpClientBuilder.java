@@ -2,10 +2,14 @@ package org.telegram.telegrambots.facilities;
 
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
 import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.ssl.SSLContexts;
@@ -23,33 +27,72 @@ import java.util.concurrent.TimeUnit;
 public class TelegramHttpClientBuilder {
 
     public static CloseableHttpClient build(DefaultBotOptions options) {
+        return build(options, createConnectionManager(options));
+    }
+
+    /**
+     * @param options Options of the bot
+     * @param connectionManager Connection manager to use, usually created with {@link #createConnectionManager(DefaultBotOptions)}
+     * @return Http client configured with the keep-alive and eviction settings of the options
+     */
+    public static CloseableHttpClient build(DefaultBotOptions options, HttpClientConnectionManager connectionManager) {
         HttpClientBuilder httpClientBuilder = HttpClientBuilder.create()
                 .setSSLHostnameVerifier(new NoopHostnameVerifier())
-                .setConnectionManager(createConnectionManager(options))
-                .setConnectionTimeToLive(70, TimeUnit.SECONDS)
-                .setMaxConnTotal(100);
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy(createKeepAliveStrategy(options))
+                .evictExpiredConnections();
+        if (options.getConnectionMaxIdleTime() > 0) {
+            httpClientBuilder.evictIdleConnections(options.getConnectionMaxIdleTime(), TimeUnit.MILLISECONDS);
+        }
         return httpClientBuilder.build();
     }
 
-    private static HttpClientConnectionManager createConnectionManager(DefaultBotOptions options) {
+    /**
+     * @param options Options of the bot
+     * @return Connection pool sized and configured from the options, using the proxy set in them
+     */
+    public static PoolingHttpClientConnectionManager createConnectionManager(DefaultBotOptions options) {
         Registry<ConnectionSocketFactory> registry;
         switch (options.getProxyType()) {
-            case NO_PROXY:
-                return null;
             case HTTP:
                 registry = RegistryBuilder.<ConnectionSocketFactory> create()
                         .register("http", new HttpConnectionSocketFactory())
                         .register("https", new HttpSSLConnectionSocketFactory(SSLContexts.createSystemDefault())).build();
-                return new PoolingHttpClientConnectionManager(registry);
+                break;
             case SOCKS4:
             case SOCKS5:
                 registry = RegistryBuilder.<ConnectionSocketFactory> create()
                         .register("http", new SocksConnectionSocketFactory())
                         .register("https", new SocksSSLConnectionSocketFactory(SSLContexts.createSystemDefault()))
                         .build();
-                return new PoolingHttpClientConnectionManager(registry);
+                break;
+            default:
+                registry = RegistryBuilder.<ConnectionSocketFactory> create()
+                        .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                        .register("https", new SSLConnectionSocketFactory(SSLContexts.createDefault(), new NoopHostnameVerifier()))
+                        .build();
+                break;
         }
-        return null;
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(registry, null, null, null,
+                options.getConnectionTimeToLive(), TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(options.getMaxConnectionsTotal());
+        connectionManager.setDefaultMaxPerRoute(options.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity(options.getValidateAfterInactivity());
+        return connectionManager;
     }
 
+    /**
+     * @param options Options of the bot
+     * @return Strategy keeping connections alive as long as the server allows, capped to the keep-alive time of the options
+     */
+    public static ConnectionKeepAliveStrategy createKeepAliveStrategy(DefaultBotOptions options) {
+        long keepAliveTime = options.getKeepAliveTime();
+        return (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            if (keepAliveTime <= 0) {
+                return serverKeepAlive;
+            }
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAliveTime) : keepAliveTime;
+        };
+    }
 }
@@ -0,0 +1,342 @@
+package org.telegram.telegrambots.facilities.batch;
+
+import org.telegram.telegrambots.bots.DefaultAbsSender;
+import org.telegram.telegrambots.facilities.priority.RequestPriority;
+import org.telegram.telegrambots.meta.api.methods.CopyMessage;
+import org.telegram.telegrambots.meta.api.methods.CopyMessages;
+import org.telegram.telegrambots.meta.api.methods.ForwardMessage;
+import org.telegram.telegrambots.meta.api.methods.ForwardMessages;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.DeleteMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.DeleteMessages;
+import org.telegram.telegrambots.meta.api.objects.MessageId;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collects single message deletes, copies and forwards issued close in time and sends them as
+ * {@link DeleteMessages}, {@link CopyMessages} and {@link ForwardMessages}, up to 100 messages per request.
+ *
+ * Calls with the same target chat (and, for copies and forwards, the same source chat and options) made within the
+ * batching window are sent together; a call alone in its window is sent with its own method, keeping its exact
+ * result. The future of every call completes with its part of the combined result:
+ * <ul>
+ *     <li>Deletes complete with the result of the whole batch, Telegram skips the messages that can't be deleted.</li>
+ *     <li>Copies and forwards complete with the id of the new message. Forwards alone in their window also
+ *     complete with an id, the message returned by {@link ForwardMessage} is not kept.</li>
+ * </ul>
+ * Telegram also skips messages that can't be copied or forwarded. In that case the new messages can't be matched to
+ * the original ones and every call of the batch fails, even if some messages were sent.
+ *
+ * Copies with a new caption, reply markup or reply parameters can't be batched and are sent right away.
+ */
+public class MessageBatcher implements Closeable {
+    public static final int MAX_BATCH_SIZE = 100;
+
+    private final DefaultAbsSender sender;
+    private final long windowNanos;
+    private final Map<List<Object>, Batch<?>> batches = new HashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder batchedCalls = new LongAdder();
+    private final LongAdder sentRequests = new LongAdder();
+
+    /**
+     * Batcher waiting up to 5 milliseconds for more calls
+     * @param sender Bot sending the requests
+     */
+    public MessageBatcher(DefaultAbsSender sender) {
+        this(sender, 5);
+    }
+
+    /**
+     * @param sender Bot sending the requests
+     * @param windowMillis Max time a call waits for more calls to send with it
+     */
+    public MessageBatcher(DefaultAbsSender sender, long windowMillis) {
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("WindowMillis can't be negative");
+        }
+        this.sender = sender;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "Telegram Message Batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.scheduler = executor;
+    }
+
+    /**
+     * @param deleteMessage Message to delete
+     * @return Future with the result of the delete
+     */
+    public CompletableFuture<Boolean> delete(DeleteMessage deleteMessage) {
+        List<Object> key = Arrays.asList(DeleteMessages.class, deleteMessage.getChatId());
+        return add(key, deleteMessage.getMessageId(), false, () -> new DeleteBatch(key, deleteMessage));
+    }
+
+    /**
+     * @param copyMessage Message to copy
+     * @return Future with the id of the copy
+     */
+    public CompletableFuture<MessageId> copy(CopyMessage copyMessage) {
+        if (copyMessage.getCaption() != null || copyMessage.getParseMode() != null || copyMessage.getCaptionEntities() != null ||
+                copyMessage.getReplyMarkup() != null || copyMessage.getReplyToMessageId() != null ||
+                copyMessage.getAllowSendingWithoutReply() != null || copyMessage.getReplyParameters() != null) {
+            sentRequests.increment();
+            return sender.executeAsync(copyMessage, RequestPriority.of(copyMessage));
+        }
+        List<Object> key = Arrays.asList(CopyMessages.class, copyMessage.getChatId(), copyMessage.getFromChatId(),
+                copyMessage.getMessageThreadId(), copyMessage.getDisableNotification(), copyMessage.getProtectContent());
+        return add(key, copyMessage.getMessageId(), true, () -> new CopyBatch(key, copyMessage));
+    }
+
+    /**
+     * @param forwardMessage Message to forward
+     * @return Future with the id of the forwarded message
+     */
+    public CompletableFuture<MessageId> forward(ForwardMessage forwardMessage) {
+        List<Object> key = Arrays.asList(ForwardMessages.class, forwardMessage.getChatId(), forwardMessage.getFromChatId(),
+                forwardMessage.getMessageThreadId(), forwardMessage.getDisableNotification(), forwardMessage.getProtectContent());
+        return add(key, forwardMessage.getMessageId(), true, () -> new ForwardBatch(key, forwardMessage));
+    }
+
+    /**
+     * @return Number of calls received
+     */
+    public long getBatchedCalls() {
+        return batchedCalls.sum();
+    }
+
+    /**
+     * @return Number of requests sent for the calls received
+     */
+    public long getSentRequests() {
+        return sentRequests.sum();
+    }
+
+    /**
+     * Send every waiting batch right away
+     */
+    public void flush() {
+        List<Batch<?>> waiting;
+        synchronized (batches) {
+            waiting = new ArrayList<>(batches.values());
+            batches.clear();
+        }
+        waiting.forEach(Batch::send);
+    }
+
+    /**
+     * Send the waiting batches and stop the batcher
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        flush();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> add(List<Object> key, Integer messageId, boolean unique, Supplier<Batch<T>> factory) {
+        if (messageId == null) {
+            throw new IllegalArgumentException("MessageId can't be null");
+        }
+        batchedCalls.increment();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Batch<?> full = null;
+        Batch<?> previous = null;
+        synchronized (batches) {
+            Batch<T> batch = (Batch<T>) batches.get(key);
+            if (batch != null && unique && batch.calls.containsKey(messageId)) {
+                // The same message copied twice needs two requests
+                previous = batches.remove(key);
+                batch = null;
+            }
+            if (batch == null) {
+                batch = factory.get();
+                batches.put(key, batch);
+                if (!schedule(batch)) {
+                    // Closed, calls are not batched anymore
+                    batches.remove(key);
+                    full = batch;
+                }
+            }
+            batch.calls.computeIfAbsent(messageId, ignored -> new ArrayList<>()).add(future);
+            if (batch.calls.size() >= MAX_BATCH_SIZE) {
+                batches.remove(key, batch);
+                full = batch;
+            }
+        }
+        if (previous != null) {
+            previous.send();
+        }
+        if (full != null) {
+            full.send();
+        }
+        return future;
+    }
+
+    private void expire(Batch<?> batch) {
+        synchronized (batches) {
+            if (!batches.remove(batch.key, batch)) {
+                return;
+            }
+        }
+        batch.send();
+    }
+
+    private boolean schedule(Batch<?> batch) {
+        try {
+            scheduler.schedule(() -> expire(batch), windowNanos, TimeUnit.NANOSECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Calls waiting to be sent together, by message id in increasing order as required by the bulk methods
+     */
+    private abstract class Batch<T> {
+        private final List<Object> key;
+        final TreeMap<Integer, List<CompletableFuture<T>>> calls = new TreeMap<>();
+
+        Batch(List<Object> key) {
+            this.key = key;
+        }
+
+        abstract CompletableFuture<T> sendSingle();
+
+        abstract CompletableFuture<List<T>> sendBulk(List<Integer> messageIds);
+
+        void send() {
+            sentRequests.increment();
+            List<Integer> messageIds = new ArrayList<>(calls.keySet());
+            if (messageIds.size() == 1) {
+                sendSingle().whenComplete((result, exception) ->
+                        calls.firstEntry().getValue().forEach(future -> complete(future, result, exception)));
+                return;
+            }
+            sendBulk(messageIds).whenComplete((results, exception) -> {
+                if (exception == null && results.size() != messageIds.size()) {
+                    exception = new TelegramApiException("Telegram skipped " + (messageIds.size() - results.size()) + " of " +
+                            messageIds.size() + " messages, the results can't be matched to the messages");
+                }
+                int index = 0;
+                for (List<CompletableFuture<T>> futures : calls.values()) {
+                    T result = exception == null ? results.get(index++) : null;
+                    for (CompletableFuture<T> future : futures) {
+                        complete(future, result, exception);
+                    }
+                }
+            });
+        }
+
+        private void complete(CompletableFuture<T> future, T result, Throwable exception) {
+            if (exception == null) {
+                future.complete(result);
+            } else {
+                future.completeExceptionally(exception instanceof CompletionException && exception.getCause() != null ?
+                        exception.getCause() : exception);
+            }
+        }
+    }
+
+    private class DeleteBatch extends Batch<Boolean> {
+        private final DeleteMessage prototype;
+
+        private DeleteBatch(List<Object> key, DeleteMessage prototype) {
+            super(key);
+            this.prototype = prototype;
+        }
+
+        @Override
+        CompletableFuture<Boolean> sendSingle() {
+            return sender.executeAsync(prototype, RequestPriority.of(prototype));
+        }
+
+        @Override
+        CompletableFuture<List<Boolean>> sendBulk(List<Integer> messageIds) {
+            DeleteMessages deleteMessages = DeleteMessages.builder()
+                    .chatId(prototype.getChatId())
+                    .messageIds(messageIds)
+                    .build();
+            return sender.executeAsync(deleteMessages, RequestPriority.of(deleteMessages)).thenApply(result -> {
+                List<Boolean> results = new ArrayList<>(messageIds.size());
+                messageIds.forEach(messageId -> results.add(result));
+                return results;
+            });
+        }
+    }
+
+    private class CopyBatch extends Batch<MessageId> {
+        private final CopyMessage prototype;
+
+        private CopyBatch(List<Object> key, CopyMessage prototype) {
+            super(key);
+            this.prototype = prototype;
+        }
+
+        @Override
+        CompletableFuture<MessageId> sendSingle() {
+            return sender.executeAsync(prototype, RequestPriority.of(prototype));
+        }
+
+        @Override
+        CompletableFuture<List<MessageId>> sendBulk(List<Integer> messageIds) {
+            CopyMessages copyMessages = CopyMessages.builder()
+                    .chatId(prototype.getChatId())
+                    .fromChatId(prototype.getFromChatId())
+                    .messageThreadId(prototype.getMessageThreadId())
+                    .disableNotification(prototype.getDisableNotification())
+                    .protectContent(prototype.getProtectContent())
+                    .messageIds(messageIds)
+                    .build();
+            return sender.executeAsync(copyMessages, RequestPriority.of(copyMessages)).thenApply(ArrayList::new);
+        }
+    }
+
+    private class ForwardBatch extends Batch<MessageId> {
+        private final ForwardMessage prototype;
+
+        private ForwardBatch(List<Object> key, ForwardMessage prototype) {
+            super(key);
+            this.prototype = prototype;
+        }
+
+        @Override
+        CompletableFuture<MessageId> sendSingle() {
+            return sender.executeAsync(prototype, RequestPriority.of(prototype)).thenApply(message -> new MessageId(message.getMessageId().longValue()));
+        }
+
+        @Override
+        CompletableFuture<List<MessageId>> sendBulk(List<Integer> messageIds) {
+            ForwardMessages forwardMessages = ForwardMessages.builder()
+                    .chatId(prototype.getChatId())
+                    .fromChatId(prototype.getFromChatId())
+                    .messageThreadId(prototype.getMessageThreadId())
+                    .disableNotification(prototype.getDisableNotification())
+                    .protectContent(prototype.getProtectContent())
+                    .messageIds(messageIds)
+                    .build();
+            return sender.executeAsync(forwardMessages, RequestPriority.of(forwardMessages)).thenApply(ArrayList::new);
+        }
+    }
+}
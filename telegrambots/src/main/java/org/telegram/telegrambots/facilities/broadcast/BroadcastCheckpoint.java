@@ -0,0 +1,185 @@
+package org.telegram.telegrambots.facilities.broadcast;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Progress of a broadcast, kept in a memory mapped file so it survives a crash of the process.
+ *
+ * Recipients are identified by their position in the recipients list. As messages complete out of order, the file
+ * keeps a watermark (every recipient before it is done) plus a bitmap with the recipients done after it. Sending
+ * never goes further than the size of the bitmap past the watermark.
+ *
+ * Layout: magic (int), window (int), watermark (long), a counter per {@link BroadcastOutcome} (long) and the bitmap.
+ */
+public class BroadcastCheckpoint implements Closeable {
+    private static final int MAGIC = 0x54474243;
+    private static final int WINDOW_OFFSET = 4;
+    private static final int WATERMARK_OFFSET = 8;
+    private static final int COUNTERS_OFFSET = 16;
+    private static final int BITMAP_OFFSET = COUNTERS_OFFSET + BroadcastOutcome.values().length * Long.BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int window;
+    private long watermark;
+
+    /**
+     * Open the checkpoint file, creating it if it doesn't exist
+     * @param file Checkpoint file
+     * @param window Max number of recipients in progress past the watermark, rounded up to a multiple of 64.
+     *               Ignored if the file already exists.
+     */
+    public BroadcastCheckpoint(Path file, int window) throws IOException {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be greater than 0");
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() >= BITMAP_OFFSET) {
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, BITMAP_OFFSET);
+                if (header.getInt(0) != MAGIC) {
+                    throw new IOException("Not a broadcast checkpoint: " + file);
+                }
+                this.window = header.getInt(WINDOW_OFFSET);
+            } else {
+                this.window = (window + Long.SIZE - 1) / Long.SIZE * Long.SIZE;
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BITMAP_OFFSET + this.window / Byte.SIZE);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(WINDOW_OFFSET, this.window);
+            this.watermark = buffer.getLong(WATERMARK_OFFSET);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return Number of recipients that can be in progress past the watermark
+     */
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * @return Position of the first recipient not done yet
+     */
+    public synchronized long getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * @param index Position of the recipient
+     * @return True if the recipient was already done
+     */
+    public synchronized boolean isDone(long index) {
+        if (index < watermark) {
+            return true;
+        }
+        return index < watermark + window && isSet(index);
+    }
+
+    /**
+     * Wait until the recipient is inside the window, this is until enough recipients before it are done
+     * @param index Position of the recipient
+     */
+    public synchronized void awaitWindow(long index) throws InterruptedException {
+        while (index >= watermark + window) {
+            wait();
+        }
+    }
+
+    /**
+     * Wait up to a max time until the recipient is inside the window
+     * @param index Position of the recipient
+     * @param timeoutMillis Max time to wait
+     * @return True if the recipient is inside the window
+     */
+    public synchronized boolean awaitWindow(long index, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (index >= watermark + window) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    /**
+     * Record a recipient as done
+     * @param index Position of the recipient, must be inside the window
+     * @param outcome Result of the recipient
+     */
+    public synchronized void markDone(long index, BroadcastOutcome outcome) {
+        if (index < watermark || index >= watermark + window) {
+            throw new IllegalArgumentException("Recipient " + index + " is outside the window");
+        }
+        if (isSet(index)) {
+            return;
+        }
+        setBit(index, true);
+        int counter = COUNTERS_OFFSET + outcome.ordinal() * Long.BYTES;
+        buffer.putLong(counter, buffer.getLong(counter) + 1);
+
+        long previousWatermark = watermark;
+        while (isSet(watermark)) {
+            setBit(watermark, false);
+            watermark++;
+        }
+        if (watermark != previousWatermark) {
+            buffer.putLong(WATERMARK_OFFSET, watermark);
+            notifyAll();
+        }
+    }
+
+    /**
+     * @param outcome Outcome to check
+     * @return Number of recipients done with the outcome
+     */
+    public synchronized long getCount(BroadcastOutcome outcome) {
+        return buffer.getLong(COUNTERS_OFFSET + outcome.ordinal() * Long.BYTES);
+    }
+
+    /**
+     * @return Number of recipients done
+     */
+    public synchronized long getDone() {
+        long done = 0;
+        for (BroadcastOutcome outcome : BroadcastOutcome.values()) {
+            done += getCount(outcome);
+        }
+        return done;
+    }
+
+    /**
+     * Write the progress to disk. Not needed to survive a crash of the process, only of the whole system.
+     */
+    public synchronized void flush() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    private boolean isSet(long index) {
+        int bit = (int) (index % window);
+        return (buffer.get(BITMAP_OFFSET + bit / Byte.SIZE) & (1 << (bit % Byte.SIZE))) != 0;
+    }
+
+    private void setBit(long index, boolean value) {
+        int bit = (int) (index % window);
+        int position = BITMAP_OFFSET + bit / Byte.SIZE;
+        byte current = buffer.get(position);
+        buffer.put(position, (byte) (value ? current | (1 << (bit % Byte.SIZE)) : current & ~(1 << (bit % Byte.SIZE))));
+    }
+}
@@ -0,0 +1,76 @@
+package org.telegram.telegrambots.facilities.broadcast;
+
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiValidationException;
+
+/**
+ * Result of sending a broadcast message to a recipient
+ */
+public enum BroadcastOutcome {
+    /**
+     * Message delivered
+     */
+    SENT,
+    /**
+     * The user blocked the bot, deleted the account or the bot was removed from the chat
+     */
+    BLOCKED,
+    /**
+     * The chat doesn't exist or the bot can't see it
+     */
+    NOT_FOUND,
+    /**
+     * The group was migrated to a supergroup with a new id
+     */
+    MIGRATED,
+    /**
+     * Any other error
+     */
+    FAILED;
+
+    private static final int FORBIDDEN = 403;
+    private static final int BAD_REQUEST = 400;
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /**
+     * @param exception Error sending the message
+     * @return True if the error may not happen again, i.e. a network error, flood control or a server error
+     * (including error pages of gateways in front of the API), so the message must be sent again instead of
+     * recording the recipient as done
+     */
+    public static boolean isRetryable(Throwable exception) {
+        if (exception instanceof TelegramApiValidationException) {
+            return false;
+        }
+        if (!(exception instanceof TelegramApiRequestException)) {
+            return true;
+        }
+        TelegramApiRequestException requestException = (TelegramApiRequestException) exception;
+        Integer errorCode = requestException.getErrorCode();
+        return requestException.isServerError() || (errorCode != null && errorCode == TOO_MANY_REQUESTS);
+    }
+
+    /**
+     * @param exception Error sending the message
+     * @return Outcome matching the error
+     */
+    public static BroadcastOutcome of(Throwable exception) {
+        if (!(exception instanceof TelegramApiRequestException)) {
+            return FAILED;
+        }
+        TelegramApiRequestException requestException = (TelegramApiRequestException) exception;
+        if (requestException.getParameters() != null && requestException.getParameters().getMigrateToChatId() != null) {
+            return MIGRATED;
+        }
+        Integer errorCode = requestException.getErrorCode();
+        if (errorCode != null && errorCode == FORBIDDEN) {
+            return BLOCKED;
+        }
+        String description = requestException.getApiResponse();
+        if (errorCode != null && errorCode == BAD_REQUEST && description != null &&
+                description.toLowerCase().contains("chat not found")) {
+            return NOT_FOUND;
+        }
+        return FAILED;
+    }
+}
@@ -0,0 +1,394 @@
+package org.telegram.telegrambots.facilities.broadcast;
+
+import lombok.extern.slf4j.Slf4j;
+import org.telegram.telegrambots.bots.DefaultAbsSender;
+import org.telegram.telegrambots.facilities.priority.RequestPriority;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.objects.ResponseParameters;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Sends a message to a long list of recipients, resuming where it stopped if the process is restarted.
+ *
+ * Recipients are streamed from an iterator or a file with a chat id per line, so the list never has to fit in memory.
+ * Messages are sent with {@link RequestPriority#BULK} priority, a bounded number of them in flight, paced to the
+ * configured rate unless the sender already has a rate limiter. Progress is kept in a {@link BroadcastCheckpoint}
+ * in the working directory: running the broadcast again with the same recipients, in the same order, skips every
+ * recipient already done. Use a new directory for every broadcast.
+ *
+ * Failed recipients are written, one per line, to result files in the working directory:
+ * {@code blocked.txt}, {@code not_found.txt}, {@code migrated.txt} (old and new chat id) and
+ * {@code failed.txt} (chat id, error code and description).
+ *
+ * Transient errors (network errors, flood control and server errors, see {@link BroadcastOutcome#isRetryable}) are
+ * retried with a growing delay instead of being recorded. A recipient still failing after the max number of retries
+ * is left undone and stops the broadcast, so running it again sends it the message.
+ */
+@Slf4j
+public class TelegramBroadcaster {
+    public static final String CHECKPOINT_FILE = "checkpoint.bin";
+    public static final String BLOCKED_FILE = "blocked.txt";
+    public static final String NOT_FOUND_FILE = "not_found.txt";
+    public static final String MIGRATED_FILE = "migrated.txt";
+    public static final String FAILED_FILE = "failed.txt";
+
+    private final DefaultAbsSender sender;
+    private final Path directory;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder sentInRun = new LongAdder();
+
+    private int maxInFlight = 32;
+    private int window = 4096;
+    private double messagesPerSecond = 30;
+    private int maxRetries = 3;
+    private long retryDelayMillis = 1000;
+    private volatile BroadcastCheckpoint checkpoint;
+    private volatile long startNanos;
+
+    /**
+     * @param sender Bot sending the messages
+     * @param directory Working directory of the broadcast, for the checkpoint and result files
+     */
+    public TelegramBroadcaster(DefaultAbsSender sender, Path directory) {
+        this.sender = sender;
+        this.directory = directory;
+    }
+
+    /**
+     * @param maxInFlight Max number of messages being sent at the same time
+     * @implSpec Default is 32
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("MaxInFlight must be greater than 0");
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * @param window Max distance between the first recipient not done and the last one being sent,
+     *               it only takes effect when creating a new checkpoint
+     * @implSpec Default is 4096
+     */
+    public void setWindow(int window) {
+        this.window = window;
+    }
+
+    /**
+     * @param messagesPerSecond Max messages sent per second, 0 for no limit. Ignored if the sender has a rate limiter.
+     * @implSpec Default is 30, the global limit of Telegram
+     */
+    public void setMessagesPerSecond(double messagesPerSecond) {
+        this.messagesPerSecond = messagesPerSecond;
+    }
+
+    /**
+     * @param maxRetries Max number of times a message failing with a transient error is sent again
+     * @implSpec Default is 3
+     */
+    public void setMaxRetries(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("MaxRetries can't be negative");
+        }
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * @param retryDelayMillis Delay before the first retry of a message, doubled on every retry.
+     *                         The delay requested by flood control errors takes precedence.
+     * @implSpec Default is 1000
+     */
+    public void setRetryDelayMillis(long retryDelayMillis) {
+        this.retryDelayMillis = retryDelayMillis;
+    }
+
+    /**
+     * Send a message to every chat id in a file, one per line. Empty lines are skipped.
+     * @param recipients File with the chat ids
+     * @param messageFactory Creates the message for a chat id
+     */
+    public void broadcast(Path recipients, Function<String, ? extends BotApiMethod<?>> messageFactory) throws IOException, InterruptedException {
+        try (BufferedReader reader = Files.newBufferedReader(recipients, StandardCharsets.UTF_8)) {
+            Iterator<String> chatIds = reader.lines().map(String::trim).filter(line -> !line.isEmpty()).iterator();
+            broadcast(chatIds, messageFactory);
+        }
+    }
+
+    /**
+     * Send a message to every chat id, returning once all of them are done
+     * @param recipients Chat ids, in the same order every time the broadcast is resumed
+     * @param messageFactory Creates the message for a chat id
+     * @throws IOException If a recipient kept failing with transient errors, the broadcast must be run again to resume
+     */
+    public void broadcast(Iterator<String> recipients, Function<String, ? extends BotApiMethod<?>> messageFactory) throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+        Semaphore permits = new Semaphore(maxInFlight);
+        boolean paced = messagesPerSecond > 0 && sender.getOptions().getRateLimiter() == null;
+        long interval = paced ? (long) (TimeUnit.SECONDS.toNanos(1) / messagesPerSecond) : 0;
+        AtomicReference<Throwable> stopCause = new AtomicReference<>();
+        ScheduledExecutorService retries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Telegram Broadcaster Retries");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (BroadcastCheckpoint currentCheckpoint = new BroadcastCheckpoint(directory.resolve(CHECKPOINT_FILE), window);
+             Results results = new Results(directory)) {
+            checkpoint = currentCheckpoint;
+            sentInRun.reset();
+            startNanos = System.nanoTime();
+            log.info("Starting broadcast from recipient {}", currentCheckpoint.getWatermark());
+            try {
+                long nextSend = System.nanoTime();
+                for (long index = 0; recipients.hasNext() && stopCause.get() == null; index++) {
+                    String chatId = recipients.next();
+                    if (currentCheckpoint.isDone(index)) {
+                        continue;
+                    }
+                    // A recipient left undone keeps the window from moving
+                    while (!currentCheckpoint.awaitWindow(index, 100)) {
+                        if (stopCause.get() != null) {
+                            break;
+                        }
+                    }
+                    permits.acquire();
+                    if (stopCause.get() != null) {
+                        permits.release();
+                        break;
+                    }
+                    if (paced) {
+                        long wait = nextSend - System.nanoTime();
+                        if (wait > 0) {
+                            TimeUnit.NANOSECONDS.sleep(wait);
+                        }
+                        nextSend = Math.max(nextSend, System.nanoTime() - interval) + interval;
+                    }
+                    BotApiMethod<?> method;
+                    try {
+                        method = messageFactory.apply(chatId);
+                    } catch (RuntimeException e) {
+                        permits.release();
+                        throw e;
+                    }
+                    inFlight.incrementAndGet();
+                    send(new Recipient<>(currentCheckpoint, results, index, chatId, method, permits, retries, stopCause));
+                }
+            } finally {
+                // Messages in flight must be recorded before closing the files
+                permits.acquireUninterruptibly(maxInFlight);
+                permits.release(maxInFlight);
+                retries.shutdownNow();
+            }
+            if (stopCause.get() != null) {
+                throw new IOException("Broadcast stopped by a recipient failing after " + maxRetries + " retries, run it again to resume", stopCause.get());
+            }
+            log.info("Broadcast finished, {} recipients done", currentCheckpoint.getDone());
+        }
+    }
+
+    /**
+     * @param outcome Outcome to check
+     * @return Number of recipients of the current or last broadcast done with the outcome, including previous runs
+     */
+    public long getCount(BroadcastOutcome outcome) {
+        BroadcastCheckpoint currentCheckpoint = checkpoint;
+        return currentCheckpoint == null ? 0 : currentCheckpoint.getCount(outcome);
+    }
+
+    /**
+     * @return Number of recipients of the current or last broadcast done, including previous runs
+     */
+    public long getDone() {
+        BroadcastCheckpoint currentCheckpoint = checkpoint;
+        return currentCheckpoint == null ? 0 : currentCheckpoint.getDone();
+    }
+
+    /**
+     * @return Number of messages being sent
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return Messages delivered per second since the current or last broadcast was started
+     */
+    public double getMessagesPerSecond() {
+        long elapsed = System.nanoTime() - startNanos;
+        if (checkpoint == null || elapsed <= 0) {
+            return 0;
+        }
+        return sentInRun.sum() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    private <T extends Serializable> void send(Recipient<T> recipient) {
+        CompletableFuture<T> future;
+        try {
+            future = sender.executeAsync(recipient.method, RequestPriority.BULK);
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((result, exception) -> {
+            Throwable cause = exception instanceof CompletionException && exception.getCause() != null ? exception.getCause() : exception;
+            if (cause != null && BroadcastOutcome.isRetryable(cause)) {
+                if (recipient.attempt < maxRetries && recipient.stopCause.get() == null) {
+                    long delay = getRetryDelay(cause, recipient.attempt++);
+                    log.debug("Retrying recipient {} in {}ms: {}", recipient.chatId, delay, cause.toString());
+                    recipient.retries.schedule(() -> send(recipient), delay, TimeUnit.MILLISECONDS);
+                } else {
+                    // Not recorded, it is sent again when the broadcast is resumed
+                    log.warn("Recipient " + recipient.chatId + " left undone", cause);
+                    recipient.stopCause.compareAndSet(null, cause);
+                    release(recipient);
+                }
+                return;
+            }
+            try {
+                BroadcastOutcome outcome = cause == null ? BroadcastOutcome.SENT : BroadcastOutcome.of(cause);
+                recipient.results.write(recipient.chatId, outcome, cause);
+                recipient.checkpoint.markDone(recipient.index, outcome);
+                if (outcome == BroadcastOutcome.SENT) {
+                    sentInRun.increment();
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("Unable to record the result of recipient " + recipient.chatId, e);
+            } finally {
+                release(recipient);
+            }
+        });
+    }
+
+    private void release(Recipient<?> recipient) {
+        inFlight.decrementAndGet();
+        recipient.permits.release();
+    }
+
+    private long getRetryDelay(Throwable exception, int attempt) {
+        if (exception instanceof TelegramApiRequestException) {
+            ResponseParameters parameters = ((TelegramApiRequestException) exception).getParameters();
+            if (parameters != null && parameters.getRetryAfter() != null) {
+                return TimeUnit.SECONDS.toMillis(parameters.getRetryAfter());
+            }
+        }
+        return retryDelayMillis << Math.min(attempt, 16);
+    }
+
+    /**
+     * Message being sent to a recipient, with everything needed to record it or send it again
+     */
+    private static class Recipient<T extends Serializable> {
+        private final BroadcastCheckpoint checkpoint;
+        private final Results results;
+        private final long index;
+        private final String chatId;
+        private final BotApiMethod<T> method;
+        private final Semaphore permits;
+        private final ScheduledExecutorService retries;
+        private final AtomicReference<Throwable> stopCause;
+        private int attempt;
+
+        private Recipient(BroadcastCheckpoint checkpoint, Results results, long index, String chatId, BotApiMethod<T> method,
+                          Semaphore permits, ScheduledExecutorService retries, AtomicReference<Throwable> stopCause) {
+            this.checkpoint = checkpoint;
+            this.results = results;
+            this.index = index;
+            this.chatId = chatId;
+            this.method = method;
+            this.permits = permits;
+            this.retries = retries;
+            this.stopCause = stopCause;
+        }
+    }
+
+    /**
+     * Result files of failed recipients, each line is flushed so it is not lost if the process stops
+     */
+    private static class Results implements Closeable {
+        private final BufferedWriter blocked;
+        private final BufferedWriter notFound;
+        private final BufferedWriter migrated;
+        private final BufferedWriter failed;
+
+        private Results(Path directory) throws IOException {
+            blocked = open(directory.resolve(BLOCKED_FILE));
+            notFound = open(directory.resolve(NOT_FOUND_FILE));
+            migrated = open(directory.resolve(MIGRATED_FILE));
+            failed = open(directory.resolve(FAILED_FILE));
+        }
+
+        private synchronized void write(String chatId, BroadcastOutcome outcome, Throwable exception) throws IOException {
+            switch (outcome) {
+                case BLOCKED:
+                    writeLine(blocked, chatId);
+                    break;
+                case NOT_FOUND:
+                    writeLine(notFound, chatId);
+                    break;
+                case MIGRATED:
+                    writeLine(migrated, chatId + " " + ((TelegramApiRequestException) exception).getParameters().getMigrateToChatId());
+                    break;
+                case FAILED:
+                    writeLine(failed, chatId + " " + describe(exception));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            try {
+                blocked.close();
+                notFound.close();
+                migrated.close();
+            } finally {
+                failed.close();
+            }
+        }
+
+        private static String describe(Throwable exception) {
+            if (exception instanceof TelegramApiRequestException) {
+                TelegramApiRequestException requestException = (TelegramApiRequestException) exception;
+                String description = requestException.getApiResponse() != null ? requestException.getApiResponse() : requestException.getMessage();
+                return requestException.getErrorCode() + " " + singleLine(description);
+            }
+            return "0 " + singleLine(exception.toString());
+        }
+
+        private static String singleLine(String text) {
+            return text == null ? "" : text.replace('\n', ' ').replace('\r', ' ');
+        }
+
+        private static void writeLine(BufferedWriter writer, String line) throws IOException {
+            writer.write(line);
+            writer.newLine();
+            writer.flush();
+        }
+
+        private static BufferedWriter open(Path file) throws IOException {
+            return Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package org.telegram.telegrambots.facilities.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.telegram.telegrambots.bots.DefaultAbsSender;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.PartialBotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.GetFile;
+import org.telegram.telegrambots.meta.api.methods.GetMe;
+import org.telegram.telegrambots.meta.api.methods.commands.DeleteMyCommands;
+import org.telegram.telegrambots.meta.api.methods.commands.GetMyCommands;
+import org.telegram.telegrambots.meta.api.methods.commands.SetMyCommands;
+import org.telegram.telegrambots.meta.api.methods.groupadministration.GetChat;
+import org.telegram.telegrambots.meta.api.methods.groupadministration.GetChatAdministrators;
+import org.telegram.telegrambots.meta.api.methods.groupadministration.GetChatMember;
+import org.telegram.telegrambots.meta.api.methods.groupadministration.GetChatMemberCount;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.serialization.TelegramJsonMapper;
+import org.telegram.telegrambots.util.MethodUtils;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for the results of read-only methods, i.e. {@link GetChat} or {@link GetChatMember}.
+ *
+ * Results are kept per method and parameters for a TTL configured per method class, up to a max number of entries,
+ * evicting the least recently used ones. Identical requests made while one is in flight wait for its result instead of
+ * being sent again. Failed requests are not cached.
+ *
+ * Entries of a chat are invalidated when a chat_member or my_chat_member update of the chat is received, which the
+ * update receivers do automatically for bots configured with the cache. Chats requested by username are not
+ * invalidated by updates.
+ *
+ * The bot's own writes sent through the sender invalidate the entries they affect once they succeed, so i.e.
+ * {@code setChatTitle} or {@code banChatMember} invalidate the entries of their chat and {@code setMyCommands}
+ * invalidates the cached {@link GetMyCommands} results.
+ *
+ * Cached results are shared by all the callers and must not be modified.
+ */
+public class BotApiCache {
+    /** Lowercase prefixes of the methods modifying the chat in their chat_id */
+    private static final List<String> CHAT_WRITES = Arrays.asList("setchat", "deletechat", "exportchat", "pinchat",
+            "unpinchat", "unpinallchat", "leavechat", "promotechat", "restrictchat", "banchat", "unbanchat",
+            "approvechat", "declinechat");
+
+    private final int maxEntries;
+    private final TelegramJsonMapper jsonMapper;
+    private final Map<Class<?>, Long> ttlNanos = new ConcurrentHashMap<>();
+    /** Guarded by itself, as well as chats */
+    private final LinkedHashMap<String, CachedResult> entries;
+    private final Map<String, Set<String>> chats = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalescedRequests = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Cache of up to 10000 results
+     */
+    public BotApiCache() {
+        this(10000);
+    }
+
+    /**
+     * Cache with the default TTLs: 1 hour for {@link GetMe}, 30 minutes for {@link GetFile}, 5 minutes for
+     * {@link GetMyCommands}, 1 minute for {@link GetChat} and {@link GetChatAdministrators}, and 30 seconds for
+     * {@link GetChatMember} and {@link GetChatMemberCount}
+     * @param maxEntries Max number of results kept
+     */
+    public BotApiCache(int maxEntries) {
+        this(maxEntries, TelegramJsonMapper.getDefault());
+    }
+
+    /**
+     * @param maxEntries Max number of results kept
+     * @param jsonMapper Mapper used to build the key of every request from its parameters
+     */
+    public BotApiCache(int maxEntries, TelegramJsonMapper jsonMapper) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("MaxEntries must be greater than 0");
+        }
+        this.maxEntries = maxEntries;
+        this.jsonMapper = jsonMapper;
+        this.entries = new LinkedHashMap<String, CachedResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                if (size() <= BotApiCache.this.maxEntries) {
+                    return false;
+                }
+                evictions.increment();
+                unindex(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+        setTtl(GetMe.class, TimeUnit.HOURS.toMillis(1));
+        setTtl(GetFile.class, TimeUnit.MINUTES.toMillis(30));
+        setTtl(GetMyCommands.class, TimeUnit.MINUTES.toMillis(5));
+        setTtl(GetChat.class, TimeUnit.MINUTES.toMillis(1));
+        setTtl(GetChatAdministrators.class, TimeUnit.MINUTES.toMillis(1));
+        setTtl(GetChatMember.class, TimeUnit.SECONDS.toMillis(30));
+        setTtl(GetChatMemberCount.class, TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * Invalidate the entries affected by an update in the cache of a bot, if it has one
+     * @param bot Bot receiving the update
+     * @param update Update received
+     */
+    public static void onUpdate(Object bot, Update update) {
+        if (bot instanceof DefaultAbsSender) {
+            BotApiCache cache = ((DefaultAbsSender) bot).getOptions().getApiCache();
+            if (cache != null) {
+                cache.onUpdate(update);
+            }
+        }
+    }
+
+    /**
+     * @param type Method to cache, it must not modify anything
+     * @param ttlMillis Time its results are kept, 0 to stop caching it
+     */
+    public void setTtl(Class<? extends BotApiMethod<?>> type, long ttlMillis) {
+        if (ttlMillis < 0) {
+            throw new IllegalArgumentException("TtlMillis can't be negative");
+        }
+        if (ttlMillis == 0) {
+            ttlNanos.remove(type);
+        } else {
+            ttlNanos.put(type, TimeUnit.MILLISECONDS.toNanos(ttlMillis));
+        }
+    }
+
+    /**
+     * @param method Method to check
+     * @return True if results of the method are cached
+     */
+    public boolean isCached(BotApiMethod<?> method) {
+        return ttlNanos.containsKey(method.getClass());
+    }
+
+    /**
+     * Get the result of a method from the cache, sending it if it is not cached
+     * @param method Method to execute
+     * @param loader Sends the method
+     * @return Future with the result of the method
+     */
+    public <T extends Serializable> CompletableFuture<T> get(BotApiMethod<T> method, Supplier<CompletableFuture<T>> loader) {
+        Long ttl = ttlNanos.get(method.getClass());
+        String key = ttl == null ? null : getKey(method);
+        if (key == null) {
+            return loader.get();
+        }
+        CachedResult entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null) {
+                if (!entry.future.isDone()) {
+                    coalescedRequests.increment();
+                    return share(entry);
+                }
+                if (entry.expiresAt - System.nanoTime() > 0) {
+                    hits.increment();
+                    return share(entry);
+                }
+                remove(key);
+            }
+            misses.increment();
+            entry = new CachedResult(getChatId(method));
+            entries.put(key, entry);
+            if (entry.chatId != null) {
+                chats.computeIfAbsent(entry.chatId, ignored -> new HashSet<>()).add(key);
+            }
+        }
+
+        CachedResult loading = entry;
+        CompletableFuture<T> result;
+        try {
+            result = loader.get();
+        } catch (RuntimeException e) {
+            result = new CompletableFuture<>();
+            result.completeExceptionally(e);
+        }
+        result.whenComplete((value, exception) -> {
+            synchronized (entries) {
+                loading.expiresAt = System.nanoTime() + ttl;
+                if (exception != null && entries.get(key) == loading) {
+                    remove(key);
+                }
+            }
+            if (exception == null) {
+                loading.future.complete(value);
+            } else {
+                loading.future.completeExceptionally(exception);
+            }
+        });
+        return share(loading);
+    }
+
+    /**
+     * Forget the cached result of a method
+     * @param method Method to forget
+     */
+    public void invalidate(BotApiMethod<?> method) {
+        String key = getKey(method);
+        if (key != null) {
+            synchronized (entries) {
+                remove(key);
+            }
+        }
+    }
+
+    /**
+     * Forget the cached results of all methods about a chat
+     * @param chatId Chat to forget
+     */
+    public void invalidateChat(String chatId) {
+        synchronized (entries) {
+            Set<String> keys = chats.remove(chatId);
+            if (keys != null) {
+                keys.forEach(entries::remove);
+            }
+        }
+    }
+
+    /**
+     * Forget every cached result
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            chats.clear();
+        }
+    }
+
+    /**
+     * Invalidate the entries affected by an update
+     * @param update Update received
+     */
+    public void onUpdate(Update update) {
+        if (update.hasChatMember()) {
+            invalidateChat(update.getChatMember().getChat().getId().toString());
+        } else if (update.hasMyChatMember()) {
+            invalidateChat(update.getMyChatMember().getChat().getId().toString());
+        }
+    }
+
+    /**
+     * Invalidate the entries affected by a method the bot executed successfully, so its next reads see the change
+     * @param method Method executed
+     */
+    public void onMethodExecuted(PartialBotApiMethod<?> method) {
+        String name = method.getMethod();
+        if (SetMyCommands.PATH.equals(name) || DeleteMyCommands.PATH.equals(name)) {
+            invalidateMethod(GetMyCommands.PATH);
+        } else if (name != null && CHAT_WRITES.stream().anyMatch(name.toLowerCase(Locale.ROOT)::startsWith)) {
+            String chatId = MethodUtils.getChatId(method);
+            if (chatId != null) {
+                invalidateChat(chatId);
+            }
+        }
+    }
+
+    /**
+     * @return Number of requests answered from the cache
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Number of requests sent because their result was not cached
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return Number of requests that waited for an identical request in flight
+     */
+    public long getCoalescedRequests() {
+        return coalescedRequests.sum();
+    }
+
+    /**
+     * @return Number of results evicted to keep the cache within its max size
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return Number of results cached or being loaded
+     */
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Chat an entry belongs to, to invalidate it with the updates of the chat
+     * @param method Method cached
+     * @return Chat id, null if the method is not about a chat
+     */
+    protected String getChatId(BotApiMethod<?> method) {
+        if (method instanceof GetChat) {
+            return ((GetChat) method).getChatId();
+        } else if (method instanceof GetChatMember) {
+            return ((GetChatMember) method).getChatId();
+        } else if (method instanceof GetChatAdministrators) {
+            return ((GetChatAdministrators) method).getChatId();
+        } else if (method instanceof GetChatMemberCount) {
+            return ((GetChatMemberCount) method).getChatId();
+        }
+        return null;
+    }
+
+    /**
+     * Future for a caller, so a caller completing or cancelling it doesn't affect the others
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> CompletableFuture<T> share(CachedResult entry) {
+        return (CompletableFuture<T>) (CompletableFuture<?>) entry.future.thenApply(Function.identity());
+    }
+
+    private String getKey(BotApiMethod<?> method) {
+        try {
+            return method.getMethod() + jsonMapper.writeValueAsString(method);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private void invalidateMethod(String methodName) {
+        synchronized (entries) {
+            entries.entrySet().removeIf(entry -> {
+                if (!entry.getKey().startsWith(methodName)) {
+                    return false;
+                }
+                unindex(entry.getKey(), entry.getValue());
+                return true;
+            });
+        }
+    }
+
+    private void remove(String key) {
+        CachedResult entry = entries.remove(key);
+        if (entry != null) {
+            unindex(key, entry);
+        }
+    }
+
+    private void unindex(String key, CachedResult entry) {
+        if (entry.chatId == null) {
+            return;
+        }
+        Set<String> keys = chats.get(entry.chatId);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                chats.remove(entry.chatId);
+            }
+        }
+    }
+
+    private static final class CachedResult {
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        private final String chatId;
+        /** Guarded by the entries, set once loaded */
+        private long expiresAt;
+
+        private CachedResult(String chatId) {
+            this.chatId = chatId;
+        }
+    }
+}
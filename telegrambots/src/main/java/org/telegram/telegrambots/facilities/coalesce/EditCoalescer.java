@@ -0,0 +1,316 @@
+package org.telegram.telegrambots.facilities.coalesce;
+
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageCaption;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageLiveLocation;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageReplyMarkup;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+
+import java.io.Closeable;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Drops intermediate edits of messages updated faster than they can be sent, i.e. progress bars or live dashboards.
+ *
+ * Edits are grouped by method and message. While an edit of a message is waiting or being sent, a newer edit of the
+ * same kind replaces the waiting one, so only the latest state is sent. Consecutive edits of a message are sent at
+ * least the configured interval apart. The future of a replaced edit completes with the result of the edit that
+ * replaced it.
+ *
+ * Every edit is sent in full, so an edit only replaces another one of the same method: an {@link EditMessageText}
+ * never replaces an {@link EditMessageReplyMarkup}.
+ */
+public class EditCoalescer implements Closeable {
+    private final long minIntervalNanos;
+    private final Map<Object, Slot> slots = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder submittedEdits = new LongAdder();
+    private final LongAdder sentEdits = new LongAdder();
+    private final LongAdder coalescedEdits = new LongAdder();
+
+    /**
+     * Coalescer sending at most one edit per second to the same message, the rate Telegram allows in a private chat
+     */
+    public EditCoalescer() {
+        this(1000);
+    }
+
+    /**
+     * @param minIntervalMillis Min time between two edits of the same message, 0 to only coalesce edits waiting
+     *                          for the previous one to be sent
+     */
+    public EditCoalescer(long minIntervalMillis) {
+        if (minIntervalMillis < 0) {
+            throw new IllegalArgumentException("MinIntervalMillis can't be negative");
+        }
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMillis);
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "Telegram Edit Coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.scheduler = executor;
+    }
+
+    /**
+     * @param method Method to check
+     * @return True if the method is an edit that can be replaced by a newer one
+     */
+    public boolean isCoalesced(BotApiMethod<?> method) {
+        return getKey(method) != null;
+    }
+
+    /**
+     * Send an edit, unless a newer edit of the same message replaces it before its turn
+     * @param method Edit to send
+     * @param sender Sends an edit once it is its turn
+     * @return Future with the result of the edit, or of the edit that replaced it
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Serializable> CompletableFuture<T> submit(BotApiMethod<T> method, Function<BotApiMethod<T>, CompletableFuture<T>> sender) {
+        Object key = getKey(method);
+        if (key == null) {
+            return sender.apply(method);
+        }
+        submittedEdits.increment();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        while (true) {
+            Slot slot = slots.computeIfAbsent(key, ignored -> new Slot(key));
+            long delay;
+            synchronized (slot) {
+                if (slot.removed) {
+                    continue;
+                }
+                if (slot.pending != null) {
+                    coalescedEdits.increment();
+                }
+                slot.pending = method;
+                slot.sender = (Function<BotApiMethod<?>, CompletableFuture<?>>) (Function<?, ?>) sender;
+                slot.waiters.add((CompletableFuture<Object>) (CompletableFuture<?>) future);
+                if (slot.inFlight || slot.scheduled) {
+                    return future;
+                }
+                delay = slot.sent ? slot.lastSentNanos + minIntervalNanos - System.nanoTime() : 0;
+                slot.scheduled = true;
+                if (delay > 0) {
+                    schedule(() -> dispatch(slot), delay);
+                    return future;
+                }
+            }
+            dispatch(slot);
+            return future;
+        }
+    }
+
+    /**
+     * @return Number of edits submitted
+     */
+    public long getSubmittedEdits() {
+        return submittedEdits.sum();
+    }
+
+    /**
+     * @return Number of edits sent to Telegram
+     */
+    public long getSentEdits() {
+        return sentEdits.sum();
+    }
+
+    /**
+     * @return Number of edits dropped because a newer one of the same message replaced them
+     */
+    public long getCoalescedEdits() {
+        return coalescedEdits.sum();
+    }
+
+    /**
+     * @return Number of messages with an edit waiting to be sent
+     */
+    public int getPendingEdits() {
+        int pending = 0;
+        for (Slot slot : slots.values()) {
+            synchronized (slot) {
+                if (slot.pending != null) {
+                    pending++;
+                }
+            }
+        }
+        return pending;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Key grouping the edits that replace each other, null for methods that must always be sent
+     * @param method Method to group
+     * @return Key of the edited message
+     */
+    protected Object getKey(BotApiMethod<?> method) {
+        if (method instanceof EditMessageText) {
+            EditMessageText edit = (EditMessageText) method;
+            return Key.of(method, edit.getChatId(), edit.getMessageId(), edit.getInlineMessageId());
+        }
+        if (method instanceof EditMessageReplyMarkup) {
+            EditMessageReplyMarkup edit = (EditMessageReplyMarkup) method;
+            return Key.of(method, edit.getChatId(), edit.getMessageId(), edit.getInlineMessageId());
+        }
+        if (method instanceof EditMessageCaption) {
+            EditMessageCaption edit = (EditMessageCaption) method;
+            return Key.of(method, edit.getChatId(), edit.getMessageId(), edit.getInlineMessageId());
+        }
+        if (method instanceof EditMessageLiveLocation) {
+            EditMessageLiveLocation edit = (EditMessageLiveLocation) method;
+            return Key.of(method, edit.getChatId(), edit.getMessageId(), edit.getInlineMessageId());
+        }
+        return null;
+    }
+
+    private void dispatch(Slot slot) {
+        BotApiMethod<?> method;
+        Function<BotApiMethod<?>, CompletableFuture<?>> sender;
+        List<CompletableFuture<Object>> waiters;
+        synchronized (slot) {
+            method = slot.pending;
+            sender = slot.sender;
+            waiters = slot.waiters;
+            slot.pending = null;
+            slot.sender = null;
+            slot.waiters = new ArrayList<>();
+            slot.scheduled = false;
+            slot.inFlight = true;
+            slot.sent = true;
+            slot.lastSentNanos = System.nanoTime();
+        }
+        sentEdits.increment();
+
+        CompletableFuture<?> result;
+        try {
+            result = sender.apply(method);
+        } catch (RuntimeException e) {
+            CompletableFuture<Object> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            result = failed;
+        }
+        result.whenComplete((value, exception) -> {
+            for (CompletableFuture<Object> waiter : waiters) {
+                if (exception == null) {
+                    waiter.complete(value);
+                } else {
+                    waiter.completeExceptionally(exception);
+                }
+            }
+            long delay;
+            synchronized (slot) {
+                slot.inFlight = false;
+                delay = slot.lastSentNanos + minIntervalNanos - System.nanoTime();
+                if (slot.pending != null) {
+                    slot.scheduled = true;
+                    schedule(() -> dispatch(slot), delay);
+                    return;
+                }
+            }
+            schedule(() -> expire(slot), delay);
+        });
+    }
+
+    /**
+     * Forget a message once its interval elapsed without new edits, so the slots don't grow forever
+     */
+    private void expire(Slot slot) {
+        synchronized (slot) {
+            if (slot.pending != null || slot.inFlight || slot.scheduled || slot.removed) {
+                return;
+            }
+            if (System.nanoTime() - slot.lastSentNanos < minIntervalNanos) {
+                return;
+            }
+            slot.removed = true;
+        }
+        slots.remove(slot.key, slot);
+    }
+
+    private void schedule(Runnable task, long delayNanos) {
+        try {
+            scheduler.schedule(task, Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // Closed, waiting edits are sent right away
+            task.run();
+        }
+    }
+
+    private static final class Key {
+        private final String method;
+        private final String chatId;
+        private final Integer messageId;
+        private final String inlineMessageId;
+
+        private Key(String method, String chatId, Integer messageId, String inlineMessageId) {
+            this.method = method;
+            this.chatId = chatId;
+            this.messageId = messageId;
+            this.inlineMessageId = inlineMessageId;
+        }
+
+        private static Key of(BotApiMethod<?> method, String chatId, Integer messageId, String inlineMessageId) {
+            if (inlineMessageId == null && (chatId == null || messageId == null)) {
+                return null;
+            }
+            return new Key(method.getMethod(), chatId, messageId, inlineMessageId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return method.equals(key.method) && Objects.equals(chatId, key.chatId) &&
+                    Objects.equals(messageId, key.messageId) && Objects.equals(inlineMessageId, key.inlineMessageId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(method, chatId, messageId, inlineMessageId);
+        }
+    }
+
+    /**
+     * State of the edits of a message, guarded by its own lock
+     */
+    private static final class Slot {
+        private final Object key;
+        private BotApiMethod<?> pending;
+        private Function<BotApiMethod<?>, CompletableFuture<?>> sender;
+        private List<CompletableFuture<Object>> waiters = new ArrayList<>();
+        private boolean inFlight;
+        private boolean scheduled;
+        private boolean removed;
+        private boolean sent;
+        private long lastSentNanos;
+
+        private Slot(Object key) {
+            this.key = key;
+        }
+    }
+}
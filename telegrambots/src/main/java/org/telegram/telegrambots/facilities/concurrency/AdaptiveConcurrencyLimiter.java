@@ -0,0 +1,195 @@
+package org.telegram.telegrambots.facilities.concurrency;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Limits the requests in flight to a limit adapted to the latency and errors of the responses, instead of a fixed
+ * number of threads or connections.
+ *
+ * Every request takes a permit before being sent and gives it back with its outcome once the response arrives.
+ * Network errors and responses with error code 429 or 5xx count as dropped requests; the algorithm deciding the
+ * limit from them is pluggable, {@link AimdLimit} by default. Requests over the limit wait in FIFO order.
+ * Requests whose latency depends on their size, like uploads, are only sampled when dropped.
+ *
+ * The limit only has effect up to the connections of the transport, and with the default transport, up to the
+ * threads of the bot for async requests.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final Pattern ERROR_CODE = Pattern.compile("\"error_code\"\\s*:\\s*(\\d+)");
+
+    private final ConcurrencyLimit limit;
+    private final Queue<CompletableFuture<Long>> waiting = new ArrayDeque<>();
+    /** Guarded by this */
+    private int inFlight;
+
+    private final LongAdder droppedRequests = new LongAdder();
+
+    /**
+     * Limiter with the default {@link AimdLimit}
+     */
+    public AdaptiveConcurrencyLimiter() {
+        this(new AimdLimit());
+    }
+
+    /**
+     * @param limit Algorithm deciding the limit
+     */
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimit limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Wait for a permit. Every permit must be given back with {@link #release(long, String, Throwable)}.
+     * @return Future completed with the start time of the request, in nanos, once it can be sent.
+     * Cancelling it gives up the permit.
+     */
+    public CompletableFuture<Long> acquireAsync() {
+        synchronized (this) {
+            if (inFlight < limit.getLimit() && waiting.isEmpty()) {
+                inFlight++;
+                return CompletableFuture.completedFuture(System.nanoTime());
+            }
+            CompletableFuture<Long> permit = new CompletableFuture<>();
+            waiting.add(permit);
+            return permit;
+        }
+    }
+
+    /**
+     * Wait in the current thread for a permit. Every permit must be given back with {@link #release(long, String, Throwable)}.
+     * @return Start time of the request, in nanos
+     * @throws InterruptedException If interrupted while waiting, giving up the permit
+     */
+    public long acquire() throws InterruptedException {
+        CompletableFuture<Long> permit = acquireAsync();
+        try {
+            return permit.get();
+        } catch (InterruptedException e) {
+            if (!permit.cancel(false)) {
+                release(permit.join(), null, e);
+            }
+            throw e;
+        } catch (ExecutionException | CancellationException e) {
+            throw new IllegalStateException("Permit can't fail", e);
+        }
+    }
+
+    /**
+     * Give back a permit with the outcome of its request
+     * @param startNanos Start time of the request, as returned when acquiring the permit
+     * @param responseContent Response received, null if the request failed
+     * @param exception Error sending the request, null if a response was received
+     */
+    public void release(long startNanos, String responseContent, Throwable exception) {
+        release(startNanos, responseContent, exception, true);
+    }
+
+    /**
+     * Give back a permit with the outcome of its request
+     * @param startNanos Start time of the request, as returned when acquiring the permit
+     * @param responseContent Response received, null if the request failed
+     * @param exception Error sending the request, null if a response was received
+     * @param timed False if the time the request took depends on its size, like an upload,
+     *              so it's not compared with the average latency
+     */
+    public void release(long startNanos, String responseContent, Throwable exception, boolean timed) {
+        long rtt = System.nanoTime() - startNanos;
+        boolean dropped = isDropped(responseContent, exception);
+        if (dropped) {
+            droppedRequests.increment();
+        }
+        synchronized (this) {
+            if (!(exception instanceof InterruptedException) && (timed || dropped)) {
+                limit.onSample(startNanos, rtt, inFlight, dropped);
+            }
+            inFlight--;
+        }
+        grantWaiting();
+    }
+
+    /**
+     * @return Current max number of requests in flight
+     */
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    /**
+     * @return Number of requests being sent
+     */
+    public synchronized int getInFlightRequests() {
+        return inFlight;
+    }
+
+    /**
+     * @return Number of requests waiting for a permit
+     */
+    public synchronized int getQueuedRequests() {
+        return waiting.size();
+    }
+
+    /**
+     * @return Number of requests that failed with a network error, 429 or 5xx
+     */
+    public long getDroppedRequests() {
+        return droppedRequests.sum();
+    }
+
+    /**
+     * Give permits to the waiting requests while the limit allows it, outside the lock
+     */
+    private void grantWaiting() {
+        while (true) {
+            CompletableFuture<Long> permit;
+            synchronized (this) {
+                if (inFlight >= limit.getLimit() || waiting.isEmpty()) {
+                    return;
+                }
+                permit = waiting.poll();
+                inFlight++;
+            }
+            if (!permit.complete(System.nanoTime())) {
+                // Cancelled while waiting
+                synchronized (this) {
+                    inFlight--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Check whether a request failed because Telegram was overloaded or limiting the bot.
+     * Only the error code of error responses is parsed.
+     * @param responseContent Response received, null if the request failed
+     * @param exception Error sending the request, null if a response was received
+     * @return True if the request counts as dropped
+     */
+    protected boolean isDropped(String responseContent, Throwable exception) {
+        if (exception != null) {
+            Throwable cause = exception instanceof CompletionException && exception.getCause() != null ? exception.getCause() : exception;
+            return cause instanceof IOException;
+        }
+        if (responseContent == null || responseContent.startsWith("{\"ok\":true")) {
+            return false;
+        }
+        if (!responseContent.startsWith("{")) {
+            // Error page of a proxy in front of the API
+            return true;
+        }
+        Matcher matcher = ERROR_CODE.matcher(responseContent);
+        if (!matcher.find()) {
+            return false;
+        }
+        int errorCode = Integer.parseInt(matcher.group(1));
+        return errorCode == 429 || errorCode >= 500;
+    }
+}
@@ -0,0 +1,79 @@
+package org.telegram.telegrambots.facilities.concurrency;
+
+/**
+ * Additive increase, multiplicative decrease limit.
+ *
+ * The limit grows by one with every successful request sent while the limit is actually used, and shrinks by the
+ * backoff ratio when a request is dropped or its latency exceeds the tolerance over the average latency, so it
+ * backs off quickly when the API degrades and probes slowly for more capacity when it is healthy.
+ *
+ * The limit shrinks at most once per round trip: requests sent before the last decrease were let in by the old
+ * limit, so a burst of them failing together counts as a single sign of overload.
+ */
+public class AimdLimit implements ConcurrencyLimit {
+    private static final double LATENCY_SMOOTHING = 0.05;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    private volatile int limit;
+    private double averageRttNanos;
+    private boolean decreased;
+    private long lastDecreaseNanos;
+
+    /**
+     * Limit starting at 4 requests, between 1 and 100, backing off by 10% when latency doubles
+     */
+    public AimdLimit() {
+        this(4, 1, 100, 0.9, 2);
+    }
+
+    /**
+     * @param initialLimit Limit to start with
+     * @param minLimit Min limit
+     * @param maxLimit Max limit, should not exceed the connections (or threads, for the default transport) available
+     * @param backoffRatio Ratio the limit is multiplied by when a request is dropped, between 0.5 and 1
+     * @param latencyTolerance Latency over the average, as a ratio, considered a sign of overload
+     */
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double latencyTolerance) {
+        if (minLimit <= 0 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must be greater than 0 and initialLimit between minLimit and maxLimit");
+        }
+        if (backoffRatio < 0.5 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("BackoffRatio must be between 0.5 and 1");
+        }
+        if (latencyTolerance <= 1) {
+            throw new IllegalArgumentException("LatencyTolerance must be greater than 1");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long startNanos, long rttNanos, int inFlight, boolean dropped) {
+        boolean slow = averageRttNanos > 0 && rttNanos > averageRttNanos * latencyTolerance;
+        if (!dropped) {
+            averageRttNanos = averageRttNanos == 0 ? rttNanos : averageRttNanos + (rttNanos - averageRttNanos) * LATENCY_SMOOTHING;
+        }
+        if (dropped || slow) {
+            if (!decreased || startNanos - lastDecreaseNanos >= 0) {
+                limit = Math.max(minLimit, Math.min(limit - 1, (int) (limit * backoffRatio)));
+                decreased = true;
+                lastDecreaseNanos = startNanos + rttNanos;
+            }
+        } else if (inFlight * 2 >= limit) {
+            // Only grow when the limit is what holds requests back
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.telegram.telegrambots.facilities.concurrency;
+
+/**
+ * Algorithm deciding how many requests an {@link AdaptiveConcurrencyLimiter} lets in flight,
+ * from the latency and outcome of the requests that finish.
+ *
+ * Samples are given one at a time by the limiter, implementations don't need to be thread safe to compute them,
+ * but {@link #getLimit()} may be read from any thread.
+ */
+public interface ConcurrencyLimit {
+    /**
+     * @return Current max number of requests in flight, at least 1
+     */
+    int getLimit();
+
+    /**
+     * Update the limit with a finished request
+     * @param startNanos Time the request was sent, from {@link System#nanoTime()}
+     * @param rttNanos Time the request took
+     * @param inFlight Requests in flight when it finished, including itself
+     * @param dropped True if Telegram was overloaded or limiting the bot: network error, 429 or 5xx response
+     */
+    void onSample(long startNanos, long rttNanos, int inFlight, boolean dropped);
+}
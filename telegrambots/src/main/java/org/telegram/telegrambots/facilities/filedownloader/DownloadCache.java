@@ -0,0 +1,264 @@
+package org.telegram.telegrambots.facilities.filedownloader;
+
+import org.telegram.telegrambots.meta.api.objects.File;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Disk cache in front of a {@link TelegramFileDownloader}, keeping downloaded files by their file_unique_id so the same
+ * file is downloaded only once.
+ *
+ * Files live in a directory of their own, named after their file_unique_id, up to a max total size evicting the least
+ * recently used ones. Concurrent requests for a file not cached yet share a single download. Downloads are written to
+ * a temporary file and moved into place once complete, and the index is rebuilt from the directory on start, ordered by
+ * the last modification time that is updated on every hit.
+ *
+ * Cached files must not be modified. A file may be evicted after it is returned, readers that opened it before keep
+ * reading it on systems allowing to delete open files.
+ */
+public class DownloadCache {
+    private static final Pattern UNIQUE_ID = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private final TelegramFileDownloader downloader;
+    private final Path directory;
+    private final long maxBytes;
+    /** Size of the cached files by id, guarded by itself */
+    private final LinkedHashMap<String, Long> files = new LinkedHashMap<>(16, 0.75f, true);
+    /** Guarded by files */
+    private long totalBytes;
+    private final Map<String, CompletableFuture<Path>> downloads = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalescedRequests = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Open the cache in a directory, loading the files already in it
+     * @param downloader Downloader of the files not cached
+     * @param directory Directory of the cache, created if it doesn't exist
+     * @param maxBytes Max total size of the cached files
+     */
+    public DownloadCache(TelegramFileDownloader downloader, Path directory, long maxBytes) throws IOException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("MaxBytes must be greater than 0");
+        }
+        this.downloader = downloader;
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+        load();
+    }
+
+    /**
+     * Get a file from the cache, downloading it if it is not cached
+     * @param file File to get, its file_unique_id and file_path are needed
+     * @return Future with the path of the cached file, failed with a {@link TelegramApiException} if the download fails
+     */
+    public CompletableFuture<Path> getFile(File file) {
+        String id = file == null ? null : file.getFileUniqueId();
+        if (id == null || !UNIQUE_ID.matcher(id).matches()) {
+            CompletableFuture<Path> invalid = new CompletableFuture<>();
+            invalid.completeExceptionally(new TelegramApiException("Parameter file must have a valid file_unique_id"));
+            return invalid;
+        }
+        Path path = directory.resolve(id);
+        if (isCached(id)) {
+            hits.increment();
+            touch(path);
+            return CompletableFuture.completedFuture(path);
+        }
+
+        CompletableFuture<Path> download = new CompletableFuture<>();
+        CompletableFuture<Path> existing = downloads.putIfAbsent(id, download);
+        if (existing != null) {
+            coalescedRequests.increment();
+            return existing.thenApply(result -> result);
+        }
+        if (isCached(id)) {
+            // Cached by a download that just finished. Requests that got this future in between wait for it.
+            download.complete(path);
+            downloads.remove(id, download);
+            hits.increment();
+            return CompletableFuture.completedFuture(path);
+        }
+        misses.increment();
+        CompletableFuture<Long> written;
+        try {
+            // Written to a partial file by the downloader, moved to the path once complete
+            written = downloader.downloadFileTo(file, path);
+        } catch (TelegramApiException e) {
+            written = new CompletableFuture<>();
+            written.completeExceptionally(e);
+        }
+        written.whenComplete((size, throwable) -> {
+            try {
+                if (throwable != null) {
+                    download.completeExceptionally(throwable);
+                } else {
+                    add(id, size);
+                    download.complete(path);
+                }
+            } catch (IOException | RuntimeException e) {
+                download.completeExceptionally(new TelegramApiException("Error caching downloaded file", e));
+            } finally {
+                downloads.remove(id, download);
+            }
+        });
+        return download.thenApply(result -> result);
+    }
+
+    /**
+     * @param file File to check
+     * @return True if the file is cached
+     */
+    public boolean isCached(File file) {
+        return file.getFileUniqueId() != null && isCached(file.getFileUniqueId());
+    }
+
+    /**
+     * Remove a file from the cache
+     * @param file File to remove
+     */
+    public void invalidate(File file) throws IOException {
+        String id = file.getFileUniqueId();
+        synchronized (files) {
+            Long size = files.remove(id);
+            if (size == null) {
+                return;
+            }
+            totalBytes -= size;
+            Files.deleteIfExists(directory.resolve(id));
+        }
+    }
+
+    /**
+     * @return Number of requests answered with a cached file
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Number of requests that downloaded the file
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return Number of requests that waited for a download of the same file in progress
+     */
+    public long getCoalescedRequests() {
+        return coalescedRequests.sum();
+    }
+
+    /**
+     * @return Share of the requests that didn't download the file, from 0 to 1
+     */
+    public double getHitRate() {
+        long hits = this.hits.sum() + coalescedRequests.sum();
+        long total = hits + misses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return Number of files evicted to keep the cache within its max size
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return Number of files cached
+     */
+    public int getFileCount() {
+        synchronized (files) {
+            return files.size();
+        }
+    }
+
+    /**
+     * @return Total size of the files cached
+     */
+    public long getSizeBytes() {
+        synchronized (files) {
+            return totalBytes;
+        }
+    }
+
+    private boolean isCached(String id) {
+        synchronized (files) {
+            return files.get(id) != null;
+        }
+    }
+
+    /**
+     * Rebuild the index from the directory, least recently used first, dropping incomplete downloads
+     */
+    private void load() throws IOException {
+        List<Path> cached = new ArrayList<>();
+        Map<Path, BasicFileAttributes> attributes = new LinkedHashMap<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (name.endsWith(PARTIAL_SUFFIX)) {
+                    Files.deleteIfExists(entry);
+                } else if (UNIQUE_ID.matcher(name).matches()) {
+                    BasicFileAttributes entryAttributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                    if (entryAttributes.isRegularFile()) {
+                        cached.add(entry);
+                        attributes.put(entry, entryAttributes);
+                    }
+                }
+            }
+        }
+        cached.sort(Comparator.comparing(entry -> attributes.get(entry).lastModifiedTime()));
+        for (Path entry : cached) {
+            add(entry.getFileName().toString(), attributes.get(entry).size());
+        }
+    }
+
+    private void add(String id, long size) throws IOException {
+        synchronized (files) {
+            Long previous = files.put(id, size);
+            totalBytes += size - (previous == null ? 0 : previous);
+            Iterator<Map.Entry<String, Long>> eldest = files.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                if (entry.getKey().equals(id)) {
+                    // A file bigger than the cache is kept until the next one
+                    continue;
+                }
+                eldest.remove();
+                totalBytes -= entry.getValue();
+                evictions.increment();
+                Files.deleteIfExists(directory.resolve(entry.getKey()));
+            }
+        }
+    }
+
+    private static void touch(Path path) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // Only affects the order of eviction after a restart
+        }
+    }
+}
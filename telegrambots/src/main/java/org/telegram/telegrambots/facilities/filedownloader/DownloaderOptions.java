@@ -0,0 +1,72 @@
+package org.telegram.telegrambots.facilities.filedownloader;
+
+/**
+ * Configuration of the {@link TelegramFileDownloader} of a bot
+ */
+public class DownloaderOptions {
+    private int maxConcurrentDownloads = 4;
+    private int maxQueuedDownloads = 1000;
+    private int bufferSize = 64 * 1024;
+    private int maxDownloadAttempts = 3;
+
+    public int getMaxConcurrentDownloads() {
+        return maxConcurrentDownloads;
+    }
+
+    /**
+     * @param maxConcurrentDownloads Max number of files downloaded at the same time, each one in its own thread
+     * @implSpec Default is 4
+     */
+    public void setMaxConcurrentDownloads(int maxConcurrentDownloads) {
+        if (maxConcurrentDownloads <= 0) {
+            throw new IllegalArgumentException("MaxConcurrentDownloads must be greater than 0");
+        }
+        this.maxConcurrentDownloads = maxConcurrentDownloads;
+    }
+
+    public int getMaxQueuedDownloads() {
+        return maxQueuedDownloads;
+    }
+
+    /**
+     * @param maxQueuedDownloads Max number of downloads waiting for a thread, further downloads fail right away
+     * @implSpec Default is 1000
+     */
+    public void setMaxQueuedDownloads(int maxQueuedDownloads) {
+        if (maxQueuedDownloads <= 0) {
+            throw new IllegalArgumentException("MaxQueuedDownloads must be greater than 0");
+        }
+        this.maxQueuedDownloads = maxQueuedDownloads;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @param bufferSize Size of the buffer each download copies the content through
+     * @implSpec Default is 64 KB
+     */
+    public void setBufferSize(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("BufferSize must be greater than 0");
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    public int getMaxDownloadAttempts() {
+        return maxDownloadAttempts;
+    }
+
+    /**
+     * @param maxDownloadAttempts Max number of attempts of a download into a file failing with an I/O error, each
+     *                            one resuming from the bytes written by the previous ones when the server allows it
+     * @implSpec Default is 3
+     */
+    public void setMaxDownloadAttempts(int maxDownloadAttempts) {
+        if (maxDownloadAttempts <= 0) {
+            throw new IllegalArgumentException("MaxDownloadAttempts must be greater than 0");
+        }
+        this.maxDownloadAttempts = maxDownloadAttempts;
+    }
+}
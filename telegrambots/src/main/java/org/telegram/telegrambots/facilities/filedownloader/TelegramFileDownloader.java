@@ -1,41 +1,103 @@
 package org.telegram.telegrambots.facilities.filedownloader;
 
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
 import org.telegram.telegrambots.meta.api.objects.File;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.meta.updateshandlers.DownloadFileCallback;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
-import static org.apache.commons.io.FileUtils.copyInputStreamToFile;
 import static org.apache.http.HttpStatus.SC_OK;
+import static org.apache.http.HttpStatus.SC_PARTIAL_CONTENT;
+import static org.apache.http.HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE;
 
 /**
  * Wraps the file downloading code into one class.
+ *
+ * Downloads run in a dedicated pool of daemon threads limited to a max number of concurrent and queued downloads,
+ * see {@link DownloaderOptions}. Files can be written straight to a path, channel or stream of the caller.
+ *
+ * Downloads into a file go through a partial file next to it, and a failed download is retried up to a max number of
+ * attempts resuming from the partial file with a range request, starting over if the server doesn't support ranges.
+ * Downloads into a path given with {@link #downloadFileTo(File, Path)} keep the partial file when they fail, for a
+ * later download of the same file into the same path to resume from it. Its name identifies the file downloaded, so
+ * the download of another file into the path starts over.
+ *
  * @author Chase22
  * @version 1.0
  */
 public class TelegramFileDownloader {
+    private static final String PARTIAL_SUFFIX = ".part";
+    /** Content-Range of a 206 response, like "bytes 100-199/200", or of a 416 one with no range before the size */
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (?:(\\d+)-\\d+|\\*)/(\\d+|\\*)");
+
     private final HttpClient httpClient;
     //TODO Replace with concrete token once deprecations are removed
     private final Supplier<String> botTokenSupplier;
+    private final ThreadPoolExecutor executor;
+    private final int bufferSize;
+    private final int maxDownloadAttempts;
+
+    private final LongAdder downloads = new LongAdder();
+    private final LongAdder downloadedBytes = new LongAdder();
+    private final LongAdder downloadNanos = new LongAdder();
+    private final LongAdder rejectedDownloads = new LongAdder();
+    private final LongAdder resumedDownloads = new LongAdder();
 
     public TelegramFileDownloader(final Supplier<String> botTokenSupplier) {
-        this.botTokenSupplier = botTokenSupplier;
-        httpClient = HttpClients.createDefault();
+        this(HttpClients.createDefault(), botTokenSupplier);
     }
 
     public TelegramFileDownloader(final HttpClient httpClient, final Supplier<String> botTokenSupplier) {
+        this(httpClient, botTokenSupplier, new DownloaderOptions());
+    }
+
+    public TelegramFileDownloader(final HttpClient httpClient, final Supplier<String> botTokenSupplier, final DownloaderOptions options) {
         this.httpClient = httpClient;
         this.botTokenSupplier = botTokenSupplier;
+        this.bufferSize = options.getBufferSize();
+        this.maxDownloadAttempts = options.getMaxDownloadAttempts();
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(options.getMaxConcurrentDownloads(), options.getMaxConcurrentDownloads(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(options.getMaxQueuedDownloads()), runnable -> {
+            Thread thread = new Thread(runnable, "Telegram File Downloader " + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
     }
 
     public final java.io.File downloadFile(String filePath) throws TelegramApiException {
@@ -125,6 +187,108 @@ public class TelegramFileDownloader {
 
     }
 
+    /**
+     * Download a file into a channel, without closing it
+     * @param file File to download
+     * @param target Channel to write the file to
+     * @return Future with the number of bytes written, failed with a {@link TelegramApiException} if the download fails
+     */
+    public final CompletableFuture<Long> downloadFileTo(File file, WritableByteChannel target) throws TelegramApiException {
+        return wrapException(getFileDownloadFuture(getFileUrl(file), target));
+    }
+
+    /**
+     * Download a file into a stream, without closing it
+     * @param file File to download
+     * @param target Stream to write the file to
+     * @return Future with the number of bytes written, failed with a {@link TelegramApiException} if the download fails
+     */
+    public final CompletableFuture<Long> downloadFileTo(File file, OutputStream target) throws TelegramApiException {
+        return wrapException(getFileDownloadFuture(getFileUrl(file), Channels.newChannel(target)));
+    }
+
+    /**
+     * Download a file into a path, replacing it if it exists once the download completes. The file is written to a
+     * partial file next to it first, with a ".part" suffix, that is kept if the download fails for the next download
+     * of the same file into the same path to resume from.
+     * @param file File to download
+     * @param target Path to write the file to
+     * @return Future with the number of bytes written, failed with a {@link TelegramApiException} if the download fails
+     */
+    public final CompletableFuture<Long> downloadFileTo(File file, Path target) throws TelegramApiException {
+        return wrapException(getFileDownloadFuture(getFileUrl(file), target, true));
+    }
+
+    /**
+     * @return Number of files downloaded into a path, channel or stream
+     */
+    public long getDownloads() {
+        return downloads.sum();
+    }
+
+    /**
+     * @return Bytes of the files downloaded into a path, channel or stream
+     */
+    public long getDownloadedBytes() {
+        return downloadedBytes.sum();
+    }
+
+    /**
+     * @return Average download throughput, in bytes per second. 0 if nothing was downloaded.
+     */
+    public long getBytesPerSecond() {
+        long nanos = downloadNanos.sum();
+        return nanos == 0 ? 0 : (long) (downloadedBytes.sum() * (double) TimeUnit.SECONDS.toNanos(1) / nanos);
+    }
+
+    /**
+     * @return Number of downloads in progress
+     */
+    public int getActiveDownloads() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return Number of downloads waiting for a thread
+     */
+    public int getQueuedDownloads() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return Number of downloads failed because too many were queued
+     */
+    public long getRejectedDownloads() {
+        return rejectedDownloads.sum();
+    }
+
+    /**
+     * @return Number of downloads resumed from a partial file with a range request
+     */
+    public long getResumedDownloads() {
+        return resumedDownloads.sum();
+    }
+
+    private String getFileUrl(File file) throws TelegramApiException {
+        if (file == null) {
+            throw new TelegramApiException("Parameter file can not be null");
+        }
+        return file.getFileUrl(botTokenSupplier.get());
+    }
+
+    private static <T> CompletableFuture<T> wrapException(CompletableFuture<T> future) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                result.complete(value);
+            } else {
+                Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+                result.completeExceptionally(new TelegramApiException("Error downloading file", cause));
+            }
+        });
+        return result;
+    }
+
     private java.io.File getTempFile(String tempFileName) throws TelegramApiException {
         try {
             return java.io.File.createTempFile(tempFileName, ".tmp");
@@ -144,30 +308,187 @@ public class TelegramFileDownloader {
     }
 
     private CompletableFuture<java.io.File> getFileDownloadFuture(String url, java.io.File output) {
-        return getFileDownloadStreamFuture(url).thenApply(stream -> {
+        // Written to temporary files with random names, partial files could never be resumed
+        return getFileDownloadFuture(url, output.toPath(), false).thenApply(written -> output);
+    }
+
+    /**
+     * @param keepPartial Keep the partial file if the download fails, deleting the partial files of other downloads
+     *                    into the same path
+     */
+    private CompletableFuture<Long> getFileDownloadFuture(String url, Path output, boolean keepPartial) {
+        return submit(() -> {
+            Path partial = output.resolveSibling(output.getFileName() + "." + getDownloadId(url) + PARTIAL_SUFFIX);
             try {
-                copyInputStreamToFile(stream, output);
-                return output;
-            } catch (IOException e) {
-                throw new DownloadFileException("Error writing downloaded file", e);
+                if (keepPartial) {
+                    deleteOtherPartialFiles(output, partial);
+                }
+                for (int attempt = 1; ; attempt++) {
+                    try {
+                        long size = downloadToPartialFile(url, partial);
+                        Files.move(partial, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                        return size;
+                    } catch (IOException e) {
+                        if (attempt >= maxDownloadAttempts) {
+                            throw new DownloadFileException("Error writing downloaded file", e);
+                        }
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                if (!keepPartial) {
+                    try {
+                        Files.deleteIfExists(partial);
+                    } catch (IOException deleteException) {
+                        e.addSuppressed(deleteException);
+                    }
+                }
+                throw e instanceof DownloadFileException ? (DownloadFileException) e : new DownloadFileException("Error writing downloaded file", e);
             }
         });
     }
 
-    private CompletableFuture<InputStream> getFileDownloadStreamFuture(final String url) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                HttpResponse response = httpClient.execute(new HttpGet(url));
-                final int statusCode = response.getStatusLine().getStatusCode();
-                if (statusCode == SC_OK) {
-                    return response.getEntity().getContent();
+    /**
+     * Partial files left by downloads of other files into the same path, they would never be resumed
+     */
+    private static void deleteOtherPartialFiles(Path output, Path partial) throws IOException {
+        String prefix = output.getFileName() + ".";
+        Path directory = output.toAbsolutePath().getParent();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, entry -> {
+            String name = entry.getFileName().toString();
+            return name.startsWith(prefix) && name.endsWith(PARTIAL_SUFFIX) && !name.equals(partial.getFileName().toString());
+        })) {
+            for (Path entry : entries) {
+                Files.deleteIfExists(entry);
+            }
+        }
+    }
+
+    /**
+     * @return Identifier of the file at the url for partial file names, without revealing the token in the url
+     */
+    private static String getDownloadId(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            StringBuilder id = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                id.append(String.format("%02x", digest[i]));
+            }
+            return id.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Download into a partial file, resuming from its current size if the server answers the range request
+     * @return Size of the complete file
+     */
+    private long downloadToPartialFile(String url, Path partial) throws IOException {
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long offset = channel.size();
+            HttpGet request = new HttpGet(url);
+            if (offset > 0) {
+                request.setHeader(HttpHeaders.RANGE, "bytes=" + offset + "-");
+            }
+            HttpResponse response = httpClient.execute(request);
+            final int statusCode = response.getStatusLine().getStatusCode();
+            if (offset > 0 && (statusCode == SC_PARTIAL_CONTENT || statusCode == SC_REQUESTED_RANGE_NOT_SATISFIABLE)) {
+                Matcher range = getContentRange(response);
+                if (statusCode == SC_PARTIAL_CONTENT && range != null && String.valueOf(offset).equals(range.group(1))) {
+                    resumedDownloads.increment();
+                    channel.position(offset);
+                } else if (statusCode == SC_REQUESTED_RANGE_NOT_SATISFIABLE && range != null && String.valueOf(offset).equals(range.group(2))) {
+                    // The previous attempt failed after writing the last byte
+                    EntityUtils.consume(response.getEntity());
+                    return offset;
                 } else {
-                    throw new TelegramApiException("Unexpected Status code while downloading file. Expected 200 got " + statusCode);
+                    // The partial file doesn't match the file anymore, the next attempt starts over
+                    EntityUtils.consume(response.getEntity());
+                    channel.truncate(0);
+                    throw new IOException("Unexpected range while resuming download: " + (range == null ? null : range.group()));
                 }
-            } catch (IOException | TelegramApiException e) {
-                throw new DownloadFileException("Error downloading file", e);
+            } else if (statusCode == SC_OK) {
+                channel.truncate(0);
+            } else {
+                EntityUtils.consume(response.getEntity());
+                throw new DownloadFileException("Error downloading file",
+                        new TelegramApiException("Unexpected Status code while downloading file. Expected 200 got " + statusCode));
+            }
+            return channel.position() + transfer(response.getEntity().getContent(), channel);
+        }
+    }
+
+    private static Matcher getContentRange(HttpResponse response) {
+        Header header = response.getFirstHeader(HttpHeaders.CONTENT_RANGE);
+        if (header == null) {
+            return null;
+        }
+        Matcher matcher = CONTENT_RANGE.matcher(header.getValue().trim());
+        return matcher.matches() ? matcher : null;
+    }
+
+    private CompletableFuture<Long> getFileDownloadFuture(String url, WritableByteChannel output) {
+        return submit(() -> {
+            try {
+                return transfer(openStream(url), output);
+            } catch (IOException e) {
+                throw new DownloadFileException("Error writing downloaded file", e);
             }
         });
     }
 
+    /**
+     * Copy the content of a download to its target in the download thread, closing the content
+     * @return Bytes copied
+     */
+    private long transfer(InputStream stream, WritableByteChannel output) throws IOException {
+        long start = System.nanoTime();
+        long written = 0;
+        try (ReadableByteChannel input = Channels.newChannel(stream)) {
+            ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+            while (input.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    written += output.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+        downloads.increment();
+        downloadedBytes.add(written);
+        downloadNanos.add(System.nanoTime() - start);
+        return written;
+    }
+
+    private CompletableFuture<InputStream> getFileDownloadStreamFuture(final String url) {
+        return submit(() -> openStream(url));
+    }
+
+    private InputStream openStream(String url) {
+        try {
+            HttpResponse response = httpClient.execute(new HttpGet(url));
+            final int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode == SC_OK) {
+                return response.getEntity().getContent();
+            } else {
+                throw new TelegramApiException("Unexpected Status code while downloading file. Expected 200 got " + statusCode);
+            }
+        } catch (IOException | TelegramApiException e) {
+            throw new DownloadFileException("Error downloading file", e);
+        }
+    }
+
+    /**
+     * Run a download in the download threads
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> download) {
+        try {
+            return CompletableFuture.supplyAsync(download, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedDownloads.increment();
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new DownloadFileException("Too many downloads queued", e));
+            return rejected;
+        }
+    }
 }
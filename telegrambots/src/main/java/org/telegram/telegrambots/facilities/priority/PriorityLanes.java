@@ -0,0 +1,239 @@
+package org.telegram.telegrambots.facilities.priority;
+
+import org.telegram.telegrambots.util.LatencyHistogram;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Limits the number of requests in flight, queueing the rest in a lane per {@link RequestPriority}.
+ *
+ * When a request finishes, the next one is taken from the lanes with smooth weighted round robin: a backlogged
+ * lane gets a share of the connections proportional to its weight, so interactive requests keep flowing while a
+ * broadcast is queued in the bulk lane, and the bulk lane still progresses while there are interactive requests.
+ *
+ * The time each request waits in its lane is recorded to verify the latency of every priority class.
+ */
+public class PriorityLanes {
+    private static final ThreadLocal<Deque<Ticket>> GRANTING = new ThreadLocal<>();
+
+    private final int maxConcurrentRequests;
+    private final Lane[] lanes;
+    /** Guarded by this */
+    private int inFlight;
+
+    /**
+     * @param maxConcurrentRequests Max number of requests in flight, should not exceed the connections available
+     *                              (or the threads, for the default transport)
+     */
+    public PriorityLanes(int maxConcurrentRequests) {
+        this(maxConcurrentRequests, 16, 4, 1);
+    }
+
+    /**
+     * @param maxConcurrentRequests Max number of requests in flight
+     * @param interactiveWeight Share of the interactive lane
+     * @param normalWeight Share of the normal lane
+     * @param bulkWeight Share of the bulk lane
+     */
+    public PriorityLanes(int maxConcurrentRequests, int interactiveWeight, int normalWeight, int bulkWeight) {
+        if (maxConcurrentRequests <= 0) {
+            throw new IllegalArgumentException("MaxConcurrentRequests must be greater than 0");
+        }
+        if (interactiveWeight <= 0 || normalWeight <= 0 || bulkWeight <= 0) {
+            throw new IllegalArgumentException("Weights must be greater than 0");
+        }
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.lanes = new Lane[RequestPriority.values().length];
+        lanes[RequestPriority.INTERACTIVE.ordinal()] = new Lane(interactiveWeight);
+        lanes[RequestPriority.NORMAL.ordinal()] = new Lane(normalWeight);
+        lanes[RequestPriority.BULK.ordinal()] = new Lane(bulkWeight);
+    }
+
+    /**
+     * Send a request once its lane gets a turn
+     * @param priority Lane of the request
+     * @param request Sends the request, its future must complete when the request finishes
+     * @return Future of the request
+     */
+    public <T> CompletableFuture<T> submit(RequestPriority priority, Supplier<CompletableFuture<T>> request) {
+        return acquire(priority).thenCompose(ignored -> {
+            CompletableFuture<T> response;
+            try {
+                response = request.get();
+            } catch (RuntimeException e) {
+                release();
+                throw e;
+            }
+            return response.whenComplete((result, exception) -> release());
+        });
+    }
+
+    /**
+     * Wait for a turn in the lane. Every granted turn must be given back with {@link #release()}.
+     * @param priority Lane of the request
+     * @return Future completed when the request can be sent. Cancelling it gives up the turn.
+     */
+    public CompletableFuture<Void> acquire(RequestPriority priority) {
+        Lane lane = lanes[priority.ordinal()];
+        Ticket ticket = new Ticket(lane);
+        boolean granted = false;
+        synchronized (this) {
+            if (inFlight < maxConcurrentRequests && isEmpty()) {
+                inFlight++;
+                granted = true;
+            } else {
+                lane.queue.add(ticket);
+            }
+        }
+        if (granted) {
+            grant(ticket);
+        }
+        return ticket;
+    }
+
+    /**
+     * Wait in the current thread for a turn in the lane. Every granted turn must be given back with {@link #release()}.
+     * @param priority Lane of the request
+     * @throws InterruptedException If interrupted while waiting, giving up the turn
+     */
+    public void acquireInterruptibly(RequestPriority priority) throws InterruptedException {
+        CompletableFuture<Void> turn = acquire(priority);
+        try {
+            turn.get();
+        } catch (InterruptedException e) {
+            if (!turn.cancel(false)) {
+                release();
+            }
+            throw e;
+        } catch (ExecutionException | CancellationException e) {
+            throw new IllegalStateException("Turn can't fail", e);
+        }
+    }
+
+    /**
+     * Give back a turn, letting the next queued request be sent
+     */
+    public void release() {
+        Ticket next;
+        synchronized (this) {
+            next = pollNext();
+            if (next == null) {
+                inFlight--;
+            }
+        }
+        if (next != null) {
+            grant(next);
+        }
+    }
+
+    /**
+     * @return Number of requests being sent
+     */
+    public synchronized int getInFlightRequests() {
+        return inFlight;
+    }
+
+    /**
+     * @param priority Lane to check
+     * @return Number of requests waiting in the lane
+     */
+    public synchronized int getQueuedRequests(RequestPriority priority) {
+        return lanes[priority.ordinal()].queue.size();
+    }
+
+    /**
+     * @param priority Lane to check
+     * @return Time requests of the lane have waited for their turn
+     */
+    public LatencyHistogram getQueueLatency(RequestPriority priority) {
+        return lanes[priority.ordinal()].latency;
+    }
+
+    private boolean isEmpty() {
+        for (Lane lane : lanes) {
+            if (!lane.queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Smooth weighted round robin among the lanes with queued requests
+     */
+    private Ticket pollNext() {
+        Lane selected = null;
+        int totalWeight = 0;
+        for (Lane lane : lanes) {
+            if (lane.queue.isEmpty()) {
+                continue;
+            }
+            lane.credit += lane.weight;
+            totalWeight += lane.weight;
+            if (selected == null || lane.credit > selected.credit) {
+                selected = lane;
+            }
+        }
+        if (selected == null) {
+            return null;
+        }
+        selected.credit -= totalWeight;
+        Ticket ticket = selected.queue.poll();
+        if (selected.queue.isEmpty()) {
+            selected.credit = 0;
+        }
+        return ticket;
+    }
+
+    /**
+     * Complete a granted ticket. Tickets granted while completing another one, from requests finishing right away,
+     * are completed afterwards in the same loop instead of recursively.
+     */
+    private void grant(Ticket ticket) {
+        Deque<Ticket> pending = GRANTING.get();
+        if (pending != null) {
+            pending.add(ticket);
+            return;
+        }
+        pending = new ArrayDeque<>();
+        GRANTING.set(pending);
+        try {
+            Ticket next = ticket;
+            while (next != null) {
+                next.lane.latency.record(System.nanoTime() - next.created);
+                if (!next.complete(null)) {
+                    // Cancelled while queued, the turn goes to the next request
+                    release();
+                }
+                next = pending.poll();
+            }
+        } finally {
+            GRANTING.remove();
+        }
+    }
+
+    private static class Lane {
+        private final int weight;
+        private final Deque<Ticket> queue = new ArrayDeque<>();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private int credit;
+
+        private Lane(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static class Ticket extends CompletableFuture<Void> {
+        private final Lane lane;
+        private final long created = System.nanoTime();
+
+        private Ticket(Lane lane) {
+            this.lane = lane;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.telegram.telegrambots.facilities.priority;
+
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
+import org.telegram.telegrambots.meta.api.methods.AnswerInlineQuery;
+import org.telegram.telegrambots.meta.api.methods.AnswerPreCheckoutQuery;
+import org.telegram.telegrambots.meta.api.methods.AnswerShippingQuery;
+import org.telegram.telegrambots.meta.api.methods.PartialBotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendChatAction;
+import org.telegram.telegrambots.meta.api.methods.webapp.AnswerWebAppQuery;
+
+/**
+ * Priority class of an outgoing request, deciding its share of the connections when requests are queued
+ */
+public enum RequestPriority {
+    /**
+     * Requests a user is actively waiting for, like answers to callback or inline queries
+     */
+    INTERACTIVE,
+    /**
+     * Regular requests
+     */
+    NORMAL,
+    /**
+     * Background requests, like broadcasts, that must not delay the rest
+     */
+    BULK;
+
+    /**
+     * @param method Method to classify
+     * @return Default priority of the method: interactive for answers to queries and chat actions, normal otherwise
+     */
+    public static RequestPriority of(PartialBotApiMethod<?> method) {
+        if (method instanceof AnswerCallbackQuery || method instanceof AnswerInlineQuery ||
+                method instanceof AnswerPreCheckoutQuery || method instanceof AnswerShippingQuery ||
+                method instanceof AnswerWebAppQuery || method instanceof SendChatAction) {
+            return INTERACTIVE;
+        }
+        return NORMAL;
+    }
+}
@@ -0,0 +1,308 @@
+package org.telegram.telegrambots.facilities.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.telegram.telegrambots.meta.api.methods.CopyMessages;
+import org.telegram.telegrambots.meta.api.methods.ForwardMessages;
+import org.telegram.telegrambots.meta.api.methods.PartialBotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendMediaGroup;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import org.telegram.telegrambots.util.MethodUtils;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outgoing messages scheduler that keeps a bot within Telegram flood limits: a global rate for the whole bot,
+ * plus a rate per private chat and a lower one per group or channel.
+ *
+ * Every limit is a GCRA (virtual scheduling) bucket that only stores the theoretical arrival time of the next
+ * message, so scheduling a send costs O(1) and there are no timers per chat. Requests exceeding the rate are not
+ * rejected but delayed until their slot, sync ones sleeping in the caller thread and async ones waiting in a
+ * single shared scheduler thread, which also drops the state of idle chats once a minute.
+ *
+ * When Telegram still answers with retry_after, the affected chat (or the whole bot for methods without chat)
+ * is paused for that time.
+ */
+@Slf4j
+public class TelegramRateLimiter implements Closeable {
+    private static final long SWEEP_INTERVAL_SECONDS = 60;
+
+    private final Bucket global;
+    private final long chatInterval;
+    private final long groupInterval;
+    private final Map<String, Bucket> chats = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicInteger queuedRequests = new AtomicInteger();
+    private final LongAdder delayedRequests = new LongAdder();
+    private final LongAdder delayNanos = new LongAdder();
+    private final LongAdder retryAfterPenalties = new LongAdder();
+
+    /**
+     * Limiter with the limits documented by Telegram: 30 messages per second, 1 per second in the same private
+     * chat and 20 per minute in the same group
+     */
+    public TelegramRateLimiter() {
+        this(30, 1, 20);
+    }
+
+    /**
+     * @param globalPerSecond Max messages per second for the whole bot, bursts of up to one second are allowed
+     * @param chatPerSecond Max messages per second to the same private chat
+     * @param groupPerMinute Max messages per minute to the same group or channel
+     */
+    public TelegramRateLimiter(double globalPerSecond, double chatPerSecond, double groupPerMinute) {
+        if (globalPerSecond <= 0 || chatPerSecond <= 0 || groupPerMinute <= 0) {
+            throw new IllegalArgumentException("Rates must be greater than 0");
+        }
+        long globalInterval = (long) (TimeUnit.SECONDS.toNanos(1) / globalPerSecond);
+        this.global = new Bucket(globalInterval, globalInterval * (Math.max(1, (long) globalPerSecond) - 1));
+        this.chatInterval = (long) (TimeUnit.SECONDS.toNanos(1) / chatPerSecond);
+        this.groupInterval = (long) (TimeUnit.MINUTES.toNanos(1) / groupPerMinute);
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "Telegram Rate Limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        executor.scheduleWithFixedDelay(() -> sweep(System.nanoTime()), SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        this.scheduler = executor;
+    }
+
+    /**
+     * Reserve the next slot allowed for a method
+     * @param method Method about to be sent
+     * @return Nanoseconds to wait before sending it, 0 to send it right away
+     */
+    public long reserve(PartialBotApiMethod<?> method) {
+        if (!isLimited(method)) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        int weight = getWeight(method);
+        String chatId = getChatId(method);
+
+        long sendAt = now;
+        if (chatId != null) {
+            long[] chatSlot = new long[1];
+            long interval = isGroup(chatId) ? groupInterval : chatInterval;
+            chats.compute(chatId, (key, bucket) -> {
+                Bucket chatBucket = bucket != null ? bucket : new Bucket(interval, 0);
+                chatSlot[0] = chatBucket.reserve(now, weight);
+                return chatBucket;
+            });
+            sendAt = chatSlot[0];
+        }
+        synchronized (global) {
+            // Global slot is taken from the chat slot so the message doesn't use a global slot it can't send in
+            sendAt = global.reserve(sendAt, weight);
+        }
+
+        long delay = Math.max(0, sendAt - now);
+        if (delay > 0) {
+            delayedRequests.increment();
+            delayNanos.add(delay);
+        }
+        return delay;
+    }
+
+    /**
+     * Wait in the current thread until the method can be sent
+     * @param method Method about to be sent
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public void acquire(PartialBotApiMethod<?> method) throws InterruptedException {
+        long delay = reserve(method);
+        if (delay > 0) {
+            queuedRequests.incrementAndGet();
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } finally {
+                queuedRequests.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Wait, without blocking the current thread, until the method can be sent
+     * @param method Method about to be sent
+     * @return Future completed when the method can be sent, in the scheduler thread if it had to wait
+     */
+    public CompletableFuture<Void> acquireAsync(PartialBotApiMethod<?> method) {
+        long delay = reserve(method);
+        if (delay <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> completableFuture = new CompletableFuture<>();
+        queuedRequests.incrementAndGet();
+        scheduler.schedule(() -> {
+            queuedRequests.decrementAndGet();
+            completableFuture.complete(null);
+        }, delay, TimeUnit.NANOSECONDS);
+        return completableFuture;
+    }
+
+    /**
+     * Feed an error answered by Telegram back into the limits, pausing the chat of the method for the
+     * retry_after time requested, if any
+     * @param method Method that failed
+     * @param exception Error returned by Telegram
+     */
+    public void onRequestError(PartialBotApiMethod<?> method, TelegramApiRequestException exception) {
+        if (exception.getParameters() == null || exception.getParameters().getRetryAfter() == null) {
+            return;
+        }
+        long pauseUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(exception.getParameters().getRetryAfter());
+        String chatId = isLimited(method) ? getChatId(method) : null;
+        if (chatId != null) {
+            long interval = isGroup(chatId) ? groupInterval : chatInterval;
+            chats.compute(chatId, (key, bucket) -> {
+                Bucket chatBucket = bucket != null ? bucket : new Bucket(interval, 0);
+                chatBucket.pauseUntil(pauseUntil);
+                return chatBucket;
+            });
+        } else {
+            synchronized (global) {
+                global.pauseUntil(pauseUntil);
+            }
+        }
+        retryAfterPenalties.increment();
+        log.warn("Telegram asked to retry {} after {} seconds", method.getMethod(), exception.getParameters().getRetryAfter());
+    }
+
+    /**
+     * @return Number of requests currently waiting for their slot
+     */
+    public int getQueuedRequests() {
+        return queuedRequests.get();
+    }
+
+    /**
+     * @return Total number of requests that had to wait for their slot
+     */
+    public long getDelayedRequests() {
+        return delayedRequests.sum();
+    }
+
+    /**
+     * @return Total time requests have been delayed by the limiter
+     */
+    public long getTotalDelayMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(delayNanos.sum());
+    }
+
+    /**
+     * @return Number of retry_after answers received from Telegram
+     */
+    public long getRetryAfterPenalties() {
+        return retryAfterPenalties.sum();
+    }
+
+    /**
+     * @return Number of chats whose limit is currently tracked
+     */
+    public int getTrackedChats() {
+        return chats.size();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @param method Method to check
+     * @return True if the method sends messages and therefore counts for the limits
+     */
+    protected boolean isLimited(PartialBotApiMethod<?> method) {
+        String name = method.getMethod();
+        return name != null && !name.equals("sendChatAction") &&
+                (name.startsWith("send") || name.startsWith("copyMessage") || name.startsWith("forwardMessage"));
+    }
+
+    /**
+     * @param method Method to check
+     * @return Number of messages sent by the method
+     */
+    protected int getWeight(PartialBotApiMethod<?> method) {
+        if (method instanceof SendMediaGroup && ((SendMediaGroup) method).getMedias() != null) {
+            return Math.max(1, ((SendMediaGroup) method).getMedias().size());
+        } else if (method instanceof CopyMessages && ((CopyMessages) method).getMessageIds() != null) {
+            return Math.max(1, ((CopyMessages) method).getMessageIds().size());
+        } else if (method instanceof ForwardMessages && ((ForwardMessages) method).getMessageIds() != null) {
+            return Math.max(1, ((ForwardMessages) method).getMessageIds().size());
+        }
+        return 1;
+    }
+
+    /**
+     * @param method Method to check
+     * @return Target chat of the method, null if it has none
+     */
+    protected String getChatId(PartialBotApiMethod<?> method) {
+        return MethodUtils.getChatId(method);
+    }
+
+    /**
+     * @param chatId Chat to check
+     * @return True for groups and channels (negative ids or usernames), false for private chats
+     */
+    protected boolean isGroup(String chatId) {
+        return chatId.startsWith("-") || chatId.startsWith("@");
+    }
+
+    /**
+     * Remove chats without pending slots, they behave exactly as chats never seen before.
+     * Runs in the scheduler thread, off the path of the requests.
+     */
+    private void sweep(long now) {
+        for (String chatId : chats.keySet()) {
+            chats.computeIfPresent(chatId, (key, bucket) -> bucket.isIdle(now) ? null : bucket);
+        }
+    }
+
+    /**
+     * GCRA state of a limit, callers must hold the lock guarding it
+     */
+    private static class Bucket {
+        /** Nanoseconds between two messages */
+        private final long interval;
+        /** Nanoseconds a message may be sent ahead of its theoretical time, allowing bursts */
+        private final long tolerance;
+        /** Theoretical arrival time of the next message */
+        private long theoreticalArrival = Long.MIN_VALUE;
+
+        private Bucket(long interval, long tolerance) {
+            this.interval = interval;
+            this.tolerance = tolerance;
+        }
+
+        /**
+         * @return Time when the messages can be sent, not before notBefore
+         */
+        private long reserve(long notBefore, int weight) {
+            long arrival = theoreticalArrival == Long.MIN_VALUE ? notBefore : theoreticalArrival;
+            long sendAt = Math.max(notBefore, arrival - tolerance);
+            theoreticalArrival = Math.max(arrival, sendAt) + interval * weight;
+            return sendAt;
+        }
+
+        private void pauseUntil(long time) {
+            if (theoreticalArrival == Long.MIN_VALUE || theoreticalArrival - time < tolerance) {
+                theoreticalArrival = time + tolerance;
+            }
+        }
+
+        private boolean isIdle(long now) {
+            return theoreticalArrival == Long.MIN_VALUE || theoreticalArrival - now <= 0;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package org.telegram.telegrambots.facilities.retry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.telegram.telegrambots.meta.api.methods.PartialBotApiMethod;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Retries requests failed because of flood control, server errors or network errors.
+ *
+ * Flood control errors (429) are retried after the exact retry_after requested by Telegram, for any method, as
+ * Telegram did not execute them. Server errors (5xx, including error pages of gateways in front of the API) and
+ * network errors are retried with a jittered exponential backoff, but only for idempotent methods (getters and
+ * setters) and the methods added with {@link #addRetryableMethod(String)}, as the request may have been executed
+ * before failing. Deletions are not retried by default: a second deleteMessage fails once the first one worked.
+ *
+ * Retries are limited by a budget shared by all the requests of the bot: every request adds a fraction of a retry
+ * to the budget and every retry takes a whole one, so a storm of errors can't multiply the load on Telegram.
+ *
+ * Async requests wait for their retry in a single shared scheduler thread, without blocking any thread.
+ */
+@Slf4j
+public class TelegramRetryEngine implements Closeable {
+    private static final int FLOOD_CONTROL_ERROR = 429;
+    private static final long BUDGET_UNIT = 1000;
+
+    private final Set<String> retryableMethods = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong budget = new AtomicLong();
+
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhaustedRetries = new LongAdder();
+    private final LongAdder budgetRejections = new LongAdder();
+
+    private volatile int maxRetries = 3;
+    private volatile long initialBackoff = 500;
+    private volatile long maxBackoff = 30_000;
+    private volatile long maxRetryAfter = 60_000;
+    private volatile long maxBudget = 10 * BUDGET_UNIT;
+    private volatile long budgetPerRequest = BUDGET_UNIT / 10;
+
+    public TelegramRetryEngine() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "Telegram Retry Engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.scheduler = executor;
+        this.budget.set(maxBudget);
+    }
+
+    /**
+     * Execute a request, scheduling new attempts while it fails with a retryable error
+     * @param method Method sent by the request
+     * @param request Sends the method once, called again for every retry
+     * @return Future completed with the result of the first successful attempt, or the error of the last one
+     */
+    public <T> CompletableFuture<T> execute(PartialBotApiMethod<?> method, Supplier<CompletableFuture<T>> request) {
+        onRequest();
+        CompletableFuture<T> completableFuture = new CompletableFuture<>();
+        attempt(method, request, 1, completableFuture);
+        return completableFuture;
+    }
+
+    /**
+     * Decide whether a failed attempt must be retried, taking the retry from the budget if so. Every new request
+     * must call {@link #onRequest()} before its first attempt.
+     * @param method Method that failed
+     * @param error Error of the attempt
+     * @param attempt Number of attempts done so far, starting at 1
+     * @return Milliseconds to wait before the next attempt, or -1 if it must not be retried
+     */
+    public long getRetryDelay(PartialBotApiMethod<?> method, Throwable error, int attempt) {
+        long delay = computeDelay(method, error, attempt);
+        if (delay < 0) {
+            return -1;
+        }
+        if (attempt > maxRetries) {
+            exhaustedRetries.increment();
+            return -1;
+        }
+        if (!takeFromBudget()) {
+            budgetRejections.increment();
+            log.warn("Retry budget exhausted, not retrying {}", method.getMethod());
+            return -1;
+        }
+        retries.increment();
+        log.debug("Retrying {} in {} ms after attempt {} failed", method.getMethod(), delay, attempt);
+        return delay;
+    }
+
+    /**
+     * Add the share of a new request to the retry budget
+     */
+    public void onRequest() {
+        budget.accumulateAndGet(budgetPerRequest, (current, added) -> Math.min(maxBudget, current + added));
+    }
+
+    /**
+     * Allow retrying a method after server or network errors, for methods that can be safely executed twice
+     * @param method Name of the method, case insensitive, i.e. {@code sendChatAction}
+     */
+    public void addRetryableMethod(String method) {
+        retryableMethods.add(method.toLowerCase());
+    }
+
+    /**
+     * @param maxRetries Max number of retries of each request
+     * @implSpec Default is 3
+     */
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * @param initialBackoff Milliseconds to wait before the first retry of a server or network error,
+     *                       doubled for every next retry
+     * @param maxBackoff Max milliseconds to wait between retries of a server or network error
+     * @implSpec Default is 500 and 30000
+     */
+    public void setBackoff(long initialBackoff, long maxBackoff) {
+        if (initialBackoff <= 0 || maxBackoff < initialBackoff) {
+            throw new IllegalArgumentException("Backoff must be greater than 0 and not greater than max backoff");
+        }
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * @param maxRetryAfter Max milliseconds to wait for a retry_after, requests asked to wait longer fail right away
+     * @implSpec Default is 60000
+     */
+    public void setMaxRetryAfter(long maxRetryAfter) {
+        this.maxRetryAfter = maxRetryAfter;
+    }
+
+    /**
+     * @param maxRetries Max number of retries available at once
+     * @param retriesPerRequest Retries added to the budget by every request, i.e. 0.1 allows one retry every 10 requests
+     * @implSpec Default is 10 and 0.1
+     */
+    public void setRetryBudget(int maxRetries, double retriesPerRequest) {
+        if (maxRetries < 0 || retriesPerRequest < 0) {
+            throw new IllegalArgumentException("Retry budget can't be negative");
+        }
+        this.maxBudget = maxRetries * BUDGET_UNIT;
+        this.budgetPerRequest = (long) (retriesPerRequest * BUDGET_UNIT);
+        budget.accumulateAndGet(maxBudget, Math::min);
+    }
+
+    /**
+     * @return Number of retries done
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * @return Number of requests that failed after using all their retries
+     */
+    public long getExhaustedRetries() {
+        return exhaustedRetries.sum();
+    }
+
+    /**
+     * @return Number of retries not done because the retry budget was exhausted
+     */
+    public long getBudgetRejections() {
+        return budgetRejections.sum();
+    }
+
+    /**
+     * @return Retries currently available in the budget
+     */
+    public double getAvailableBudget() {
+        return (double) budget.get() / BUDGET_UNIT;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @param method Method to check
+     * @return True if the method can be executed twice without side effects
+     */
+    protected boolean isIdempotent(PartialBotApiMethod<?> method) {
+        String name = method.getMethod();
+        if (name == null) {
+            return false;
+        }
+        return name.startsWith("get") || name.startsWith("set") || retryableMethods.contains(name.toLowerCase());
+    }
+
+    private <T> void attempt(PartialBotApiMethod<?> method, Supplier<CompletableFuture<T>> request, int attempt,
+                             CompletableFuture<T> completableFuture) {
+        CompletableFuture<T> response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            completableFuture.completeExceptionally(e);
+            return;
+        }
+        response.whenComplete((result, throwable) -> {
+            if (throwable == null) {
+                completableFuture.complete(result);
+                return;
+            }
+            Throwable error = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            long delay = getRetryDelay(method, error, attempt);
+            if (delay < 0) {
+                completableFuture.completeExceptionally(error);
+                return;
+            }
+            try {
+                scheduler.schedule(() -> attempt(method, request, attempt + 1, completableFuture), delay, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                completableFuture.completeExceptionally(error);
+            }
+        });
+    }
+
+    private long computeDelay(PartialBotApiMethod<?> method, Throwable error, int attempt) {
+        if (error instanceof TelegramApiRequestException) {
+            TelegramApiRequestException requestException = (TelegramApiRequestException) error;
+            Integer errorCode = requestException.getErrorCode();
+            if (requestException.getParameters() != null && requestException.getParameters().getRetryAfter() != null) {
+                long retryAfter = TimeUnit.SECONDS.toMillis(requestException.getParameters().getRetryAfter());
+                return retryAfter <= maxRetryAfter ? retryAfter : -1;
+            }
+            if (errorCode != null && errorCode == FLOOD_CONTROL_ERROR) {
+                return backoff(attempt);
+            }
+            if (requestException.isServerError() && isIdempotent(method)) {
+                return backoff(attempt);
+            }
+            return -1;
+        }
+        if (error instanceof IOException && isIdempotent(method)) {
+            return backoff(attempt);
+        }
+        return -1;
+    }
+
+    /**
+     * Exponential backoff with equal jitter, so retries of requests failed at the same time are spread
+     */
+    private long backoff(int attempt) {
+        long delay = Math.min(maxBackoff, initialBackoff << Math.min(attempt - 1, 30));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private boolean takeFromBudget() {
+        while (true) {
+            long current = budget.get();
+            if (current < BUDGET_UNIT) {
+                return false;
+            }
+            if (budget.compareAndSet(current, current - BUDGET_UNIT)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package org.telegram.telegrambots.facilities.template;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiValidationException;
+import org.telegram.telegrambots.meta.serialization.TelegramJsonMapper;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Method serialized once to send it to many chats, i.e. a broadcast message with a large keyboard.
+ *
+ * The JSON of the method is split around the values that change for every recipient (the chat id plus, optionally,
+ * other top level fields). Rendering it for a recipient only copies the fixed parts and the new values into the
+ * request body, instead of serializing the whole method again.
+ *
+ * @param <T> Result of the method
+ */
+public class MethodTemplate<T extends Serializable> {
+    public static final String CHAT_ID_FIELD = "chat_id";
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?");
+
+    private final BotApiMethod<T> prototype;
+    private final byte[][] segments;
+    /** Slot between every two segments */
+    private final Integer[] order;
+    private final boolean[] quoted;
+    private final List<String> fields;
+
+    private MethodTemplate(BotApiMethod<T> prototype, byte[][] segments, Integer[] order, boolean[] quoted, List<String> fields) {
+        this.prototype = prototype;
+        this.segments = segments;
+        this.order = order;
+        this.quoted = quoted;
+        this.fields = fields;
+    }
+
+    /**
+     * Create a template serialized with the default mapper
+     * @see #of(BotApiMethod, TelegramJsonMapper, String...)
+     */
+    public static <T extends Serializable> MethodTemplate<T> of(BotApiMethod<T> prototype, String... fields) throws TelegramApiValidationException {
+        return of(prototype, TelegramJsonMapper.getDefault(), fields);
+    }
+
+    /**
+     * Create a template from a method
+     * @param prototype Method to send, with any valid chat id. It must not be modified afterwards.
+     * @param jsonMapper Mapper used to serialize the method
+     * @param fields JSON names of other top level fields changing for every recipient, they must be set in the prototype
+     * @return Template of the method
+     * @throws TelegramApiValidationException If the prototype is not valid
+     */
+    public static <T extends Serializable> MethodTemplate<T> of(BotApiMethod<T> prototype, TelegramJsonMapper jsonMapper,
+                                                               String... fields) throws TelegramApiValidationException {
+        prototype.validate();
+        List<String> slotFields = new ArrayList<>();
+        slotFields.add(CHAT_ID_FIELD);
+        slotFields.addAll(Arrays.asList(fields));
+
+        ObjectNode tree = jsonMapper.getObjectMapper().valueToTree(prototype);
+        String marker = "tg-slot-" + UUID.randomUUID() + "-";
+        boolean[] quoted = new boolean[slotFields.size()];
+        for (int i = 0; i < slotFields.size(); i++) {
+            JsonNode value = tree.get(slotFields.get(i));
+            if (value == null || !(value.isTextual() || value.isNumber())) {
+                throw new IllegalArgumentException("Field " + slotFields.get(i) + " must be set to a text or number in the prototype");
+            }
+            quoted[i] = value.isTextual();
+            tree.set(slotFields.get(i), TextNode.valueOf(marker + i));
+        }
+
+        byte[] json;
+        try {
+            json = jsonMapper.getObjectMapper().writeValueAsBytes(tree);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to serialize " + prototype.getMethod(), e);
+        }
+
+        // Slots may appear in any order in the JSON, segments are kept in the order of the JSON
+        Integer[] order = new Integer[slotFields.size()];
+        int[] positions = new int[slotFields.size()];
+        int[] lengths = new int[slotFields.size()];
+        for (int i = 0; i < slotFields.size(); i++) {
+            byte[] slot = ("\"" + marker + i + "\"").getBytes(StandardCharsets.UTF_8);
+            positions[i] = indexOf(json, slot);
+            if (positions[i] < 0) {
+                throw new IllegalStateException("Slot of field " + slotFields.get(i) + " not found");
+            }
+            lengths[i] = slot.length;
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(slot -> positions[slot]));
+
+        byte[][] segments = new byte[slotFields.size() + 1][];
+        int start = 0;
+        for (int i = 0; i < order.length; i++) {
+            segments[i] = Arrays.copyOfRange(json, start, positions[order[i]]);
+            start = positions[order[i]] + lengths[order[i]];
+        }
+        segments[order.length] = Arrays.copyOfRange(json, start, json.length);
+        return new MethodTemplate<>(prototype, segments, order, quoted, slotFields);
+    }
+
+    /**
+     * Render the method for a recipient
+     * @param chatId Chat id of the recipient
+     * @param values Values of the other fields of the template, in the same order
+     * @return Method ready to be executed
+     */
+    public TemplatedMethod<T> render(String chatId, String... values) {
+        if (chatId == null || chatId.isEmpty()) {
+            throw new IllegalArgumentException("ChatId can't be empty");
+        }
+        if (values.length != fields.size() - 1) {
+            throw new IllegalArgumentException("Expected " + (fields.size() - 1) + " values but got " + values.length);
+        }
+        byte[][] encoded = new byte[fields.size()][];
+        int length = segments[0].length;
+        for (int i = 0; i < encoded.length; i++) {
+            int slot = order[i];
+            encoded[i] = encode(slot, slot == 0 ? chatId : values[slot - 1]);
+            length += encoded[i].length + segments[i + 1].length;
+        }
+
+        byte[] body = new byte[length];
+        int position = 0;
+        for (int i = 0; i < encoded.length; i++) {
+            System.arraycopy(segments[i], 0, body, position, segments[i].length);
+            position += segments[i].length;
+            System.arraycopy(encoded[i], 0, body, position, encoded[i].length);
+            position += encoded[i].length;
+        }
+        System.arraycopy(segments[encoded.length], 0, body, position, segments[encoded.length].length);
+        return new TemplatedMethod<>(prototype, chatId, body);
+    }
+
+    /**
+     * @param chatId Chat id of the recipient
+     * @return Method ready to be executed
+     */
+    public TemplatedMethod<T> render(Long chatId) {
+        return render(chatId.toString());
+    }
+
+    /**
+     * @return Method the template was created from
+     */
+    public BotApiMethod<T> getPrototype() {
+        return prototype;
+    }
+
+    private byte[] encode(int slot, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value of field " + fields.get(slot) + " can't be null");
+        }
+        if (!quoted[slot]) {
+            if (!NUMBER.matcher(value).matches()) {
+                throw new IllegalArgumentException("Value of field " + fields.get(slot) + " must be a number");
+            }
+            return value.getBytes(StandardCharsets.US_ASCII);
+        }
+        byte[] escaped = JsonStringEncoder.getInstance().quoteAsUTF8(value);
+        byte[] encoded = new byte[escaped.length + 2];
+        encoded[0] = '"';
+        System.arraycopy(escaped, 0, encoded, 1, escaped.length);
+        encoded[encoded.length - 1] = '"';
+        return encoded;
+    }
+
+    private static int indexOf(byte[] data, byte[] target) {
+        outer:
+        for (int i = 0; i <= data.length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (data[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
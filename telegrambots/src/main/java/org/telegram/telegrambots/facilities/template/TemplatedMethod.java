@@ -0,0 +1,63 @@
+package org.telegram.telegrambots.facilities.template;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.io.InputStream;
+import java.io.Serializable;
+
+/**
+ * Method rendered from a {@link MethodTemplate} for a recipient, carrying its already serialized request body.
+ * It is executed like any other method, the sender uses the body as it is.
+ *
+ * @param <T> Result of the method
+ */
+public class TemplatedMethod<T extends Serializable> extends BotApiMethod<T> {
+    @JsonIgnore
+    private final BotApiMethod<T> prototype;
+    @JsonIgnore
+    private final String chatId;
+    @JsonIgnore
+    private final byte[] body;
+
+    TemplatedMethod(BotApiMethod<T> prototype, String chatId, byte[] body) {
+        this.prototype = prototype;
+        this.chatId = chatId;
+        this.body = body;
+    }
+
+    /**
+     * @return Chat id of the recipient
+     */
+    public String getChatId() {
+        return chatId;
+    }
+
+    /**
+     * @return JSON body of the request, must not be modified
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    @Override
+    public String getMethod() {
+        return prototype.getMethod();
+    }
+
+    @Override
+    public T deserializeResponse(String answer) throws TelegramApiRequestException {
+        return prototype.deserializeResponse(answer);
+    }
+
+    @Override
+    public T deserializeResponse(InputStream answer) throws TelegramApiRequestException {
+        return prototype.deserializeResponse(answer);
+    }
+
+    @Override
+    public void validate() {
+        // The prototype was validated when creating the template
+    }
+}
@@ -0,0 +1,212 @@
+package org.telegram.telegrambots.facilities.transport;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.entity.NByteArrayEntity;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.ssl.SSLContexts;
+import org.apache.http.util.EntityUtils;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.facilities.TelegramHttpClientBuilder;
+import org.telegram.telegrambots.facilities.upload.SegmentedOutputStream;
+import org.telegram.telegrambots.facilities.upload.ZeroCopyRequestProducer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking transport based on Apache HttpAsyncClient. Requests are multiplexed over a small set of I/O
+ * threads, so in-flight requests don't hold a thread each.
+ *
+ * Futures returned by {@link #executeAsync(HttpUriRequest)} are completed on the I/O threads,
+ * long running work chained to them should be moved to another executor.
+ *
+ * Bodies that are not already in memory (i.e. multipart uploads) are buffered before sending them, except files and
+ * file channels of uploads, which are transferred from disk to the connection.
+ * Only direct connections and HTTP proxies are supported. Connection pool size, time to live and keep-alive
+ * are taken from the options, idle connections are not evicted in background.
+ */
+public class AsyncHttpClientTransport implements TelegramTransport {
+    private final CloseableHttpAsyncClient httpClient;
+    private final ConnPoolControl<HttpRoute> connectionPool;
+
+    public AsyncHttpClientTransport(DefaultBotOptions options) {
+        this(createConnectionManager(options), options);
+    }
+
+    /**
+     * @param httpClient Client to use, it will be started if it is not running yet
+     */
+    public AsyncHttpClientTransport(CloseableHttpAsyncClient httpClient) {
+        this(httpClient, null);
+    }
+
+    /**
+     * @param httpClient Client to use, it will be started if it is not running yet
+     * @param connectionPool Connection manager of the client, to report its usage. May be null.
+     */
+    public AsyncHttpClientTransport(CloseableHttpAsyncClient httpClient, ConnPoolControl<HttpRoute> connectionPool) {
+        this.httpClient = httpClient;
+        this.connectionPool = connectionPool;
+        if (!httpClient.isRunning()) {
+            httpClient.start();
+        }
+    }
+
+    @Override
+    public String execute(HttpUriRequest request) throws IOException {
+        try {
+            return executeAsync(request).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for response");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> executeAsync(HttpUriRequest request) {
+        CompletableFuture<String> completableFuture = new CompletableFuture<>();
+        HttpAsyncRequestProducer producer;
+        try {
+            producer = bufferEntity(request);
+        } catch (IOException e) {
+            completableFuture.completeExceptionally(e);
+            return completableFuture;
+        }
+
+        FutureCallback<HttpResponse> callback = new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                try {
+                    completableFuture.complete(EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    completableFuture.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                completableFuture.completeExceptionally(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                completableFuture.cancel(false);
+            }
+        };
+        if (producer != null) {
+            httpClient.execute(producer, HttpAsyncMethods.createConsumer(), callback);
+        } else {
+            httpClient.execute(request, callback);
+        }
+        return completableFuture;
+    }
+
+    @Override
+    public PoolStats getPoolStats() {
+        return connectionPool == null ? null : connectionPool.getTotalStats();
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    /**
+     * Buffer the body of a request in memory, except files of multipart uploads
+     * @return Producer transferring the files of the request, null if it is fully buffered
+     */
+    private static HttpAsyncRequestProducer bufferEntity(HttpUriRequest request) throws IOException {
+        if (!(request instanceof HttpEntityEnclosingRequest)) {
+            return null;
+        }
+        HttpEntityEnclosingRequest entityRequest = (HttpEntityEnclosingRequest) request;
+        HttpEntity entity = entityRequest.getEntity();
+        if (entity == null || entity instanceof StringEntity || entity instanceof ByteArrayEntity) {
+            return null;
+        }
+        if (entity instanceof JsonEntity) {
+            // Serialized once, without the intermediate copy of a generic entity
+            entityRequest.setEntity(new NByteArrayEntity(((JsonEntity) entity).toByteArray(), ContentType.APPLICATION_JSON));
+            return null;
+        }
+        SegmentedOutputStream content = new SegmentedOutputStream();
+        entity.writeTo(content);
+        if (content.hasFiles()) {
+            return new ZeroCopyRequestProducer(URIUtils.extractHost(request.getURI()), entityRequest, content, entity.getContentType());
+        }
+        entityRequest.setEntity(new NByteArrayEntity(content.toByteArray(),
+                entity.getContentType() == null ? null : ContentType.parse(entity.getContentType().getValue())));
+        return null;
+    }
+
+    private AsyncHttpClientTransport(PoolingNHttpClientConnectionManager connectionManager, DefaultBotOptions options) {
+        this(createHttpClient(connectionManager, options), connectionManager);
+    }
+
+    private static CloseableHttpAsyncClient createHttpClient(PoolingNHttpClientConnectionManager connectionManager, DefaultBotOptions options) {
+        HttpAsyncClientBuilder httpClientBuilder = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy(TelegramHttpClientBuilder.createKeepAliveStrategy(options));
+        switch (options.getProxyType()) {
+            case NO_PROXY:
+                break;
+            case HTTP:
+                httpClientBuilder.setProxy(new HttpHost(options.getProxyHost(), options.getProxyPort()));
+                break;
+            default:
+                throw new IllegalArgumentException("Proxy type " + options.getProxyType() + " is not supported by the async transport");
+        }
+        return httpClientBuilder.build();
+    }
+
+    private static PoolingNHttpClientConnectionManager createConnectionManager(DefaultBotOptions options) {
+        Registry<SchemeIOSessionStrategy> registry = RegistryBuilder.<SchemeIOSessionStrategy>create()
+                .register("http", NoopIOSessionStrategy.INSTANCE)
+                .register("https", new SSLIOSessionStrategy(SSLContexts.createDefault(), new NoopHostnameVerifier()))
+                .build();
+        try {
+            PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(
+                    new DefaultConnectingIOReactor(), null, registry, null, null,
+                    options.getConnectionTimeToLive(), TimeUnit.MILLISECONDS);
+            connectionManager.setMaxTotal(options.getMaxConnectionsTotal());
+            connectionManager.setDefaultMaxPerRoute(options.getMaxConnectionsPerRoute());
+            return connectionManager;
+        } catch (IOReactorException e) {
+            throw new IllegalStateException("Unable to create I/O reactor", e);
+        }
+    }
+}
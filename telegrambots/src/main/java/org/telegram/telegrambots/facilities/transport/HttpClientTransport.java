@@ -0,0 +1,71 @@
+package org.telegram.telegrambots.facilities.transport;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Default transport, sending requests with a blocking Apache HttpClient.
+ * Async requests occupy a thread of the given executor until their response is received.
+ */
+public class HttpClientTransport implements TelegramTransport {
+    private final CloseableHttpClient httpClient;
+    private final HttpContext httpContext;
+    private final Executor executor;
+    private final ConnPoolControl<HttpRoute> connectionPool;
+
+    public HttpClientTransport(CloseableHttpClient httpClient, HttpContext httpContext, Executor executor) {
+        this(httpClient, null, httpContext, executor);
+    }
+
+    /**
+     * @param connectionPool Connection manager of the client, to report its usage. May be null.
+     */
+    public HttpClientTransport(CloseableHttpClient httpClient, ConnPoolControl<HttpRoute> connectionPool,
+                               HttpContext httpContext, Executor executor) {
+        this.httpClient = httpClient;
+        this.connectionPool = connectionPool;
+        this.httpContext = httpContext;
+        this.executor = executor;
+    }
+
+    @Override
+    public String execute(HttpUriRequest request) throws IOException {
+        try (CloseableHttpResponse response = httpClient.execute(request, httpContext)) {
+            return EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> executeAsync(HttpUriRequest request) {
+        CompletableFuture<String> completableFuture = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                completableFuture.complete(execute(request));
+            } catch (IOException e) {
+                completableFuture.completeExceptionally(e);
+            }
+        });
+        return completableFuture;
+    }
+
+    @Override
+    public PoolStats getPoolStats() {
+        return connectionPool == null ? null : connectionPool.getTotalStats();
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+}
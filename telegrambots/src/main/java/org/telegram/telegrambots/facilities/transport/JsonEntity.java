@@ -0,0 +1,74 @@
+package org.telegram.telegrambots.facilities.transport;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.telegram.telegrambots.meta.serialization.TelegramJsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Request body serializing a value to JSON straight into the connection when the request is sent.
+ *
+ * Unlike a {@link org.apache.http.entity.StringEntity} built from the serialized value, the JSON is never held as a
+ * String nor as a full byte array: Jackson encodes it in its recycled buffers and flushes them to the socket. The
+ * length is not known in advance, so the body is sent chunked. The entity is repeatable, every write serializes the
+ * value again, so it must not be modified while the request may be sent.
+ */
+public class JsonEntity extends AbstractHttpEntity {
+    private final Object value;
+    private final TelegramJsonMapper jsonMapper;
+
+    /**
+     * @param value Value to send
+     * @param jsonMapper Mapper used to serialize the value
+     */
+    public JsonEntity(Object value, TelegramJsonMapper jsonMapper) {
+        this.value = value;
+        this.jsonMapper = jsonMapper;
+        setContentType(ContentType.APPLICATION_JSON.toString());
+        setChunked(true);
+    }
+
+    /**
+     * @return Value sent in the body
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * Serialize the body at once, for clients that need it in memory
+     * @return JSON of the value, encoded as UTF-8
+     */
+    public byte[] toByteArray() throws IOException {
+        return jsonMapper.writeValueAsBytes(value);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        return new ByteArrayInputStream(toByteArray());
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        jsonMapper.writeValue(outputStream, value);
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
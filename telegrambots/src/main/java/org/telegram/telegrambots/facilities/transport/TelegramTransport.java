@@ -0,0 +1,38 @@
+package org.telegram.telegrambots.facilities.transport;
+
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.pool.PoolStats;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transport used by {@link org.telegram.telegrambots.bots.DefaultAbsSender} to send requests to Telegram servers.
+ *
+ * Implementations must be thread safe, a single transport can be shared by several bots.
+ */
+public interface TelegramTransport extends Closeable {
+    /**
+     * Send a request, blocking until its response is received
+     * @param request Request to send
+     * @return Body of the response
+     * @throws IOException If the request could not be sent or the response could not be read
+     */
+    String execute(HttpUriRequest request) throws IOException;
+
+    /**
+     * Send a request without blocking the caller
+     * @param request Request to send
+     * @return Future completed with the body of the response, or exceptionally with the cause of the failure
+     */
+    CompletableFuture<String> executeAsync(HttpUriRequest request);
+
+    /**
+     * @return Current usage of the connection pool (leased, pending and available connections),
+     * null if the transport does not use a pool
+     */
+    default PoolStats getPoolStats() {
+        return null;
+    }
+}
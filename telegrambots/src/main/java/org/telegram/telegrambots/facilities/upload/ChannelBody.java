@@ -0,0 +1,153 @@
+package org.telegram.telegrambots.facilities.upload;
+
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.MIME;
+import org.apache.http.entity.mime.content.AbstractContentBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Multipart body read from a file or channel.
+ *
+ * Its size is known for files and {@link FileChannel}s, so multipart requests made only of them and text fields are
+ * sent with a Content-Length instead of chunked encoding. With the blocking transport content is copied through a
+ * single buffer of 64 KB; the async transport transfers files straight from the file channel to the connection
+ * (see {@link ZeroCopyRequestProducer}).
+ *
+ * Bodies from a file can be sent again, bodies from a channel only once, closing the channel after sending it.
+ */
+public class ChannelBody extends AbstractContentBody {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final ReadableByteChannel channel;
+    private final long position;
+    private final long size;
+    private final String filename;
+    private final UploadMeter meter;
+
+    /**
+     * @param path File to send
+     * @param contentType Content type of the file
+     * @param filename Name of the file
+     * @param meter Meter recording the upload, may be null
+     */
+    public ChannelBody(Path path, ContentType contentType, String filename, UploadMeter meter) {
+        super(contentType);
+        this.path = path;
+        this.channel = null;
+        this.position = 0;
+        this.size = path.toFile().length();
+        this.filename = filename;
+        this.meter = meter;
+    }
+
+    /**
+     * @param channel Channel to send from its current position
+     * @param size Bytes to send, -1 to send until the end of the channel or, for a {@link FileChannel}, its size
+     * @param contentType Content type of the file
+     * @param filename Name of the file
+     * @param meter Meter recording the upload, may be null
+     */
+    public ChannelBody(ReadableByteChannel channel, long size, ContentType contentType, String filename, UploadMeter meter) throws IOException {
+        super(contentType);
+        this.path = null;
+        this.channel = channel;
+        if (channel instanceof FileChannel) {
+            FileChannel fileChannel = (FileChannel) channel;
+            this.position = fileChannel.position();
+            this.size = size < 0 ? fileChannel.size() - position : size;
+        } else {
+            this.position = -1;
+            this.size = size;
+        }
+        this.filename = filename;
+        this.meter = meter;
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public String getTransferEncoding() {
+        return MIME.ENC_BINARY;
+    }
+
+    @Override
+    public long getContentLength() {
+        return size;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        if (out instanceof SegmentedOutputStream && isFile()) {
+            ((SegmentedOutputStream) out).addFile(this);
+            return;
+        }
+        long start = System.nanoTime();
+        long written = 0;
+        try (ReadableByteChannel source = path != null ? FileChannel.open(path, StandardOpenOption.READ) : channel) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (size < 0 || written < size) {
+                if (size >= 0) {
+                    buffer.limit((int) Math.min(BUFFER_SIZE, size - written));
+                }
+                int read = source.read(buffer);
+                if (read == -1) {
+                    if (size >= 0) {
+                        // The Content-Length already promised size bytes
+                        throw new IOException("File " + filename + " is shorter than " + size + " bytes");
+                    }
+                    break;
+                }
+                out.write(buffer.array(), 0, buffer.position());
+                written += read;
+                buffer.clear();
+            }
+        }
+        out.flush();
+        record(written, System.nanoTime() - start);
+    }
+
+    /**
+     * @return True if the content can be transferred from a file channel
+     */
+    boolean isFile() {
+        return path != null || channel instanceof FileChannel;
+    }
+
+    /**
+     * @return File channel of the content, to close after sending it
+     */
+    FileChannel openFile() throws IOException {
+        return path != null ? FileChannel.open(path, StandardOpenOption.READ) : (FileChannel) channel;
+    }
+
+    /**
+     * @return Position of the content in the file channel
+     */
+    long getPosition() {
+        return path != null ? 0 : position;
+    }
+
+    /**
+     * @return True if it can be sent again
+     */
+    boolean isRepeatable() {
+        return path != null;
+    }
+
+    void record(long bytes, long nanos) {
+        if (meter != null) {
+            meter.record(bytes, nanos);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.telegram.telegrambots.facilities.upload;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects a request body as segments of bytes in memory and files to transfer, so files are not copied to memory
+ */
+public class SegmentedOutputStream extends OutputStream {
+    private final List<Object> segments = new ArrayList<>();
+    private ByteArrayOutputStream current = new ByteArrayOutputStream();
+    private boolean hasFiles;
+
+    @Override
+    public void write(int b) {
+        current.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        current.write(b, off, len);
+    }
+
+    /**
+     * @return True if any file was added
+     */
+    public boolean hasFiles() {
+        return hasFiles;
+    }
+
+    /**
+     * @return Content of the body, only valid if no file was added
+     */
+    public byte[] toByteArray() {
+        return current.toByteArray();
+    }
+
+    /**
+     * @return Segments of the body, either byte arrays or {@link ChannelBody} files
+     */
+    List<Object> getSegments() {
+        flushBytes();
+        return segments;
+    }
+
+    void addFile(ChannelBody file) {
+        flushBytes();
+        segments.add(file);
+        hasFiles = true;
+    }
+
+    private void flushBytes() {
+        if (current.size() > 0) {
+            segments.add(current.toByteArray());
+            current = new ByteArrayOutputStream();
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package org.telegram.telegrambots.facilities.upload;
+
+import org.telegram.telegrambots.meta.api.objects.InputFile;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.PhotoSize;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the file_id Telegram gives to uploaded files by the SHA-256 of their content, so sending the same content
+ * again references the file_id instead of uploading it again.
+ *
+ * Only the main media of SendDocument, SendPhoto, SendVideo, SendVideoNote, SendSticker, SendAudio, SendVoice and
+ * SendAnimation is cached, keyed by the method too, as a file_id only works for the same kind of media. Streams are
+ * read into memory to hash them, channels are not cached. Files are only hashed again if their size or modification
+ * time changes.
+ *
+ * Up to a max number of file_ids are kept, evicting the least recently used ones. When backed by a file, new file_ids
+ * are appended to it and the file is rewritten with the current entries once it has grown to twice the max.
+ */
+public class UploadCache implements Closeable {
+    private static final char SEPARATOR = ' ';
+
+    private final int maxEntries;
+    private final Path file;
+    /** Guarded by this */
+    private final LinkedHashMap<String, String> fileIds;
+    /** Guarded by this */
+    private final LinkedHashMap<String, FileDigest> fileDigests;
+    /** Guarded by this, null if not backed by a file */
+    private Writer writer;
+    /** Guarded by this */
+    private int writtenEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Cache kept only in memory
+     * @param maxEntries Max number of file_ids kept
+     */
+    public UploadCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("MaxEntries must be greater than 0");
+        }
+        this.maxEntries = maxEntries;
+        this.file = null;
+        this.fileIds = createLruMap(maxEntries);
+        this.fileDigests = createLruMap(maxEntries);
+    }
+
+    /**
+     * Cache backed by a file, loading the file_ids already in it
+     * @param file File keeping the file_ids, created if it doesn't exist
+     * @param maxEntries Max number of file_ids kept
+     */
+    public UploadCache(Path file, int maxEntries) throws IOException {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("MaxEntries must be greater than 0");
+        }
+        this.maxEntries = maxEntries;
+        this.file = file;
+        this.fileIds = createLruMap(maxEntries);
+        this.fileDigests = createLruMap(maxEntries);
+        if (Files.exists(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int separator = line.indexOf(SEPARATOR);
+                    if (separator > 0) {
+                        String fileId = line.substring(separator + 1);
+                        if (fileId.isEmpty()) {
+                            fileIds.remove(line.substring(0, separator));
+                        } else {
+                            fileIds.put(line.substring(0, separator), fileId);
+                        }
+                        writtenEntries++;
+                    }
+                }
+            }
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Key of the content of a file to upload. A stream is read completely and replaced with the content read.
+     * @param method Method uploading the file
+     * @param inputFile File to upload
+     * @return Key of the content, null if the file is not new
+     */
+    public String getKey(String method, InputFile inputFile) throws IOException {
+        if (!inputFile.isNew()) {
+            return null;
+        }
+        if (inputFile.getNewMediaFile() != null) {
+            return method + ":" + digest(inputFile.getNewMediaFile());
+        }
+        if (inputFile.getNewMediaStream() != null) {
+            byte[] content = readFully(inputFile.getNewMediaStream());
+            inputFile.setMedia(new ByteArrayInputStream(content), inputFile.getMediaName());
+            return method + ":" + toHex(createDigest().digest(content));
+        }
+        return null;
+    }
+
+    /**
+     * @param key Key of the content
+     * @return File_id of the content uploaded before, null if not known
+     */
+    public String getFileId(String key) {
+        String fileId;
+        synchronized (this) {
+            fileId = fileIds.get(key);
+        }
+        if (fileId == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return fileId;
+    }
+
+    /**
+     * Remember the file_id of an uploaded content
+     * @param key Key of the content
+     * @param fileId File_id given by Telegram
+     */
+    public synchronized void put(String key, String fileId) throws IOException {
+        if (!fileId.equals(fileIds.put(key, fileId))) {
+            append(key, fileId);
+        }
+    }
+
+    /**
+     * Remember the file_id of the media of a message sent uploading a content
+     * @param key Key of the content, ignored if null
+     * @param message Message sent
+     */
+    public void put(String key, Message message) throws IOException {
+        String fileId = key == null ? null : getFileId(message);
+        if (fileId != null) {
+            put(key, fileId);
+        }
+    }
+
+    /**
+     * Forget the file_id of a content, i.e. because Telegram doesn't accept it any more
+     * @param key Key of the content
+     */
+    public synchronized void invalidate(String key) throws IOException {
+        if (fileIds.remove(key) != null) {
+            append(key, "");
+        }
+    }
+
+    /**
+     * @return Number of sends that used a file_id instead of uploading the file
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Number of sends that uploaded the file
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return Number of file_ids kept
+     */
+    public synchronized int getSize() {
+        return fileIds.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    /**
+     * File_id of the media of a message
+     * @param message Message sent
+     * @return File_id of the media, the biggest size for photos, null if the message has no media
+     */
+    protected String getFileId(Message message) {
+        if (message.hasPhoto()) {
+            List<PhotoSize> photo = message.getPhoto();
+            return photo.get(photo.size() - 1).getFileId();
+        } else if (message.hasDocument()) {
+            return message.getDocument().getFileId();
+        } else if (message.hasVideo()) {
+            return message.getVideo().getFileId();
+        } else if (message.hasVideoNote()) {
+            return message.getVideoNote().getFileId();
+        } else if (message.hasSticker()) {
+            return message.getSticker().getFileId();
+        } else if (message.hasAudio()) {
+            return message.getAudio().getFileId();
+        } else if (message.hasVoice()) {
+            return message.getVoice().getFileId();
+        } else if (message.hasAnimation()) {
+            return message.getAnimation().getFileId();
+        }
+        return null;
+    }
+
+    /**
+     * Append an entry to the file, an empty file_id removes the entry
+     */
+    private void append(String key, String fileId) throws IOException {
+        if (writer == null) {
+            return;
+        }
+        writer.write(key);
+        writer.write(SEPARATOR);
+        writer.write(fileId);
+        writer.write('\n');
+        writer.flush();
+        if (++writtenEntries >= maxEntries * 2) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrite the file with the current entries, replacing it atomically
+     */
+    private void compact() throws IOException {
+        writer.close();
+        writer = null;
+        Path compacted = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, String> entry : fileIds.entrySet()) {
+                out.write(entry.getKey());
+                out.write(SEPARATOR);
+                out.write(entry.getValue());
+                out.write('\n');
+            }
+        }
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        writtenEntries = fileIds.size();
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private String digest(File mediaFile) throws IOException {
+        String path = mediaFile.getAbsolutePath();
+        long length = mediaFile.length();
+        long lastModified = mediaFile.lastModified();
+        synchronized (this) {
+            FileDigest cached = fileDigests.get(path);
+            if (cached != null && cached.length == length && cached.lastModified == lastModified) {
+                return cached.digest;
+            }
+        }
+        MessageDigest digest = createDigest();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(mediaFile.toPath())) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        String hex = toHex(digest.digest());
+        synchronized (this) {
+            fileDigests.put(path, new FileDigest(length, lastModified, hex));
+        }
+        return hex;
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static <V> LinkedHashMap<String, V> createLruMap(int maxEntries) {
+        return new LinkedHashMap<String, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    private static final class FileDigest {
+        private final long length;
+        private final long lastModified;
+        private final String digest;
+
+        private FileDigest(long length, long lastModified, String digest) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.digest = digest;
+        }
+    }
+}
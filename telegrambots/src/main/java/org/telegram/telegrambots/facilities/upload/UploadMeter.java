@@ -0,0 +1,53 @@
+package org.telegram.telegrambots.facilities.upload;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput of the files and channels uploaded by a bot, measured while their content is written to the connection
+ */
+public class UploadMeter {
+    private final LongAdder uploads = new LongAdder();
+    private final LongAdder uploadedBytes = new LongAdder();
+    private final LongAdder uploadNanos = new LongAdder();
+
+    /**
+     * Record an upload
+     * @param bytes Bytes uploaded
+     * @param nanos Time taken to upload them
+     */
+    public void record(long bytes, long nanos) {
+        uploads.increment();
+        uploadedBytes.add(bytes);
+        uploadNanos.add(nanos);
+    }
+
+    /**
+     * @return Number of files uploaded
+     */
+    public long getUploads() {
+        return uploads.sum();
+    }
+
+    /**
+     * @return Bytes of the files uploaded
+     */
+    public long getUploadedBytes() {
+        return uploadedBytes.sum();
+    }
+
+    /**
+     * @return Time spent uploading files, in millis
+     */
+    public long getUploadMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(uploadNanos.sum());
+    }
+
+    /**
+     * @return Average upload throughput, in bytes per second. 0 if nothing was uploaded.
+     */
+    public long getBytesPerSecond() {
+        long nanos = uploadNanos.sum();
+        return nanos == 0 ? 0 : (long) (uploadedBytes.sum() * (double) TimeUnit.SECONDS.toNanos(1) / nanos);
+    }
+}
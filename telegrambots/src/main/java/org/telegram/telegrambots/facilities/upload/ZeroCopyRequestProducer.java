@@ -0,0 +1,172 @@
+package org.telegram.telegrambots.facilities.upload;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.FileContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * Async request producer sending a body made of segments of bytes in memory and files. Files are transferred with
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)} when the connection allows it, this
+ * is for bodies with a Content-Length over plain connections, and copied through a buffer otherwise.
+ */
+public class ZeroCopyRequestProducer implements HttpAsyncRequestProducer {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final HttpHost target;
+    private final HttpEntityEnclosingRequest request;
+    private final List<Object> segments;
+    private final boolean repeatable;
+
+    private int index;
+    private ByteBuffer bytes;
+    private FileChannel fileChannel;
+    private ByteBuffer copyBuffer;
+    private long transferred;
+    private long fileStart;
+
+    /**
+     * @param target Host to send the request to
+     * @param request Request to send, its entity is replaced with the size and type of the body
+     * @param body Body collected from the entity of the request
+     * @param contentType Content type of the body, may be null
+     */
+    public ZeroCopyRequestProducer(HttpHost target, HttpEntityEnclosingRequest request, SegmentedOutputStream body, Header contentType) {
+        this.target = target;
+        this.request = request;
+        this.segments = body.getSegments();
+        long length = 0;
+        boolean repeatable = true;
+        for (Object segment : segments) {
+            if (segment instanceof byte[]) {
+                length += ((byte[]) segment).length;
+            } else {
+                length += ((ChannelBody) segment).getContentLength();
+                repeatable &= ((ChannelBody) segment).isRepeatable();
+            }
+        }
+        this.repeatable = repeatable;
+        BasicHttpEntity entity = new BasicHttpEntity();
+        entity.setContentLength(length);
+        entity.setContentType(contentType);
+        request.setEntity(entity);
+    }
+
+    @Override
+    public HttpHost getTarget() {
+        return target;
+    }
+
+    @Override
+    public HttpRequest generateRequest() {
+        return request;
+    }
+
+    @Override
+    public void produceContent(ContentEncoder encoder, IOControl ioControl) throws IOException {
+        while (index < segments.size()) {
+            Object segment = segments.get(index);
+            if (segment instanceof byte[]) {
+                if (bytes == null) {
+                    bytes = ByteBuffer.wrap((byte[]) segment);
+                }
+                encoder.write(bytes);
+                if (bytes.hasRemaining()) {
+                    return;
+                }
+                bytes = null;
+            } else if (!produceFile((ChannelBody) segment, encoder)) {
+                return;
+            }
+            index++;
+        }
+        encoder.complete();
+    }
+
+    @Override
+    public void requestCompleted(HttpContext context) {
+    }
+
+    @Override
+    public void failed(Exception ex) {
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return repeatable;
+    }
+
+    @Override
+    public void resetRequest() throws IOException {
+        index = 0;
+        bytes = null;
+        closeFile();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeFile();
+    }
+
+    /**
+     * Send as much of a file as the connection takes
+     * @return True if the whole file was sent
+     */
+    private boolean produceFile(ChannelBody file, ContentEncoder encoder) throws IOException {
+        long size = file.getContentLength();
+        if (fileChannel == null) {
+            fileChannel = file.openFile();
+            if (fileChannel.size() < file.getPosition() + size) {
+                throw new IOException("File " + file.getFilename() + " is shorter than " + size + " bytes");
+            }
+            transferred = 0;
+            fileStart = System.nanoTime();
+        }
+        while (transferred < size) {
+            long count;
+            if (encoder instanceof FileContentEncoder) {
+                count = ((FileContentEncoder) encoder).transfer(fileChannel, file.getPosition() + transferred, size - transferred);
+            } else {
+                if (copyBuffer == null) {
+                    copyBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+                    copyBuffer.flip();
+                }
+                if (!copyBuffer.hasRemaining()) {
+                    // Everything read before was written, continue reading after it
+                    copyBuffer.clear();
+                    copyBuffer.limit((int) Math.min(BUFFER_SIZE, size - transferred));
+                    fileChannel.read(copyBuffer, file.getPosition() + transferred);
+                    copyBuffer.flip();
+                }
+                count = encoder.write(copyBuffer);
+            }
+            if (count <= 0) {
+                return false;
+            }
+            transferred += count;
+        }
+        file.record(size, System.nanoTime() - fileStart);
+        closeFile();
+        return true;
+    }
+
+    private void closeFile() throws IOException {
+        copyBuffer = null;
+        if (fileChannel != null) {
+            FileChannel closing = fileChannel;
+            fileChannel = null;
+            closing.close();
+        }
+    }
+}
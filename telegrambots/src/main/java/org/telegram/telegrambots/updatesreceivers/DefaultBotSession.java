@@ -1,6 +1,5 @@
 package org.telegram.telegrambots.updatesreceivers;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
@@ -12,6 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.telegram.telegrambots.bots.DefaultBotOptions;
 import org.telegram.telegrambots.facilities.TelegramHttpClientBuilder;
+import org.telegram.telegrambots.facilities.cache.BotApiCache;
 import org.telegram.telegrambots.meta.api.methods.updates.GetUpdates;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
@@ -24,12 +24,9 @@ import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidParameterException;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.telegram.telegrambots.Constants.SOCKET_TIMEOUT;
@@ -44,16 +41,17 @@ public class DefaultBotSession implements BotSession {
 
     private AtomicBoolean running = new AtomicBoolean(false);
 
-    private final ConcurrentLinkedDeque<Update> receivedUpdates = new ConcurrentLinkedDeque<>();
-    private final ObjectMapper objectMapper = new ObjectMapper();
 
     private ReaderThread readerThread;
     private HandlerThread handlerThread;
+    private volatile OrderedUpdatesDispatcher dispatcher;
     private LongPollingBot callback;
     private String token;
     private int lastReceivedUpdate = 0;
     private DefaultBotOptions options;
     private UpdatesSupplier updatesSupplier;
+    private UpdatesBuffer receivedUpdates;
+    private DuplicateUpdatesFilter duplicateUpdatesFilter;
 
     public DefaultBotSession() {
     }
@@ -67,11 +65,18 @@ public class DefaultBotSession implements BotSession {
         running.set(true);
 
         lastReceivedUpdate = 0;
+        receivedUpdates.clear();
 
         readerThread = new ReaderThread(updatesSupplier, this);
         readerThread.setName(callback.getBotUsername() + " Telegram Connection");
         readerThread.start();
 
+        if (options.getUpdatesDispatchThreads() > 0) {
+            dispatcher = new OrderedUpdatesDispatcher(callback.getBotUsername() + " Telegram Dispatcher",
+                    options.getUpdatesDispatchThreads(), options.getUpdatesDispatchQueueSize(), callback::onUpdatesReceived);
+            dispatcher.start();
+        }
+
         handlerThread = new HandlerThread();
         handlerThread.setName(callback.getBotUsername() + " Telegram Executor");
         handlerThread.start();
@@ -93,6 +98,10 @@ public class DefaultBotSession implements BotSession {
             handlerThread.interrupt();
         }
 
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+
         if (callback != null) {
             callback.onClosing();
         }
@@ -108,6 +117,10 @@ public class DefaultBotSession implements BotSession {
             throw new InvalidParameterException("BotOptions has already been set");
         }
         this.options = (DefaultBotOptions) options;
+        this.receivedUpdates = new UpdatesBuffer(this.options.getUpdatesBufferSize());
+        if (this.options.getDuplicateUpdatesWindow() > 0) {
+            this.duplicateUpdatesFilter = new DuplicateUpdatesFilter(this.options.getDuplicateUpdatesWindow());
+        }
     }
 
     @Override
@@ -182,6 +195,18 @@ public class DefaultBotSession implements BotSession {
         public void run() {
             setPriority(Thread.MIN_PRIORITY);
             while (running.get()) {
+                if (options.isPipelinedPolling()) {
+                    readPipelined();
+                    continue;
+                }
+                try {
+                    // Parked outside the session monitor, stop() must not wait for the buffer to drain
+                    receivedUpdates.awaitCapacity();
+                } catch (InterruptedException e) {
+                    log.debug(e.getLocalizedMessage(), e);
+                    interrupt();
+                    continue;
+                }
                 synchronized (lock) {
                     if (running.get()) {
                         try {
@@ -189,22 +214,9 @@ public class DefaultBotSession implements BotSession {
                             if (updates.isEmpty()) {
                                 lock.wait(500);
                             } else {
-                                updates.removeIf(x -> x.getUpdateId() < lastReceivedUpdate);
-                                lastReceivedUpdate = updates.parallelStream()
-                                        .map(
-                                                Update::getUpdateId)
-                                        .max(Integer::compareTo)
-                                        .orElse(0);
-                                receivedUpdates.addAll(updates);
-
-                                synchronized (receivedUpdates) {
-                                    receivedUpdates.notifyAll();
-                                }
+                                handOff(updates);
                             }
                         } catch (InterruptedException e) {
-                            if (!running.get()) {
-                                receivedUpdates.clear();
-                            }
                             log.debug(e.getLocalizedMessage(), e);
                             interrupt();
                         } catch (Exception global) {
@@ -214,9 +226,6 @@ public class DefaultBotSession implements BotSession {
                                     lock.wait(backOff.nextBackOffMillis());
                                 }
                             } catch (InterruptedException e) {
-                                if (!running.get()) {
-                                    receivedUpdates.clear();
-                                }
                                 log.debug(e.getLocalizedMessage(), e);
                                 interrupt();
                             }
@@ -227,10 +236,48 @@ public class DefaultBotSession implements BotSession {
             log.debug("Reader thread has being closed");
         }
 
+        /**
+         * Pipelined variant of the reading loop. No session lock is held during the request and empty batches
+         * don't trigger any wait, so the next getUpdates is issued as soon as the current batch has been handed
+         * off to the handler thread. Only failures wait, following the configured {@link BackOff}.
+         */
+        private void readPipelined() {
+            try {
+                receivedUpdates.awaitCapacity();
+                List<Update> updates = updatesSupplier.getUpdates();
+                if (!updates.isEmpty()) {
+                    handOff(updates);
+                }
+            } catch (InterruptedException e) {
+                log.debug(e.getLocalizedMessage(), e);
+                interrupt();
+            } catch (Exception global) {
+                log.error(global.getLocalizedMessage(), global);
+                try {
+                    Thread.sleep(backOff.nextBackOffMillis());
+                } catch (InterruptedException e) {
+                    log.debug(e.getLocalizedMessage(), e);
+                    interrupt();
+                }
+            }
+        }
+
+        /**
+         * Passes the received updates to the handler and acknowledges the ones accepted by the buffer, so the next
+         * request starts after them. Updates that didn't fit in the buffer will be received again.
+         */
+        private void handOff(List<Update> updates) {
+            updates.removeIf(x -> x.getUpdateId() < lastReceivedUpdate);
+            int accepted = receivedUpdates.offer(updates);
+            for (int i = 0; i < accepted; i++) {
+                lastReceivedUpdate = Math.max(lastReceivedUpdate, updates.get(i).getUpdateId());
+            }
+        }
+
         private List<Update> getUpdatesFromServer() throws IOException {
             GetUpdates request = GetUpdates
                     .builder()
-                    .limit(options.getGetUpdatesLimit())
+                    .limit(Math.min(options.getGetUpdatesLimit(), receivedUpdates.remainingCapacity()))
                     .timeout(options.getGetUpdatesTimeout())
                     .offset(lastReceivedUpdate + 1)
                     .build();
@@ -244,23 +291,35 @@ public class DefaultBotSession implements BotSession {
             HttpPost httpPost = new HttpPost(url);
             httpPost.addHeader("charset", StandardCharsets.UTF_8.name());
             httpPost.setConfig(requestConfig);
-            httpPost.setEntity(new StringEntity(objectMapper.writeValueAsString(request), ContentType.APPLICATION_JSON));
+            httpPost.setEntity(new StringEntity(options.getJsonMapper().writeValueAsString(request), ContentType.APPLICATION_JSON));
 
             try (CloseableHttpResponse response = httpclient.execute(httpPost, options.getHttpContext())) {
-                String responseContent = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
-
                 if (response.getStatusLine().getStatusCode() >= 500) {
-                    log.warn(responseContent);
-                    synchronized (lock) {
-                        lock.wait(500);
+                    log.warn(EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8));
+                    if (options.isPipelinedPolling()) {
+                        Thread.sleep(backOff.nextBackOffMillis());
+                    } else {
+                        synchronized (lock) {
+                            lock.wait(500);
+                        }
                     }
                 } else {
-                    List<Update> updates = request.deserializeResponse(responseContent);
+                    // Parsed straight from the connection, large batches are never held in memory as text
+                    List<Update> updates = request.deserializeResponse(response.getEntity().getContent());
                     backOff.reset();
                     return updates;
                 }
             } catch (SocketException | InvalidObjectException | TelegramApiRequestException e) {
                 log.error(e.getLocalizedMessage(), e);
+                if (options.isPipelinedPolling()) {
+                    // Nothing else waits before the next request, a bad token or a conflict would loop at full speed
+                    try {
+                        Thread.sleep(backOff.nextBackOffMillis());
+                    } catch (InterruptedException interrupted) {
+                        log.debug(interrupted.getLocalizedMessage(), interrupted);
+                        interrupt();
+                    }
+                }
             } catch (SocketTimeoutException e) {
                 log.info(e.getLocalizedMessage(), e);
             } catch (InterruptedException e) {
@@ -284,13 +343,18 @@ public class DefaultBotSession implements BotSession {
         List<Update> getUpdates() throws Exception;
     }
 
-    private List<Update> getUpdateList() {
-        List<Update> updates = new ArrayList<>();
-        for (Iterator<Update> it = receivedUpdates.iterator(); it.hasNext();) {
-            updates.add(it.next());
-            it.remove();
-        }
-        return updates;
+    /**
+     * @return Buffer of updates received and waiting to be handled, to monitor its depth and wait times
+     */
+    public UpdatesBuffer getUpdatesBuffer() {
+        return receivedUpdates;
+    }
+
+    /**
+     * @return Filter dropping duplicated updates, with the count of suppressed ones. Null if not enabled in the options.
+     */
+    public DuplicateUpdatesFilter getDuplicateUpdatesFilter() {
+        return duplicateUpdatesFilter;
     }
 
     private class HandlerThread extends Thread implements UpdatesHandler {
@@ -299,17 +363,32 @@ public class DefaultBotSession implements BotSession {
             setPriority(Thread.MIN_PRIORITY);
             while (running.get()) {
                 try {
-                    List<Update> updates = getUpdateList();
+                    receivedUpdates.awaitUpdates();
+                    List<Update> updates = receivedUpdates.drain();
+                    if (duplicateUpdatesFilter != null && !updates.isEmpty()) {
+                        updates.removeIf(update -> duplicateUpdatesFilter.isDuplicate(update.getUpdateId()));
+                    }
                     if (updates.isEmpty()) {
-                        synchronized (receivedUpdates) {
-                            receivedUpdates.wait();
-                            updates = getUpdateList();
-                            if (updates.isEmpty()) {
-                                continue;
+                        continue;
+                    }
+                    try {
+                        for (Update update : updates) {
+                            BotApiCache.onUpdate(callback, update);
+                        }
+                        if (dispatcher != null) {
+                            for (Update update : updates) {
+                                dispatcher.dispatch(update);
                             }
+                        } else {
+                            callback.onUpdatesReceived(updates);
+                        }
+                    } catch (Exception e) {
+                        if (duplicateUpdatesFilter != null) {
+                            // Not handled, must not be dropped if received again
+                            updates.forEach(update -> duplicateUpdatesFilter.forget(update.getUpdateId()));
                         }
+                        throw e;
                     }
-                    callback.onUpdatesReceived(updates);
                 } catch (InterruptedException e) {
                     log.debug(e.getLocalizedMessage(), e);
                     interrupt();
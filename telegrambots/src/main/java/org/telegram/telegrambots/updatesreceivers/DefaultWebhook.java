@@ -1,15 +1,21 @@
 package org.telegram.telegrambots.updatesreceivers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
 import org.glassfish.grizzly.ssl.SSLContextConfigurator;
 import org.glassfish.grizzly.ssl.SSLEngineConfigurator;
+import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
 import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
 import org.glassfish.jersey.jackson.JacksonFeature;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.meta.generics.Webhook;
 import org.telegram.telegrambots.meta.generics.WebhookBot;
+import org.telegram.telegrambots.meta.serialization.TelegramJsonMapper;
 
+import javax.ws.rs.ext.ContextResolver;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
@@ -23,6 +29,8 @@ public class DefaultWebhook implements Webhook {
     private String keystoreServerFile;
     private String keystoreServerPwd;
     private String internalUrl;
+    private int selectorThreads;
+    private int workerThreads;
 
     private final RestApi restApi;
 
@@ -40,6 +48,37 @@ public class DefaultWebhook implements Webhook {
         validateServerKeystoreFile(keyStore);
     }
 
+    /**
+     * @param selectorThreads Number of threads accepting connections and reading requests, 0 for Grizzly default
+     *                        (one per processor)
+     */
+    public void setSelectorThreads(int selectorThreads) {
+        this.selectorThreads = selectorThreads;
+    }
+
+    /**
+     * @param workerThreads Number of threads processing requests, 0 for Grizzly default
+     */
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    /**
+     * Acknowledge updates immediately and handle them in background, see {@link RestApi#setAsyncUpdates(int, int, boolean)}.
+     * Must be called before registering the bots.
+     */
+    public void setAsyncUpdates(int threads, int queueSize, boolean orderedByChat) {
+        restApi.setAsyncUpdates(threads, queueSize, orderedByChat);
+    }
+
+    /**
+     * Drop updates received more than once, see {@link RestApi#setDuplicateUpdatesWindow(int)}.
+     * Must be called before registering the bots.
+     */
+    public void setDuplicateUpdatesWindow(int window) {
+        restApi.setDuplicateUpdatesWindow(window);
+    }
+
     public void registerWebhook(WebhookBot callback) {
         restApi.registerCallback(callback);
     }
@@ -48,6 +87,12 @@ public class DefaultWebhook implements Webhook {
         ResourceConfig rc = new ResourceConfig();
         rc.register(restApi);
         rc.register(JacksonFeature.class);
+        rc.register(new ContextResolver<ObjectMapper>() {
+            @Override
+            public ObjectMapper getContext(Class<?> type) {
+                return TelegramJsonMapper.getDefault().getObjectMapper();
+            }
+        });
         rc.register(DefaultExceptionMapper.class);
 
         final HttpServer grizzlyServer;
@@ -59,10 +104,11 @@ public class DefaultWebhook implements Webhook {
             sslContext.setKeyStorePass(keystoreServerPwd);
 
             grizzlyServer = GrizzlyHttpServerFactory.createHttpServer(getBaseURI(), rc, true,
-                    new SSLEngineConfigurator(sslContext).setClientMode(false).setNeedClientAuth(false));
+                    new SSLEngineConfigurator(sslContext).setClientMode(false).setNeedClientAuth(false), false);
         } else {
-            grizzlyServer = GrizzlyHttpServerFactory.createHttpServer(getBaseURI(), rc);
+            grizzlyServer = GrizzlyHttpServerFactory.createHttpServer(getBaseURI(), rc, false);
         }
+        configureTransport(grizzlyServer);
 
         try {
             grizzlyServer.start();
@@ -71,6 +117,20 @@ public class DefaultWebhook implements Webhook {
         }
     }
 
+    private void configureTransport(HttpServer grizzlyServer) {
+        for (NetworkListener listener : grizzlyServer.getListeners()) {
+            TCPNIOTransport transport = listener.getTransport();
+            if (selectorThreads > 0) {
+                transport.setSelectorRunnersCount(selectorThreads);
+            }
+            if (workerThreads > 0) {
+                transport.setWorkerThreadPoolConfig(ThreadPoolConfig.defaultConfig()
+                        .setCorePoolSize(workerThreads)
+                        .setMaxPoolSize(workerThreads));
+            }
+        }
+    }
+
     private URI getBaseURI() {
         return URI.create(internalUrl);
     }
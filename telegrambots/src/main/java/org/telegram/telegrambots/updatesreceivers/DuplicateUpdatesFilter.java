@@ -0,0 +1,112 @@
+package org.telegram.telegrambots.updatesreceivers;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detects updates delivered more than once, i.e. webhook updates redelivered by Telegram after a timeout.
+ *
+ * Remembers which of the last {@code window} update ids (counting back from the highest id seen) were already
+ * received, using a ring of bits. Checking an update costs a few bit operations and allocates nothing.
+ * Ids older than the window can't be checked and are let through without touching the window, so a late
+ * redelivery doesn't make the filter forget the recent ids. Telegram assigns update ids in increasing order, but
+ * starts over from a random id after a week without updates, so lower ids after that are not filtered until they
+ * reach the window again.
+ *
+ * An update is registered as received when checked, receivers that fail to accept it afterwards must
+ * {@link #forget(int)} it so a redelivery is not dropped.
+ */
+public class DuplicateUpdatesFilter {
+    private final long[] bits;
+    private final int window;
+    private final LongAdder suppressedUpdates = new LongAdder();
+    private long highestId = -1;
+
+    /**
+     * @param window Number of update ids to remember, rounded up to a multiple of 64
+     */
+    public DuplicateUpdatesFilter(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be greater than 0");
+        }
+        this.bits = new long[(window + 63) / 64];
+        this.window = bits.length * 64;
+    }
+
+    /**
+     * Register an update as received
+     * @param updateId Id of the update
+     * @return True if the update was already received, so it must be dropped
+     */
+    public synchronized boolean isDuplicate(int updateId) {
+        if (highestId < 0 || updateId > highestId) {
+            advanceTo(updateId);
+        } else if (updateId <= highestId - window) {
+            return false;
+        } else if (isSet(updateId)) {
+            suppressedUpdates.increment();
+            return true;
+        }
+        set(updateId);
+        return false;
+    }
+
+    /**
+     * Unregister an update that was not accepted, i.e. rejected or failed, so it is not dropped when received again
+     * @param updateId Id of the update
+     */
+    public synchronized void forget(int updateId) {
+        if (highestId >= 0 && updateId <= highestId && updateId > highestId - window) {
+            clear(updateId);
+        }
+    }
+
+    /**
+     * @return Number of updates detected as duplicates
+     */
+    public long getSuppressedUpdates() {
+        return suppressedUpdates.sum();
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * Move the window so it ends in the given id, forgetting the ids that fall out of it
+     */
+    private void advanceTo(long updateId) {
+        if (highestId < 0 || updateId - highestId >= window) {
+            clearAll();
+        } else {
+            for (long id = highestId + 1; id <= updateId; id++) {
+                clear(id);
+            }
+        }
+        highestId = updateId;
+    }
+
+    private void clearAll() {
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = 0;
+        }
+    }
+
+    private boolean isSet(long updateId) {
+        int bit = bitIndex(updateId);
+        return (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    private void set(long updateId) {
+        int bit = bitIndex(updateId);
+        bits[bit >>> 6] |= 1L << bit;
+    }
+
+    private void clear(long updateId) {
+        int bit = bitIndex(updateId);
+        bits[bit >>> 6] &= ~(1L << bit);
+    }
+
+    private int bitIndex(long updateId) {
+        return (int) Math.floorMod(updateId, (long) window);
+    }
+}
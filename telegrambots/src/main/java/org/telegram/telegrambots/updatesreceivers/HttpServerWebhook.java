@@ -0,0 +1,237 @@
+package org.telegram.telegrambots.updatesreceivers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+import lombok.extern.slf4j.Slf4j;
+import org.telegram.telegrambots.Constants;
+import org.telegram.telegrambots.facilities.cache.BotApiCache;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiValidationException;
+import org.telegram.telegrambots.meta.generics.Webhook;
+import org.telegram.telegrambots.meta.generics.WebhookBot;
+import org.telegram.telegrambots.meta.serialization.TelegramJsonMapper;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Webhook to receive updates built on the HTTP server included in the JDK, as a lightweight alternative to
+ * {@link DefaultWebhook} when Jersey is not needed. Serves the same paths, {@code /callback/{botPath}}.
+ */
+@Slf4j
+public class HttpServerWebhook implements Webhook {
+    private static final String CALLBACK_PATH = "/" + Constants.WEBHOOK_URL_PATH + "/";
+
+    private final ConcurrentHashMap<String, WebhookBot> callbacks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, DuplicateUpdatesFilter> duplicateUpdatesFilters = new ConcurrentHashMap<>();
+    private int duplicateUpdatesWindow;
+    private String keystoreServerFile;
+    private String keystoreServerPwd;
+    private String internalUrl;
+    private int threads;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    @Override
+    public void setInternalUrl(String internalUrl) {
+        this.internalUrl = internalUrl;
+    }
+
+    @Override
+    public void setKeyStore(String keyStore, String keyStorePassword) throws TelegramApiException {
+        File file = new File(keyStore);
+        if (!file.exists() || !file.canRead()) {
+            throw new TelegramApiException("Can't find or access server keystore file.");
+        }
+        this.keystoreServerFile = keyStore;
+        this.keystoreServerPwd = keyStorePassword;
+    }
+
+    /**
+     * @param threads Number of threads processing requests, 0 to create them on demand
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Drop updates received more than once, answering them as successfully handled.
+     * Must be called before registering the bots.
+     * @param window Number of recent update ids remembered per bot, 0 to disable
+     */
+    public void setDuplicateUpdatesWindow(int window) {
+        this.duplicateUpdatesWindow = window;
+    }
+
+    /**
+     * @return Filter dropping duplicated updates of a bot, null if not enabled
+     */
+    public DuplicateUpdatesFilter getDuplicateUpdatesFilter(String botPath) {
+        return duplicateUpdatesFilters.get(botPath);
+    }
+
+    @Override
+    public void registerWebhook(WebhookBot callback) {
+        if (duplicateUpdatesWindow > 0) {
+            duplicateUpdatesFilters.putIfAbsent(callback.getBotPath(), new DuplicateUpdatesFilter(duplicateUpdatesWindow));
+        }
+        callbacks.putIfAbsent(callback.getBotPath(), callback);
+    }
+
+    @Override
+    public synchronized void startServer() throws TelegramApiException {
+        URI uri = URI.create(internalUrl);
+        if (uri.getHost() == null) {
+            throw new TelegramApiException("Internal url " + internalUrl + " has no host to listen on");
+        }
+        // Default port of the scheme when the url doesn't have one
+        int port = uri.getPort() != -1 ? uri.getPort() : "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        InetSocketAddress address = new InetSocketAddress(uri.getHost(), port);
+        try {
+            if (keystoreServerFile != null && keystoreServerPwd != null) {
+                HttpsServer httpsServer = HttpsServer.create(address, 0);
+                httpsServer.setHttpsConfigurator(new HttpsConfigurator(createSslContext()));
+                server = httpsServer;
+            } else {
+                server = HttpServer.create(address, 0);
+            }
+        } catch (IOException | GeneralSecurityException e) {
+            throw new TelegramApiException("Error starting webhook server", e);
+        }
+        executor = threads > 0 ? Executors.newFixedThreadPool(threads) : Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext(CALLBACK_PATH, this::handle);
+        server.start();
+    }
+
+    /**
+     * Stop the server, waiting up to the given time for requests being processed
+     * @param delaySeconds Max time to wait
+     */
+    public synchronized void stopServer(int delaySeconds) {
+        if (server != null) {
+            server.stop(delaySeconds);
+            executor.shutdown();
+            server = null;
+        }
+    }
+
+    /**
+     * @return Address the server is listening on, null if not started
+     */
+    public synchronized InetSocketAddress getAddress() {
+        return server == null ? null : server.getAddress();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String botPath = exchange.getRequestURI().getPath().substring(CALLBACK_PATH.length());
+            WebhookBot callback = callbacks.get(botPath);
+            if ("GET".equals(exchange.getRequestMethod())) {
+                sendResponse(exchange, 200, callback != null ? "Hi there " + botPath + "!" : "Callback not found for " + botPath);
+            } else if (!"POST".equals(exchange.getRequestMethod())) {
+                sendResponse(exchange, 405, null);
+            } else if (callback == null) {
+                sendResponse(exchange, 404, null);
+            } else {
+                handleUpdate(exchange, botPath, callback);
+            }
+        } catch (Exception e) {
+            log.error("Exception caught: ", e);
+            // Once the headers are sent, e.g. failing to write the body, closing the exchange is all that's left
+            if (exchange.getResponseCode() == -1) {
+                sendResponse(exchange, 500, null);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleUpdate(HttpExchange exchange, String botPath, WebhookBot callback) throws IOException {
+        Update update;
+        try (InputStream body = exchange.getRequestBody()) {
+            update = TelegramJsonMapper.getDefault().getReader(Update.class).readValue(body);
+        } catch (JsonProcessingException e) {
+            log.warn("Unable to parse update: {}", e.getLocalizedMessage());
+            sendResponse(exchange, 400, null);
+            return;
+        }
+
+        DuplicateUpdatesFilter duplicateUpdatesFilter = duplicateUpdatesFilters.get(botPath);
+        if (duplicateUpdatesFilter != null && duplicateUpdatesFilter.isDuplicate(update.getUpdateId())) {
+            sendResponse(exchange, 200, null);
+            return;
+        }
+        BotApiCache.onUpdate(callback, update);
+
+        BotApiMethod<?> response;
+        try {
+            response = callback.onWebhookUpdateReceived(update);
+            if (response != null) {
+                response.validate();
+            }
+        } catch (TelegramApiValidationException e) {
+            log.error(e.getLocalizedMessage(), e);
+            forget(duplicateUpdatesFilter, update);
+            sendResponse(exchange, 500, null);
+            return;
+        } catch (RuntimeException e) {
+            forget(duplicateUpdatesFilter, update);
+            throw e;
+        }
+        if (response == null) {
+            sendResponse(exchange, 200, null);
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        sendResponse(exchange, 200, TelegramJsonMapper.getDefault().writeValueAsString(response));
+    }
+
+    private static void forget(DuplicateUpdatesFilter duplicateUpdatesFilter, Update update) {
+        if (duplicateUpdatesFilter != null) {
+            duplicateUpdatesFilter.forget(update.getUpdateId());
+        }
+    }
+
+    private static void sendResponse(HttpExchange exchange, int status, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] content = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, content.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(content);
+        }
+    }
+
+    private SSLContext createSslContext() throws IOException, GeneralSecurityException {
+        KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        try (InputStream input = new FileInputStream(keystoreServerFile)) {
+            keyStore.load(input, keystoreServerPwd.toCharArray());
+        }
+        KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keyStore, keystoreServerPwd.toCharArray());
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+        return sslContext;
+    }
+}
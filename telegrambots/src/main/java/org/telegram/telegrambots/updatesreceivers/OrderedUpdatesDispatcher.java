@@ -0,0 +1,137 @@
+package org.telegram.telegrambots.updatesreceivers;
+
+import lombok.extern.slf4j.Slf4j;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.util.UpdateUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Dispatches updates to a fixed set of worker threads, sharding them by chat (or user when there is no chat).
+ * Updates from the same chat are always handled by the same worker, so they keep their order, while
+ * updates from different chats are handled in parallel.
+ *
+ * Each worker has a bounded queue, {@link #dispatch(Update)} blocks while the queue of the target worker is full.
+ * Workers are daemon threads, they don't keep the application running if it isn't stopped.
+ */
+@Slf4j
+public class OrderedUpdatesDispatcher {
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final Consumer<List<Update>> handler;
+    private final Worker[] workers;
+
+    /**
+     * @param name Prefix for the name of the worker threads
+     * @param threads Number of workers
+     * @param queueSize Max number of pending updates per worker
+     * @param handler Receives, on the worker thread, the updates pending for a worker in their arrival order
+     */
+    public OrderedUpdatesDispatcher(String name, int threads, int queueSize, Consumer<List<Update>> handler) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be greater than 0");
+        }
+        if (queueSize <= 0) {
+            throw new IllegalArgumentException("QueueSize must be greater than 0");
+        }
+        this.handler = handler;
+        this.workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(queueSize);
+            workers[i].setName(name + " " + i);
+            workers[i].setDaemon(true);
+        }
+    }
+
+    public synchronized void start() {
+        if (running.getAndSet(true)) {
+            throw new IllegalStateException("Dispatcher already running");
+        }
+        for (Worker worker : workers) {
+            worker.start();
+        }
+    }
+
+    /**
+     * Stop the workers, discarding any pending update
+     */
+    public synchronized void stop() {
+        running.set(false);
+        for (Worker worker : workers) {
+            worker.interrupt();
+            worker.queue.clear();
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Queue an update in the worker for its chat, blocking while the worker queue is full
+     * @param update Update to handle
+     * @throws InterruptedException If interrupted while waiting for space in the queue
+     */
+    public void dispatch(Update update) throws InterruptedException {
+        workers[getShard(update)].queue.put(update);
+    }
+
+    /**
+     * Queue an update in the worker for its chat if there is space for it
+     * @param update Update to handle
+     * @return True if the update was queued, false if the worker queue is full
+     */
+    public boolean tryDispatch(Update update) {
+        return workers[getShard(update)].queue.offer(update);
+    }
+
+    /**
+     * @return Number of updates waiting to be handled in all the workers
+     */
+    public int getPendingUpdates() {
+        int pending = 0;
+        for (Worker worker : workers) {
+            pending += worker.queue.size();
+        }
+        return pending;
+    }
+
+    int getShard(Update update) {
+        Long key = UpdateUtils.getChatOrUserId(update);
+        // Updates not related to any chat have no order to keep
+        int hash = key != null ? Long.hashCode(key) : update.getUpdateId();
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, workers.length);
+    }
+
+    private class Worker extends Thread {
+        private final BlockingQueue<Update> queue;
+
+        private Worker(int queueSize) {
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+
+        @Override
+        public void run() {
+            while (running.get()) {
+                try {
+                    List<Update> updates = new ArrayList<>();
+                    updates.add(queue.take());
+                    queue.drainTo(updates);
+                    handler.accept(updates);
+                } catch (InterruptedException e) {
+                    log.debug(e.getLocalizedMessage(), e);
+                    interrupt();
+                    break;
+                } catch (Exception e) {
+                    log.error(e.getLocalizedMessage(), e);
+                }
+            }
+            log.debug("Dispatcher worker has being closed");
+        }
+    }
+}
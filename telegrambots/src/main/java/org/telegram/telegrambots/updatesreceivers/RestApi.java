@@ -2,8 +2,11 @@ package org.telegram.telegrambots.updatesreceivers;
 
 import lombok.extern.slf4j.Slf4j;
 import org.telegram.telegrambots.Constants;
+import org.telegram.telegrambots.facilities.cache.BotApiCache;
 import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
 import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiValidationException;
 import org.telegram.telegrambots.meta.generics.WebhookBot;
 
@@ -15,7 +18,14 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.io.Serializable;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 /**
  * @author Ruben Bermudez
@@ -26,13 +36,66 @@ import java.util.concurrent.ConcurrentHashMap;
 @Slf4j
 public class RestApi {
     private final ConcurrentHashMap<String, WebhookBot> callbacks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Predicate<Update>> asyncHandlers = new ConcurrentHashMap<>();
+    private int asyncThreads;
+    private int asyncQueueSize;
+    private boolean asyncOrderedByChat;
+    private final ConcurrentHashMap<String, DuplicateUpdatesFilter> duplicateUpdatesFilters = new ConcurrentHashMap<>();
+    private int duplicateUpdatesWindow;
 
     public RestApi() {
     }
 
+    /**
+     * Acknowledge updates as soon as they are received and handle them in background, so slow handlers don't
+     * make Telegram retry the delivery. Must be called before registering the callbacks.
+     *
+     * Methods returned by the callbacks are executed with the bot itself instead of being sent as the response of
+     * the webhook, so only callbacks that are an {@link AbsSender} are handled in background, the rest keep being
+     * handled synchronously. Updates are handled in daemon threads, so they don't keep the application running once
+     * the server is stopped.
+     *
+     * @param threads Number of threads handling the updates of each callback, 0 to handle them synchronously
+     * @param queueSize Max number of pending updates per callback (per thread if ordered by chat). Updates received
+     *                  while full are answered with 503 so Telegram delivers them again later.
+     * @param orderedByChat If true, updates from the same chat are handled in order by the same thread
+     */
+    public void setAsyncUpdates(int threads, int queueSize, boolean orderedByChat) {
+        this.asyncThreads = threads;
+        this.asyncQueueSize = queueSize;
+        this.asyncOrderedByChat = orderedByChat;
+    }
+
+    /**
+     * Drop updates received more than once, answering them as successfully handled.
+     * Must be called before registering the callbacks.
+     * @param window Number of recent update ids remembered per callback, 0 to disable
+     */
+    public void setDuplicateUpdatesWindow(int window) {
+        this.duplicateUpdatesWindow = window;
+    }
+
+    /**
+     * @return Filter dropping duplicated updates of a callback, null if not enabled
+     */
+    public DuplicateUpdatesFilter getDuplicateUpdatesFilter(String botPath) {
+        return duplicateUpdatesFilters.get(botPath);
+    }
+
     public void registerCallback(WebhookBot callback) {
         if (!callbacks.containsKey(callback.getBotPath())) {
+            if (duplicateUpdatesWindow > 0) {
+                duplicateUpdatesFilters.put(callback.getBotPath(), new DuplicateUpdatesFilter(duplicateUpdatesWindow));
+            }
             callbacks.put(callback.getBotPath(), callback);
+            if (asyncThreads > 0) {
+                if (callback instanceof AbsSender) {
+                    asyncHandlers.put(callback.getBotPath(), createAsyncHandler(callback));
+                } else {
+                    log.warn("{} is not an AbsSender, its updates are handled synchronously to reply in the webhook response",
+                            callback.getBotPath());
+                }
+            }
         }
     }
 
@@ -42,6 +105,20 @@ public class RestApi {
     @Produces(MediaType.APPLICATION_JSON)
     public Response updateReceived(@PathParam("botPath") String botPath, Update update) {
         if (callbacks.containsKey(botPath)) {
+            DuplicateUpdatesFilter duplicateUpdatesFilter = duplicateUpdatesFilters.get(botPath);
+            if (duplicateUpdatesFilter != null && duplicateUpdatesFilter.isDuplicate(update.getUpdateId())) {
+                return Response.ok().build();
+            }
+            BotApiCache.onUpdate(callbacks.get(botPath), update);
+            Predicate<Update> asyncHandler = asyncHandlers.get(botPath);
+            if (asyncHandler != null) {
+                if (asyncHandler.test(update)) {
+                    return Response.ok().build();
+                }
+                log.warn("Too many pending updates for {}, update {} rejected", botPath, update.getUpdateId());
+                forget(duplicateUpdatesFilter, update);
+                return Response.status(Response.Status.SERVICE_UNAVAILABLE).build();
+            }
             try {
                 BotApiMethod<?> response = callbacks.get(botPath).onWebhookUpdateReceived(update);
                 if (response != null) {
@@ -50,7 +127,11 @@ public class RestApi {
                 return Response.ok(response).build();
             } catch (TelegramApiValidationException e) {
                 log.error(e.getLocalizedMessage(), e);
+                forget(duplicateUpdatesFilter, update);
                 return Response.serverError().build();
+            } catch (RuntimeException e) {
+                forget(duplicateUpdatesFilter, update);
+                throw e;
             }
         }
 
@@ -67,4 +148,53 @@ public class RestApi {
             return "Callback not found for " + botPath;
         }
     }
+
+    /**
+     * Let the update through the duplicates filter again, as it is answered with an error and will be redelivered
+     */
+    private static void forget(DuplicateUpdatesFilter duplicateUpdatesFilter, Update update) {
+        if (duplicateUpdatesFilter != null) {
+            duplicateUpdatesFilter.forget(update.getUpdateId());
+        }
+    }
+
+    private Predicate<Update> createAsyncHandler(WebhookBot callback) {
+        if (asyncOrderedByChat) {
+            OrderedUpdatesDispatcher dispatcher = new OrderedUpdatesDispatcher("Webhook " + callback.getBotPath(),
+                    asyncThreads, asyncQueueSize, updates -> updates.forEach(update -> handleUpdate(callback, update)));
+            dispatcher.start();
+            return dispatcher::tryDispatch;
+        }
+        AtomicInteger threads = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(asyncThreads, asyncThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(asyncQueueSize), runnable -> {
+            Thread thread = new Thread(runnable, "Webhook " + callback.getBotPath() + " " + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        return update -> {
+            try {
+                executor.execute(() -> handleUpdate(callback, update));
+                return true;
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+        };
+    }
+
+    private void handleUpdate(WebhookBot callback, Update update) {
+        try {
+            BotApiMethod<?> response = callback.onWebhookUpdateReceived(update);
+            if (response != null) {
+                // Only AbsSender callbacks are handled in background
+                execute((AbsSender) callback, response);
+            }
+        } catch (Exception e) {
+            log.error(e.getLocalizedMessage(), e);
+        }
+    }
+
+    private static <T extends Serializable> void execute(AbsSender sender, BotApiMethod<T> method) throws TelegramApiException {
+        sender.execute(method);
+    }
 }
@@ -1,6 +1,7 @@
 package org.telegram.telegrambots.updatesreceivers;
 
 import lombok.extern.slf4j.Slf4j;
+import org.telegram.telegrambots.facilities.cache.BotApiCache;
 import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
@@ -15,9 +16,32 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ServerlessWebhook implements Webhook {
 
     private final ConcurrentHashMap<String, WebhookBot> callbacks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, DuplicateUpdatesFilter> duplicateUpdatesFilters = new ConcurrentHashMap<>();
+    private int duplicateUpdatesWindow;
+
+    /**
+     * Drop updates received more than once, returning no method for them.
+     * Must be called before registering the callbacks.
+     * @param window Number of recent update ids remembered per callback, 0 to disable
+     */
+    public void setDuplicateUpdatesWindow(int window) {
+        this.duplicateUpdatesWindow = window;
+    }
+
+    /**
+     * @return Filter dropping duplicated updates of a callback, null if not enabled
+     */
+    public DuplicateUpdatesFilter getDuplicateUpdatesFilter(String botPath) {
+        return duplicateUpdatesFilters.get(botPath);
+    }
 
     public BotApiMethod<?> updateReceived(String botPath, Update update) throws TelegramApiValidationException {
         if (callbacks.containsKey(botPath)) {
+            DuplicateUpdatesFilter duplicateUpdatesFilter = duplicateUpdatesFilters.get(botPath);
+            if (duplicateUpdatesFilter != null && duplicateUpdatesFilter.isDuplicate(update.getUpdateId())) {
+                return null;
+            }
+            BotApiCache.onUpdate(callbacks.get(botPath), update);
             try {
                 BotApiMethod<?> response = callbacks.get(botPath).onWebhookUpdateReceived(update);
                 if (response != null) {
@@ -26,6 +50,10 @@ public class ServerlessWebhook implements Webhook {
                 return response;
             } catch (TelegramApiValidationException e) {
                 log.error(e.getLocalizedMessage(), e);
+                forget(duplicateUpdatesFilter, update);
+                throw e;
+            } catch (RuntimeException e) {
+                forget(duplicateUpdatesFilter, update);
                 throw e;
             }
         } else {
@@ -33,6 +61,12 @@ public class ServerlessWebhook implements Webhook {
         }
     }
 
+    private static void forget(DuplicateUpdatesFilter duplicateUpdatesFilter, Update update) {
+        if (duplicateUpdatesFilter != null) {
+            duplicateUpdatesFilter.forget(update.getUpdateId());
+        }
+    }
+
     @Override
     public void startServer() throws TelegramApiException {
         // Do nothing, because there is no abstraction for webhook without server
@@ -40,6 +74,9 @@ public class ServerlessWebhook implements Webhook {
 
     @Override
     public void registerWebhook(WebhookBot callback) {
+        if (duplicateUpdatesWindow > 0) {
+            duplicateUpdatesFilters.putIfAbsent(callback.getBotPath(), new DuplicateUpdatesFilter(duplicateUpdatesWindow));
+        }
         callbacks.putIfAbsent(callback.getBotPath(), callback);
     }
 
@@ -0,0 +1,172 @@
+package org.telegram.telegrambots.updatesreceivers;
+
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Bounded buffer between the thread reading updates from Telegram and the thread handling them.
+ *
+ * Array backed ring with a single producer (reader) and a single consumer (handler). Both sides hand off
+ * updates without locks, parking only while the buffer is full (reader) or empty (handler).
+ *
+ * Queue depth and wait times are exposed to monitor when the handler is the bottleneck.
+ */
+public class UpdatesBuffer {
+    private final Update[] slots;
+    /** Sequence of the next update to be read by the handler */
+    private final AtomicLong head = new AtomicLong();
+    /** Sequence of the next update to be written by the reader */
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicReference<Thread> waitingReader = new AtomicReference<>();
+    private final AtomicReference<Thread> waitingHandler = new AtomicReference<>();
+
+    private final LongAdder readerWaitNanos = new LongAdder();
+    private final LongAdder handlerWaitNanos = new LongAdder();
+    private final LongAdder rejectedUpdates = new LongAdder();
+
+    public UpdatesBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        this.slots = new Update[capacity];
+    }
+
+    /**
+     * Add as many updates as fit in the buffer, keeping their order
+     * @param updates Updates to add
+     * @return Number of updates accepted, counting from the start of the list
+     */
+    int offer(List<Update> updates) {
+        long currentTail = tail.get();
+        int accepted = (int) Math.min(remainingCapacity(), updates.size());
+        for (int i = 0; i < accepted; i++) {
+            slots[index(currentTail + i)] = updates.get(i);
+        }
+        tail.set(currentTail + accepted);
+
+        if (accepted < updates.size()) {
+            rejectedUpdates.add(updates.size() - accepted);
+        }
+        if (accepted > 0) {
+            LockSupport.unpark(waitingHandler.get());
+        }
+        return accepted;
+    }
+
+    /**
+     * Take all the updates currently in the buffer
+     * @return Updates in arrival order, empty list if there are none
+     */
+    List<Update> drain() {
+        long currentHead = head.get();
+        long currentTail = tail.get();
+        if (currentHead == currentTail) {
+            return Collections.emptyList();
+        }
+
+        List<Update> updates = new ArrayList<>((int) (currentTail - currentHead));
+        for (long sequence = currentHead; sequence < currentTail; sequence++) {
+            int index = index(sequence);
+            updates.add(slots[index]);
+            slots[index] = null;
+        }
+        head.set(currentTail);
+
+        LockSupport.unpark(waitingReader.get());
+        return updates;
+    }
+
+    /**
+     * Park the reader while the buffer is full
+     */
+    void awaitCapacity() throws InterruptedException {
+        await(() -> remainingCapacity() > 0, waitingReader, readerWaitNanos);
+    }
+
+    /**
+     * Park the handler while the buffer is empty
+     */
+    void awaitUpdates() throws InterruptedException {
+        await(() -> size() > 0, waitingHandler, handlerWaitNanos);
+    }
+
+    /**
+     * Discard all the updates in the buffer. Must not be called while reader or handler are running.
+     */
+    void clear() {
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = null;
+        }
+        head.set(tail.get());
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * @return Number of updates waiting to be handled
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public int remainingCapacity() {
+        return slots.length - size();
+    }
+
+    /**
+     * @return Total time the reader has been waiting for the handler to free space in the buffer
+     */
+    public long getReaderWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(readerWaitNanos.sum());
+    }
+
+    /**
+     * @return Total time the handler has been waiting for updates to arrive
+     */
+    public long getHandlerWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(handlerWaitNanos.sum());
+    }
+
+    /**
+     * @return Number of updates that didn't fit in the buffer. Their offset is not acknowledged,
+     * so they are requested again once there is space.
+     */
+    public long getRejectedUpdates() {
+        return rejectedUpdates.sum();
+    }
+
+    private void await(BooleanSupplier condition, AtomicReference<Thread> waiter, LongAdder waitNanos) throws InterruptedException {
+        if (condition.getAsBoolean()) {
+            return;
+        }
+        long start = System.nanoTime();
+        waiter.set(Thread.currentThread());
+        try {
+            // Condition is checked again after publishing the waiter so a concurrent wake up is not missed
+            while (!condition.getAsBoolean()) {
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waiter.set(null);
+            waitNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % slots.length);
+    }
+}
@@ -0,0 +1,45 @@
+package org.telegram.telegrambots.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.telegram.telegrambots.meta.api.methods.PartialBotApiMethod;
+
+import java.lang.reflect.Method;
+
+/**
+ * Helpers to inspect outgoing methods
+ */
+@Slf4j
+public final class MethodUtils {
+    private static final ClassValue<Method> CHAT_ID_GETTERS = new ClassValue<Method>() {
+        @Override
+        protected Method computeValue(Class<?> type) {
+            try {
+                Method getter = type.getMethod("getChatId");
+                return getter.getReturnType() == String.class ? getter : null;
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    };
+
+    private MethodUtils() {
+    }
+
+    /**
+     * Find the chat a method is sent to, from its chat_id parameter
+     * @param method Method to inspect
+     * @return Target chat of the method, null if it has none
+     */
+    public static String getChatId(PartialBotApiMethod<?> method) {
+        Method getter = CHAT_ID_GETTERS.get(method.getClass());
+        if (getter == null) {
+            return null;
+        }
+        try {
+            return (String) getter.invoke(method);
+        } catch (ReflectiveOperationException e) {
+            log.debug(e.getLocalizedMessage(), e);
+            return null;
+        }
+    }
+}
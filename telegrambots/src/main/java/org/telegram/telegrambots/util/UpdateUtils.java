@@ -0,0 +1,67 @@
+package org.telegram.telegrambots.util;
+
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.User;
+
+/**
+ * Helpers to inspect incoming updates
+ */
+public final class UpdateUtils {
+    private UpdateUtils() {
+    }
+
+    /**
+     * Find the chat an update belongs to, falling back to the user that originated it for updates without chat
+     * (inline queries, payments, poll answers...)
+     * @param update Update to inspect
+     * @return Chat id or user id of the update, null if the update is not related to any of them (i.e. poll updates)
+     */
+    public static Long getChatOrUserId(Update update) {
+        if (update.hasMessage()) {
+            return update.getMessage().getChatId();
+        } else if (update.hasEditedMessage()) {
+            return update.getEditedMessage().getChatId();
+        } else if (update.hasChannelPost()) {
+            return update.getChannelPost().getChatId();
+        } else if (update.hasEditedChannelPost()) {
+            return update.getEditedChannelPost().getChatId();
+        } else if (update.hasCallbackQuery()) {
+            if (update.getCallbackQuery().getMessage() != null) {
+                return update.getCallbackQuery().getMessage().getChatId();
+            }
+            return getUserId(update.getCallbackQuery().getFrom());
+        } else if (update.hasInlineQuery()) {
+            return getUserId(update.getInlineQuery().getFrom());
+        } else if (update.hasChosenInlineQuery()) {
+            return getUserId(update.getChosenInlineQuery().getFrom());
+        } else if (update.hasShippingQuery()) {
+            return getUserId(update.getShippingQuery().getFrom());
+        } else if (update.hasPreCheckoutQuery()) {
+            return getUserId(update.getPreCheckoutQuery().getFrom());
+        } else if (update.hasPollAnswer()) {
+            if (update.getPollAnswer().getVoterChat() != null) {
+                return update.getPollAnswer().getVoterChat().getId();
+            }
+            return getUserId(update.getPollAnswer().getUser());
+        } else if (update.hasMyChatMember()) {
+            return update.getMyChatMember().getChat().getId();
+        } else if (update.hasChatMember()) {
+            return update.getChatMember().getChat().getId();
+        } else if (update.hasChatJoinRequest()) {
+            return update.getChatJoinRequest().getChat().getId();
+        } else if (update.getMessageReaction() != null) {
+            return update.getMessageReaction().getChat().getId();
+        } else if (update.getMessageReactionCount() != null) {
+            return update.getMessageReactionCount().getChat().getId();
+        } else if (update.getChatBoost() != null) {
+            return update.getChatBoost().getChat().getId();
+        } else if (update.getRemovedChatBoost() != null) {
+            return update.getRemovedChatBoost().getChat().getId();
+        }
+        return null;
+    }
+
+    private static Long getUserId(User user) {
+        return user == null ? null : user.getId();
+    }
+}
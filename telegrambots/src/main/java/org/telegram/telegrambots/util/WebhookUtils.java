@@ -1,7 +1,6 @@
 package org.telegram.telegrambots.util;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.config.RequestConfig;
@@ -15,6 +14,7 @@ import org.telegram.telegrambots.Constants;
 import org.telegram.telegrambots.bots.DefaultAbsSender;
 import org.telegram.telegrambots.bots.DefaultBotOptions;
 import org.telegram.telegrambots.facilities.TelegramHttpClientBuilder;
+import org.telegram.telegrambots.facilities.upload.ChannelBody;
 import org.telegram.telegrambots.meta.api.methods.updates.DeleteWebhook;
 import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
 import org.telegram.telegrambots.meta.api.objects.InputFile;
@@ -29,7 +29,6 @@ import static org.telegram.telegrambots.Constants.SOCKET_TIMEOUT;
 
 public final class WebhookUtils {
   private static final ContentType TEXT_PLAIN_CONTENT_TYPE = ContentType.create("text/plain", StandardCharsets.UTF_8);
-  private static final ObjectMapper objectMapper = new ObjectMapper();
 
   private WebhookUtils() {
 
@@ -67,7 +66,7 @@ public final class WebhookUtils {
         builder.addTextBody(SetWebhook.MAXCONNECTIONS_FIELD, setWebhook.getMaxConnections().toString(), TEXT_PLAIN_CONTENT_TYPE);
       }
       if (setWebhook.getAllowedUpdates() != null) {
-        builder.addTextBody(SetWebhook.ALLOWEDUPDATES_FIELD, objectMapper.writeValueAsString(setWebhook.getAllowedUpdates()), TEXT_PLAIN_CONTENT_TYPE);
+        builder.addTextBody(SetWebhook.ALLOWEDUPDATES_FIELD, botOptions.getJsonMapper().writeValueAsString(setWebhook.getAllowedUpdates()), TEXT_PLAIN_CONTENT_TYPE);
       }
       if (setWebhook.getIpAddress() != null) {
         builder.addTextBody(SetWebhook.IPADDRESS_FIELD, setWebhook.getIpAddress(), TEXT_PLAIN_CONTENT_TYPE);
@@ -84,6 +83,8 @@ public final class WebhookUtils {
           builder.addBinaryBody(SetWebhook.CERTIFICATE_FIELD, webhookFile.getNewMediaFile(), ContentType.TEXT_PLAIN, webhookFile.getMediaName());
         } else if (webhookFile.getNewMediaStream() != null) {
           builder.addBinaryBody(SetWebhook.CERTIFICATE_FIELD, webhookFile.getNewMediaStream(), ContentType.TEXT_PLAIN, webhookFile.getMediaName());
+        } else if (webhookFile.getNewMediaChannel() != null) {
+          builder.addPart(SetWebhook.CERTIFICATE_FIELD, new ChannelBody(webhookFile.getNewMediaChannel(), webhookFile.getNewMediaSize(), ContentType.TEXT_PLAIN, webhookFile.getMediaName(), null));
         }
       }
 
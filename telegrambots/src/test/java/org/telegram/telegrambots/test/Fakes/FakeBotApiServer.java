@@ -0,0 +1,69 @@
+package org.telegram.telegrambots.test.Fakes;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Local stand-in for the Bot API server, answering each method with a configurable handler
+ * receiving the request body and returning the JSON response.
+ */
+public class FakeBotApiServer implements AutoCloseable {
+    private final HttpServer server;
+    private final Map<String, Function<String, String>> handlers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+    public FakeBotApiServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    /**
+     * @return Base url to configure in DefaultBotOptions
+     */
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/bot";
+    }
+
+    public void setHandler(String method, Function<String, String> handler) {
+        handlers.put(method.toLowerCase(), handler);
+    }
+
+    public int getCalls(String method) {
+        AtomicInteger counter = calls.get(method.toLowerCase());
+        return counter == null ? 0 : counter.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = path.substring(path.lastIndexOf('/') + 1).toLowerCase();
+        calls.computeIfAbsent(method, key -> new AtomicInteger()).incrementAndGet();
+        String body = IOUtils.toString(exchange.getRequestBody(), StandardCharsets.UTF_8);
+
+        Function<String, String> handler = handlers.get(method);
+        byte[] response = (handler == null ? "{\"ok\":true,\"result\":true}" : handler.apply(body))
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(response);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
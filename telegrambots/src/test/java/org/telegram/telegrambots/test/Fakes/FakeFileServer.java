@@ -0,0 +1,93 @@
+package org.telegram.telegrambots.test.Fakes;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the Bot API file server, serving the same content for every path with support for range requests
+ * and the option to drop the connection halfway through the first responses.
+ */
+public class FakeFileServer implements AutoCloseable {
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-");
+
+    private final HttpServer server;
+    private final byte[] content;
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile boolean rangesSupported = true;
+
+    public FakeFileServer(byte[] content) throws IOException {
+        this.content = content;
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @param failures Number of next responses dropping the connection after half of their body
+     */
+    public void setFailures(int failures) {
+        this.failures.set(failures);
+    }
+
+    public void setRangesSupported(boolean rangesSupported) {
+        this.rangesSupported = rangesSupported;
+    }
+
+    /**
+     * @return Range header of every request received, null for the ones without
+     */
+    public List<String> getRanges() {
+        return ranges;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        ranges.add(String.valueOf(range));
+        int start = 0;
+        Matcher matcher = range == null ? null : RANGE.matcher(range);
+        if (rangesSupported && matcher != null && matcher.matches()) {
+            start = Integer.parseInt(matcher.group(1));
+            if (start >= content.length) {
+                exchange.getResponseHeaders().add("Content-Range", "bytes */" + content.length);
+                exchange.sendResponseHeaders(416, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + (content.length - 1) + "/" + content.length);
+            exchange.sendResponseHeaders(206, content.length - start);
+        } else {
+            exchange.sendResponseHeaders(200, content.length);
+        }
+        OutputStream output = exchange.getResponseBody();
+        if (failures.getAndDecrement() > 0) {
+            output.write(content, start, (content.length - start) / 2);
+            output.flush();
+            // Closing the exchange before the whole body is written drops the connection
+            exchange.close();
+            return;
+        }
+        output.write(content, start, content.length - start);
+        output.close();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
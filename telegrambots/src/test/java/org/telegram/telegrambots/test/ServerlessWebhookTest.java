@@ -5,7 +5,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiValidationException;
 import org.telegram.telegrambots.test.Fakes.FakeWebhook;
 import org.telegram.telegrambots.updatesreceivers.ServerlessWebhook;
 
@@ -13,6 +15,9 @@ import java.io.IOException;
 import java.io.Serializable;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
 /**
@@ -30,6 +35,31 @@ public class ServerlessWebhookTest {
         serverlessWebhook.registerWebhook(webhookBot);
     }
 
+    @Test
+    public void TestDuplicatedUpdatesAreDropped() throws Exception {
+        serverlessWebhook = new ServerlessWebhook();
+        serverlessWebhook.setDuplicateUpdatesWindow(100);
+        serverlessWebhook.registerWebhook(webhookBot);
+        webhookBot.setReturnValue(BotApiMethodHelperFactory.getSendMessage());
+
+        assertNotNull(serverlessWebhook.updateReceived(webhookBot.getBotPath(), getUpdate()));
+        assertNull(serverlessWebhook.updateReceived(webhookBot.getBotPath(), getUpdate()));
+        assertEquals(1, serverlessWebhook.getDuplicateUpdatesFilter(webhookBot.getBotPath()).getSuppressedUpdates());
+    }
+
+    @Test
+    public void TestFailedUpdatesAreNotDuplicates() throws Exception {
+        serverlessWebhook = new ServerlessWebhook();
+        serverlessWebhook.setDuplicateUpdatesWindow(100);
+        serverlessWebhook.registerWebhook(webhookBot);
+        webhookBot.setReturnValue(SendMessage.builder().chatId("").text("Hi").build());
+
+        assertThrows(TelegramApiValidationException.class, () -> serverlessWebhook.updateReceived(webhookBot.getBotPath(), getUpdate()));
+        webhookBot.setReturnValue(BotApiMethodHelperFactory.getSendMessage());
+        assertNotNull(serverlessWebhook.updateReceived(webhookBot.getBotPath(), getUpdate()));
+        assertEquals(0, serverlessWebhook.getDuplicateUpdatesFilter(webhookBot.getBotPath()).getSuppressedUpdates());
+    }
+
     @Test
     public void TestSendMessage() throws Exception {
         webhookBot.setReturnValue(BotApiMethodHelperFactory.getSendMessage());
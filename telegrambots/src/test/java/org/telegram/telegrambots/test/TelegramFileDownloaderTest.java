@@ -10,17 +10,28 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.telegram.telegrambots.facilities.filedownloader.DownloaderOptions;
 import org.telegram.telegrambots.facilities.filedownloader.TelegramFileDownloader;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.meta.updateshandlers.DownloadFileCallback;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import static java.nio.charset.Charset.defaultCharset;
@@ -56,6 +67,9 @@ class TelegramFileDownloaderTest {
 
     private Supplier<String> tokenSupplierMock = () -> "someToken";
 
+    @TempDir
+    Path tempDir;
+
     @BeforeEach
     void setup() throws IOException {
         when(httpResponseMock.getStatusLine()).thenReturn(new BasicStatusLine(HTTP_1_1, 200, "emptyString"));
@@ -122,4 +136,63 @@ class TelegramFileDownloaderTest {
         assertEquals(e.getCause().getCause().getMessage(), "Unexpected Status code while downloading file. Expected 200 got 500");
     }
 
+    @Test
+    void testDownloadToSinks() throws Exception {
+        org.telegram.telegrambots.meta.api.objects.File file = new org.telegram.telegrambots.meta.api.objects.File("id", "unique", 17L, "someFilePath");
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        assertEquals(17L, telegramFileDownloader.downloadFileTo(file, stream).get(1, TimeUnit.SECONDS));
+        assertEquals("Some File Content", stream.toString("UTF-8"));
+
+        when(httpEntityMock.getContent()).thenReturn(toInputStream("Some File Content", defaultCharset()));
+        ByteArrayOutputStream channelTarget = new ByteArrayOutputStream();
+        telegramFileDownloader.downloadFileTo(file, Channels.newChannel(channelTarget)).get(1, TimeUnit.SECONDS);
+        assertEquals("Some File Content", channelTarget.toString("UTF-8"));
+
+        when(httpEntityMock.getContent()).thenReturn(toInputStream("Some File Content", defaultCharset()));
+        Path path = tempDir.resolve("download.bin");
+        telegramFileDownloader.downloadFileTo(file, path).get(1, TimeUnit.SECONDS);
+        assertEquals("Some File Content", new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+
+        assertEquals(3, telegramFileDownloader.getDownloads());
+        assertEquals(51, telegramFileDownloader.getDownloadedBytes());
+    }
+
+    @Test
+    void testFailedDownloadsFailTheFuture() throws Exception {
+        when(httpResponseMock.getStatusLine()).thenReturn(new BasicStatusLine(HTTP_1_1, 500, "emptyString"));
+        Path path = tempDir.resolve("download.bin");
+
+        ExecutionException exception = Assertions.assertThrows(ExecutionException.class, () -> telegramFileDownloader.downloadFileTo(
+                new org.telegram.telegrambots.meta.api.objects.File("id", "unique", 17L, "someFilePath"), path).get(1, TimeUnit.SECONDS));
+        assertThat(exception.getCause(), instanceOf(TelegramApiException.class));
+    }
+
+    @Test
+    void testDownloadsAreBounded() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(httpClientMock.execute(any(HttpUriRequest.class))).thenAnswer(invocation -> {
+            release.await();
+            return httpResponseMock;
+        });
+        DownloaderOptions options = new DownloaderOptions();
+        options.setMaxConcurrentDownloads(1);
+        options.setMaxQueuedDownloads(1);
+        TelegramFileDownloader downloader = new TelegramFileDownloader(httpClientMock, tokenSupplierMock, options);
+        org.telegram.telegrambots.meta.api.objects.File file = new org.telegram.telegrambots.meta.api.objects.File("id", "unique", 17L, "someFilePath");
+
+        CompletableFuture<Long> first = downloader.downloadFileTo(file, new ByteArrayOutputStream());
+        CompletableFuture<Long> second = downloader.downloadFileTo(file, new ByteArrayOutputStream());
+        CompletableFuture<Long> rejected = downloader.downloadFileTo(file, new ByteArrayOutputStream());
+
+        Assertions.assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertEquals(1, downloader.getQueuedDownloads());
+        assertEquals(1, downloader.getRejectedDownloads());
+        release.countDown();
+        first.get(1, TimeUnit.SECONDS);
+        when(httpEntityMock.getContent()).thenReturn(toInputStream("Some File Content", defaultCharset()));
+        second.get(1, TimeUnit.SECONDS);
+        assertEquals(0, downloader.getQueuedDownloads());
+    }
+
 }
@@ -0,0 +1,163 @@
+package org.telegram.telegrambots.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.bots.DefaultAbsSender;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.facilities.concurrency.AdaptiveConcurrencyLimiter;
+import org.telegram.telegrambots.facilities.concurrency.AimdLimit;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.test.Fakes.FakeBotApiServer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for AdaptiveConcurrencyLimiter
+ */
+public class TestAdaptiveConcurrencyLimiter {
+    private static final String MESSAGE_RESPONSE = "{\"ok\":true,\"result\":{\"message_id\":1,\"date\":0,\"chat\":{\"id\":1,\"type\":\"private\"},\"text\":\"Hello\"}}";
+
+    private FakeBotApiServer server;
+
+    @AfterEach
+    public void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testAimdLimitGrowsSlowlyAndShrinksFast() {
+        AimdLimit limit = new AimdLimit(10, 1, 20, 0.5, 2);
+        long rtt = TimeUnit.MILLISECONDS.toNanos(50);
+
+        limit.onSample(0, rtt, 10, false);
+        assertEquals(11, limit.getLimit());
+        // The limit doesn't grow while it isn't used
+        limit.onSample(0, rtt, 1, false);
+        assertEquals(11, limit.getLimit());
+
+        limit.onSample(0, rtt, 11, true);
+        assertEquals(5, limit.getLimit());
+        limit.onSample(rtt, rtt * 3, 5, false);
+        assertEquals(2, limit.getLimit());
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(rtt * (4 + i), rtt, 1, true);
+        }
+        assertEquals(1, limit.getLimit());
+    }
+
+    @Test
+    public void testAimdLimitShrinksOncePerRoundTrip() {
+        AimdLimit limit = new AimdLimit(50, 1, 100, 0.9, 2);
+        long rtt = TimeUnit.MILLISECONDS.toNanos(50);
+
+        // Every request in flight failing together
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(i, rtt, 50 - i, true);
+        }
+        assertEquals(45, limit.getLimit());
+        // Sent after the decrease
+        limit.onSample(rtt * 2, rtt, 1, true);
+        assertEquals(40, limit.getLimit());
+    }
+
+    @Test
+    public void testUploadsAreNotSlowRequests() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter();
+        for (int i = 0; i < 10; i++) {
+            limiter.release(limiter.acquire(), MESSAGE_RESPONSE, null);
+        }
+        assertEquals(4, limiter.getLimit());
+
+        long start = limiter.acquire();
+        Thread.sleep(50);
+        limiter.release(start, MESSAGE_RESPONSE, null, false);
+        assertEquals(4, limiter.getLimit());
+
+        start = limiter.acquire();
+        Thread.sleep(50);
+        limiter.release(start, MESSAGE_RESPONSE, null);
+        assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    public void testOverloadResponsesAreDropped() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter();
+        long start = limiter.acquireAsync().join();
+        limiter.release(start, "{\"ok\":false,\"error_code\":429,\"description\":\"Too Many Requests: retry after 1\"}", null);
+        start = limiter.acquireAsync().join();
+        limiter.release(start, "{\"ok\":false,\"error_code\":400,\"description\":\"Bad Request: chat not found\"}", null);
+        start = limiter.acquireAsync().join();
+        limiter.release(start, "<html>502 Bad Gateway</html>", null);
+        start = limiter.acquireAsync().join();
+        limiter.release(start, null, new IOException("Connection reset"));
+        start = limiter.acquireAsync().join();
+        limiter.release(start, MESSAGE_RESPONSE, null);
+
+        assertEquals(3, limiter.getDroppedRequests());
+        assertEquals(0, limiter.getInFlightRequests());
+    }
+
+    @Test
+    public void testLimitAdaptsToTheApi() throws Exception {
+        AtomicBoolean overloaded = new AtomicBoolean(true);
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        server = new FakeBotApiServer();
+        server.setHandler("sendmessage", body -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+            if (overloaded.get()) {
+                return "{\"ok\":false,\"error_code\":500,\"description\":\"Internal Server Error\"}";
+            }
+            return MESSAGE_RESPONSE;
+        });
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(new AimdLimit(8, 1, 16, 0.5, 10));
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl(server.getBaseUrl());
+        options.setMaxThreads(32);
+        options.setConcurrencyLimiter(limiter);
+        DefaultAbsSender sender = new DefaultAbsSender(options, "TOKEN") {
+        };
+
+        sendAll(sender, 20);
+        assertEquals(1, limiter.getLimit());
+        assertTrue(maxConcurrent.get() <= 8);
+
+        overloaded.set(false);
+        maxConcurrent.set(0);
+        sendAll(sender, 200);
+        assertEquals(16, limiter.getLimit());
+        assertTrue(maxConcurrent.get() <= 16);
+        assertTrue(maxConcurrent.get() > 1);
+        assertEquals(0, limiter.getInFlightRequests());
+        assertEquals(0, limiter.getQueuedRequests());
+    }
+
+    private void sendAll(DefaultAbsSender sender, int count) throws Exception {
+        List<CompletableFuture<Message>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(sender.executeAsync(SendMessage.builder().chatId(1L).text("Hello").build()));
+        }
+        for (CompletableFuture<Message> future : futures) {
+            future.handle((result, exception) -> null).get(30, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.telegram.telegrambots.test;
+
+import org.glassfish.jersey.jackson.JacksonFeature;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.test.JerseyTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.bots.TelegramWebhookBot;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.generics.WebhookBot;
+import org.telegram.telegrambots.test.Fakes.FakeBotApiServer;
+import org.telegram.telegrambots.updatesreceivers.DefaultExceptionMapper;
+import org.telegram.telegrambots.updatesreceivers.RestApi;
+
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for RestApi handling updates in background
+ */
+public class TestAsyncRestApi extends JerseyTest {
+    private final CountDownLatch received = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile Thread handlerThread;
+    private FakeBotApiServer server;
+    private AsyncWebhookBot webhookBot;
+    private RestApi restApi;
+
+    @Override
+    protected Application configure() {
+        restApi = new RestApi();
+        restApi.setAsyncUpdates(1, 1, false);
+        restApi.setDuplicateUpdatesWindow(100);
+        return new ResourceConfig().register(restApi).register(JacksonFeature.class).register(DefaultExceptionMapper.class);
+    }
+
+    @Override
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeBotApiServer();
+        webhookBot = new AsyncWebhookBot(server.getBaseUrl());
+        restApi.registerCallback(webhookBot);
+        restApi.registerCallback(new ReplyingWebhookBot());
+        super.setUp();
+    }
+
+    @Override
+    @AfterEach
+    public void tearDown() throws Exception {
+        release.countDown();
+        server.close();
+        super.tearDown();
+    }
+
+    @Test
+    public void testUpdatesAreAcknowledgedBeforeBeingHandled() throws Exception {
+        Response response = postUpdate(1);
+
+        assertEquals(200, response.getStatus());
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        assertEquals(0, server.getCalls("sendmessage"));
+        // Doesn't keep the application running
+        assertTrue(handlerThread.isDaemon());
+        assertEquals("Webhook asyncbot 0", handlerThread.getName());
+    }
+
+    @Test
+    public void testUpdatesAreRejectedWhenQueueIsFull() throws Exception {
+        assertEquals(200, postUpdate(1).getStatus());
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        assertEquals(200, postUpdate(2).getStatus());
+
+        assertEquals(503, postUpdate(3).getStatus());
+        // Redelivered by Telegram, the rejected update must not be dropped as a duplicate
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 10000;
+        int status;
+        while ((status = postUpdate(3).getStatus()) == 503 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(200, status);
+        assertEquals(0, restApi.getDuplicateUpdatesFilter("asyncbot").getSuppressedUpdates());
+    }
+
+    @Test
+    public void testReturnedMethodsAreExecutedByTheBot() throws Exception {
+        release.countDown();
+        assertEquals(200, postUpdate(1).getStatus());
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (server.getCalls("sendmessage") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, server.getCalls("sendmessage"));
+    }
+
+    @Test
+    public void testCallbacksThatCannotSendKeepReplyingInTheResponse() {
+        Update update = new Update();
+        update.setUpdateId(1);
+        Response response = target("callback/replyingbot")
+                .request(MediaType.APPLICATION_JSON)
+                .post(Entity.json(update));
+
+        assertEquals(200, response.getStatus());
+        assertTrue(response.readEntity(String.class).contains("Reply"));
+    }
+
+    private Response postUpdate(int updateId) {
+        Update update = new Update();
+        update.setUpdateId(updateId);
+        return target("callback/asyncbot")
+                .request(MediaType.APPLICATION_JSON)
+                .post(Entity.json(update));
+    }
+
+    private class AsyncWebhookBot extends TelegramWebhookBot {
+        AsyncWebhookBot(String baseUrl) {
+            super(createOptions(baseUrl), "TOKEN");
+        }
+
+        @Override
+        public BotApiMethod<?> onWebhookUpdateReceived(Update update) {
+            handlerThread = Thread.currentThread();
+            received.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return SendMessage.builder().chatId(1L).text("Reply").build();
+        }
+
+        @Override
+        public String getBotUsername() {
+            return "asyncbot";
+        }
+
+        @Override
+        public String getBotPath() {
+            return "asyncbot";
+        }
+    }
+
+    private static class ReplyingWebhookBot implements WebhookBot {
+        @Override
+        public BotApiMethod<?> onWebhookUpdateReceived(Update update) {
+            return SendMessage.builder().chatId(1L).text("Reply").build();
+        }
+
+        @Override
+        public void setWebhook(SetWebhook setWebhook) {
+        }
+
+        @Override
+        public String getBotPath() {
+            return "replyingbot";
+        }
+
+        @Override
+        public String getBotUsername() {
+            return "replyingbot";
+        }
+
+        @Override
+        public String getBotToken() {
+            return "TOKEN";
+        }
+    }
+
+    private static DefaultBotOptions createOptions(String baseUrl) {
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl(baseUrl);
+        return options;
+    }
+}
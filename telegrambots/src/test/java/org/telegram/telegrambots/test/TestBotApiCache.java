@@ -0,0 +1,149 @@
+package org.telegram.telegrambots.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.bots.DefaultAbsSender;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.facilities.cache.BotApiCache;
+import org.telegram.telegrambots.meta.api.methods.commands.GetMyCommands;
+import org.telegram.telegrambots.meta.api.methods.commands.SetMyCommands;
+import org.telegram.telegrambots.meta.api.methods.groupadministration.GetChat;
+import org.telegram.telegrambots.meta.api.methods.groupadministration.GetChatMemberCount;
+import org.telegram.telegrambots.meta.api.methods.groupadministration.SetChatTitle;
+import org.telegram.telegrambots.meta.api.objects.commands.BotCommand;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.serialization.TelegramJsonMapper;
+import org.telegram.telegrambots.test.Fakes.FakeBotApiServer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test for BotApiCache
+ */
+public class TestBotApiCache {
+    private static final String CHAT_RESPONSE = "{\"ok\":true,\"result\":{\"id\":-100,\"type\":\"supergroup\",\"title\":\"Group\"}}";
+
+    private FakeBotApiServer server;
+    private BotApiCache cache;
+    private DefaultAbsSender sender;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeBotApiServer();
+        server.setHandler("getchat", body -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return CHAT_RESPONSE;
+        });
+        server.setHandler("getchatmembercount", body -> "{\"ok\":true,\"result\":42}");
+        cache = new BotApiCache(2);
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl(server.getBaseUrl());
+        options.setMaxThreads(8);
+        options.setApiCache(cache);
+        sender = new DefaultAbsSender(options, "TOKEN") {
+        };
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testResultsAreCachedUntilTheirTtl() throws Exception {
+        cache.setTtl(GetChatMemberCount.class, 200);
+
+        assertEquals(42, sender.execute(new GetChatMemberCount("-100")));
+        assertEquals(42, sender.execute(new GetChatMemberCount("-100")));
+        assertEquals(1, server.getCalls("getChatMemberCount"));
+        assertEquals(1, cache.getHits());
+
+        Thread.sleep(300);
+        sender.execute(new GetChatMemberCount("-100"));
+        assertEquals(2, server.getCalls("getChatMemberCount"));
+        // Other parameters are cached on their own
+        sender.execute(new GetChatMemberCount("-200"));
+        assertEquals(3, server.getCalls("getChatMemberCount"));
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void testIdenticalRequestsInFlightAreSentOnce() throws Exception {
+        List<CompletableFuture<Chat>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(sender.executeAsync(new GetChat("-100")));
+        }
+        for (CompletableFuture<Chat> future : futures) {
+            assertEquals("Group", future.get(10, TimeUnit.SECONDS).getTitle());
+        }
+
+        assertEquals(1, server.getCalls("getChat"));
+        assertEquals(9, cache.getCoalescedRequests() + cache.getHits());
+    }
+
+    @Test
+    public void testChatMemberUpdatesInvalidateTheChat() throws Exception {
+        sender.execute(new GetChat("-100"));
+        sender.execute(new GetChatMemberCount("-100"));
+        sender.execute(new GetChat("-100"));
+        assertEquals(1, server.getCalls("getChat"));
+
+        Update update = TelegramJsonMapper.getDefault().getReader(Update.class).readValue("{\"update_id\":1,\"chat_member\":{" +
+                "\"chat\":{\"id\":-100,\"type\":\"supergroup\"},\"from\":{\"id\":1,\"is_bot\":false,\"first_name\":\"User\"},\"date\":0," +
+                "\"old_chat_member\":{\"status\":\"left\",\"user\":{\"id\":2,\"is_bot\":false,\"first_name\":\"Member\"}}," +
+                "\"new_chat_member\":{\"status\":\"member\",\"user\":{\"id\":2,\"is_bot\":false,\"first_name\":\"Member\"}}}}");
+        BotApiCache.onUpdate(sender, update);
+        assertEquals(0, cache.getSize());
+
+        sender.execute(new GetChat("-100"));
+        sender.execute(new GetChatMemberCount("-100"));
+        assertEquals(2, server.getCalls("getChat"));
+        assertEquals(2, server.getCalls("getChatMemberCount"));
+    }
+
+    @Test
+    public void testOwnWritesInvalidateTheirEntries() throws Exception {
+        server.setHandler("setchattitle", body -> "{\"ok\":true,\"result\":true}");
+        server.setHandler("getmycommands", body -> "{\"ok\":true,\"result\":[]}");
+        server.setHandler("setmycommands", body -> "{\"ok\":true,\"result\":true}");
+        sender.execute(new GetChat("-100"));
+        sender.execute(new GetMyCommands());
+
+        sender.execute(SetChatTitle.builder().chatId("-200").title("Other").build());
+        sender.execute(new GetChat("-100"));
+        assertEquals(1, server.getCalls("getChat"));
+        sender.execute(SetChatTitle.builder().chatId("-100").title("Title").build());
+        sender.execute(new GetChat("-100"));
+        assertEquals(2, server.getCalls("getChat"));
+
+        sender.executeAsync(SetMyCommands.builder().command(new BotCommand("start", "Start")).build()).get(10, TimeUnit.SECONDS);
+        sender.execute(new GetMyCommands());
+        assertEquals(2, server.getCalls("getMyCommands"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResultsAreEvicted() throws Exception {
+        sender.execute(new GetChatMemberCount("-1"));
+        sender.execute(new GetChatMemberCount("-2"));
+        sender.execute(new GetChatMemberCount("-1"));
+        sender.execute(new GetChatMemberCount("-3"));
+
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.getSize());
+        sender.execute(new GetChatMemberCount("-1"));
+        assertEquals(3, server.getCalls("getChatMemberCount"));
+        sender.execute(new GetChatMemberCount("-2"));
+        assertEquals(4, server.getCalls("getChatMemberCount"));
+    }
+}
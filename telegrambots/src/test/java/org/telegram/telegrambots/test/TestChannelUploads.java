@@ -0,0 +1,158 @@
+package org.telegram.telegrambots.test;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.MultipartEntityBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.telegram.telegrambots.bots.DefaultAbsSender;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.facilities.transport.AsyncHttpClientTransport;
+import org.telegram.telegrambots.facilities.upload.ChannelBody;
+import org.telegram.telegrambots.facilities.upload.UploadMeter;
+import org.telegram.telegrambots.meta.api.methods.send.SendDocument;
+import org.telegram.telegrambots.meta.api.objects.InputFile;
+import org.telegram.telegrambots.test.Fakes.FakeBotApiServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for uploads of files and channels
+ */
+public class TestChannelUploads {
+    private static final String DOCUMENT_RESPONSE = "{\"ok\":true,\"result\":{\"message_id\":1,\"date\":0,\"chat\":{\"id\":1,\"type\":\"private\"}," +
+            "\"document\":{\"file_id\":\"DOCUMENT_ID\",\"file_unique_id\":\"d\"}}}";
+
+    @TempDir
+    Path tempDir;
+
+    private FakeBotApiServer server;
+    private AsyncHttpClientTransport transport;
+    private Path media;
+    private String content;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        char[] chars = new char[4 * 1024 * 1024];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + i % 26);
+        }
+        content = new String(chars);
+        media = tempDir.resolve("video.mp4");
+        Files.write(media, content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (transport != null) {
+            transport.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testFilesAndFileChannelsHaveAContentLength() throws Exception {
+        UploadMeter meter = new UploadMeter();
+        HttpEntity fromFile = MultipartEntityBuilder.create()
+                .addTextBody("chat_id", "1")
+                .addPart("document", new ChannelBody(media, ContentType.APPLICATION_OCTET_STREAM, "video.mp4", meter))
+                .build();
+        assertFalse(fromFile.isChunked());
+        assertTrue(fromFile.getContentLength() > content.length());
+
+        try (FileChannel channel = FileChannel.open(media, StandardOpenOption.READ)) {
+            channel.position(content.length() - 10);
+            ChannelBody body = new ChannelBody(channel, -1, ContentType.APPLICATION_OCTET_STREAM, "video.mp4", meter);
+            assertEquals(10, body.getContentLength());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            body.writeTo(out);
+            assertEquals(content.substring(content.length() - 10), out.toString("US-ASCII"));
+        }
+        assertEquals(1, meter.getUploads());
+        assertEquals(10, meter.getUploadedBytes());
+
+        ChannelBody unknownSize = new ChannelBody(Channels.newChannel(new ByteArrayInputStream(new byte[100])), -1,
+                ContentType.APPLICATION_OCTET_STREAM, "stream.bin", null);
+        HttpEntity fromChannel = MultipartEntityBuilder.create().addPart("document", unknownSize).build();
+        assertTrue(fromChannel.isChunked());
+    }
+
+    @Test
+    public void testShortChannelsFailTheUpload() throws Exception {
+        ChannelBody body = new ChannelBody(Channels.newChannel(new ByteArrayInputStream(new byte[100])), 200,
+                ContentType.APPLICATION_OCTET_STREAM, "stream.bin", null);
+        assertThrows(IOException.class, () -> body.writeTo(new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void testFilesAreUploadedByBothTransports() throws Exception {
+        AtomicReference<String> body = startServer();
+
+        DefaultAbsSender sender = createSender(false);
+        sender.execute(new SendDocument("1", new InputFile(media)));
+        assertTrue(body.getAndSet(null).contains(content));
+        assertEquals(1, sender.getUploadMeter().getUploads());
+        assertEquals(content.length(), sender.getUploadMeter().getUploadedBytes());
+
+        DefaultAbsSender asyncSender = createSender(true);
+        asyncSender.executeAsync(new SendDocument("1", new InputFile(media))).get(30, TimeUnit.SECONDS);
+        assertTrue(body.get().contains(content));
+        assertEquals(1, asyncSender.getUploadMeter().getUploads());
+        assertTrue(asyncSender.getUploadMeter().getBytesPerSecond() > 0);
+    }
+
+    @Test
+    public void testChannelsAreUploadedByBothTransports() throws Exception {
+        AtomicReference<String> body = startServer();
+        byte[] streamed = Arrays.copyOf(content.getBytes(StandardCharsets.US_ASCII), 100000);
+
+        createSender(false).execute(new SendDocument("1", new InputFile(Channels.newChannel(new ByteArrayInputStream(streamed)), "streamed.bin")));
+        assertTrue(body.getAndSet(null).contains(new String(streamed, StandardCharsets.US_ASCII)));
+
+        try (FileChannel channel = FileChannel.open(media, StandardOpenOption.READ)) {
+            createSender(true).executeAsync(new SendDocument("1", new InputFile(channel, "video.mp4"))).get(30, TimeUnit.SECONDS);
+        }
+        assertTrue(body.get().contains(content));
+    }
+
+    private AtomicReference<String> startServer() throws Exception {
+        AtomicReference<String> body = new AtomicReference<>();
+        server = new FakeBotApiServer();
+        server.setHandler("senddocument", request -> {
+            body.set(request);
+            return DOCUMENT_RESPONSE;
+        });
+        return body;
+    }
+
+    private DefaultAbsSender createSender(boolean async) {
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl(server.getBaseUrl());
+        if (async) {
+            transport = new AsyncHttpClientTransport(options);
+            options.setTransport(transport);
+        }
+        return new DefaultAbsSender(options, "TOKEN") {
+        };
+    }
+}
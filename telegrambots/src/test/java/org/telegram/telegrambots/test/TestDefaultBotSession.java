@@ -1,5 +1,6 @@
 package org.telegram.telegrambots.test;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.http.HttpResponse;
 import org.apache.http.ProtocolVersion;
 import org.apache.http.client.HttpClient;
@@ -13,19 +14,27 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.telegram.telegrambots.bots.DefaultBotOptions;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
+import org.telegram.telegrambots.meta.api.methods.updates.GetUpdates;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.generics.BackOff;
 import org.telegram.telegrambots.meta.generics.LongPollingBot;
+import org.telegram.telegrambots.test.Fakes.FakeBotApiServer;
 import org.telegram.telegrambots.test.Fakes.FakeLongPollingBot;
 import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 import org.telegram.telegrambots.updatesreceivers.ExponentialBackOff;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -158,6 +167,178 @@ public class TestDefaultBotSession {
         session.stop();
     }
 
+    @Test
+    public void testDispatchedUpdates() throws Exception {
+        LongPollingBot bot = Mockito.spy(new FakeLongPollingBot());
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setUpdatesDispatchThreads(2);
+        session = new DefaultBotSession();
+        session.setCallback(bot);
+        session.setOptions(options);
+        AtomicInteger flag = new AtomicInteger(1);
+        Update[] updates = createFakeUpdates(9);
+        session.setUpdatesSupplier(createFakeUpdatesSupplier(flag, updates));
+        session.start();
+        Mockito.verify(bot, Mockito.timeout(3000)).onUpdateReceived(updates[1]);
+        flag.compareAndSet(2, 3);
+        Mockito.verify(bot, Mockito.timeout(3000)).onUpdateReceived(updates[4]);
+        flag.compareAndSet(4, 5);
+        for (Update update : updates) {
+            Mockito.verify(bot, Mockito.timeout(3000)).onUpdateReceived(update);
+        }
+        session.stop();
+    }
+
+    @Test
+    public void testUpdatesNotFittingInBufferAreNotAcknowledged() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        try (FakeBotApiServer server = new FakeBotApiServer()) {
+            // Server ignores the limit and always answers with 3 updates, more than what fits in the buffer
+            server.setHandler(GetUpdates.PATH, body -> {
+                try {
+                    int offset = mapper.readTree(body).get("offset").asInt();
+                    StringBuilder result = new StringBuilder();
+                    for (int updateId = offset; updateId < offset + 3 && updateId <= 6; updateId++) {
+                        result.append(result.length() == 0 ? "" : ",").append("{\"update_id\":").append(updateId).append("}");
+                    }
+                    return "{\"ok\":true,\"result\":[" + result + "]}";
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            DefaultBotOptions options = new DefaultBotOptions();
+            options.setBaseUrl(server.getBaseUrl());
+            options.setPipelinedPolling(true);
+            options.setUpdatesBufferSize(2);
+            LongPollingBot bot = Mockito.spy(new FakeLongPollingBot() {
+                @Override
+                public void onUpdateReceived(Update update) {
+                    received.add(update.getUpdateId());
+                }
+            });
+            session = new DefaultBotSession();
+            session.setCallback(bot);
+            session.setOptions(options);
+            session.setToken("token");
+            session.start();
+
+            Mockito.verify(bot, Mockito.timeout(10000).times(6)).onUpdateReceived(any());
+            session.stop();
+        }
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6), received);
+        assertTrue(session.getUpdatesBuffer().getRejectedUpdates() > 0);
+    }
+
+    @Test
+    public void testStopDoesNotWaitForFullBuffer() throws Exception {
+        CountDownLatch handling = new CountDownLatch(1);
+        LongPollingBot bot = new FakeLongPollingBot() {
+            @Override
+            public void onUpdateReceived(Update update) {
+                handling.countDown();
+                try {
+                    Thread.sleep(60000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setUpdatesBufferSize(1);
+        session = new DefaultBotSession();
+        session.setCallback(bot);
+        session.setOptions(options);
+        AtomicInteger nextId = new AtomicInteger();
+        session.setUpdatesSupplier(() -> {
+            Update update = new Update();
+            update.setUpdateId(nextId.incrementAndGet());
+            return new ArrayList<>(Collections.singletonList(update));
+        });
+        session.start();
+        assertTrue(handling.await(5, TimeUnit.SECONDS));
+        // Let the reader fill the buffer and park
+        long deadline = System.currentTimeMillis() + 5000;
+        while (session.getUpdatesBuffer().size() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+
+        Thread stopping = new Thread(session::stop);
+        stopping.start();
+        stopping.join(5000);
+        assertFalse(stopping.isAlive());
+    }
+
+    @Test
+    public void testPipelinedPollingDoesNotWaitOnEmptyBatches() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        AtomicBoolean emptyBatch = new AtomicBoolean(true);
+        try (FakeBotApiServer server = new FakeBotApiServer()) {
+            // Alternate empty batches with single updates, as a bursty long polling server would do
+            server.setHandler(GetUpdates.PATH, body -> {
+                try {
+                    int offset = mapper.readTree(body).get("offset").asInt();
+                    if (emptyBatch.getAndSet(!emptyBatch.get()) || offset > 5) {
+                        return "{\"ok\":true,\"result\":[]}";
+                    }
+                    return "{\"ok\":true,\"result\":[{\"update_id\":" + offset + "}]}";
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            DefaultBotOptions options = new DefaultBotOptions();
+            options.setBaseUrl(server.getBaseUrl());
+            options.setPipelinedPolling(true);
+            LongPollingBot bot = Mockito.spy(new FakeLongPollingBot());
+            session = new DefaultBotSession();
+            session.setCallback(bot);
+            session.setOptions(options);
+            session.setToken("token");
+            session.start();
+
+            // First update absorbs the connection and class loading warm up
+            Mockito.verify(bot, Mockito.timeout(10000)).onUpdateReceived(any());
+            // The classic loop would need at least 2 more seconds, waiting 500ms after each empty batch
+            Mockito.verify(bot, Mockito.timeout(1000).times(5)).onUpdateReceived(any());
+            session.stop();
+        }
+    }
+
+    @Test
+    public void testPipelinedPollingBacksOffOnErrorResponses() throws Exception {
+        try (FakeBotApiServer server = new FakeBotApiServer()) {
+            AtomicInteger requests = new AtomicInteger();
+            server.setHandler(GetUpdates.PATH, body -> requests.getAndIncrement() % 2 == 0
+                    ? "{\"ok\":false,\"error_code\":401,\"description\":\"Unauthorized\"}"
+                    : "{\"ok\":false,\"error_code\":409,\"description\":\"Conflict: terminated by other getUpdates request\"}");
+
+            DefaultBotOptions options = new DefaultBotOptions();
+            options.setBaseUrl(server.getBaseUrl());
+            options.setPipelinedPolling(true);
+            options.setBackOff(new ConstantBackOff(200));
+            session = new DefaultBotSession();
+            session.setCallback(new FakeLongPollingBot());
+            session.setOptions(options);
+            session.setToken("token");
+            session.start();
+
+            // First response absorbs the class loading warm up
+            long deadline = System.currentTimeMillis() + 10000;
+            while (server.getCalls(GetUpdates.PATH) < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            int calls = server.getCalls(GetUpdates.PATH);
+            assertTrue(calls >= 2);
+            Thread.sleep(1000);
+            session.stop();
+            // One request per back off, instead of as many as the server can answer
+            assertTrue(server.getCalls(GetUpdates.PATH) - calls <= 10);
+        }
+    }
+
     @Test
     public void testDefaultBotSessionWithCustomExponentialBackOff() {
         ExponentialBackOff ex = new ExponentialBackOff.Builder()
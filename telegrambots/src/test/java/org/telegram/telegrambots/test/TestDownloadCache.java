@@ -0,0 +1,121 @@
+package org.telegram.telegrambots.test;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.telegram.telegrambots.facilities.filedownloader.DownloadCache;
+import org.telegram.telegrambots.facilities.filedownloader.TelegramFileDownloader;
+import org.telegram.telegrambots.meta.api.objects.File;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.apache.http.HttpVersion.HTTP_1_1;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test for DownloadCache
+ */
+public class TestDownloadCache {
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private TelegramFileDownloader downloader;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        HttpClient httpClient = mock(HttpClient.class);
+        when(httpClient.execute(any(HttpUriRequest.class))).thenAnswer(invocation -> {
+            requests.incrementAndGet();
+            release.await(10, TimeUnit.SECONDS);
+            String path = ((HttpUriRequest) invocation.getArgument(0)).getURI().getPath();
+            HttpEntity entity = mock(HttpEntity.class);
+            // Content of 10 bytes named after the file
+            when(entity.getContent()).thenReturn(new ByteArrayInputStream(String.format("%-10s", path.substring(path.lastIndexOf('/') + 1)).getBytes(StandardCharsets.UTF_8)));
+            HttpResponse response = mock(HttpResponse.class);
+            when(response.getStatusLine()).thenReturn(new BasicStatusLine(HTTP_1_1, 200, "OK"));
+            when(response.getEntity()).thenReturn(entity);
+            return response;
+        });
+        downloader = new TelegramFileDownloader(httpClient, () -> "TOKEN");
+    }
+
+    @Test
+    public void testConcurrentRequestsShareOneDownload() throws Exception {
+        DownloadCache cache = new DownloadCache(downloader, tempDir.resolve("cache"), 100);
+        List<CompletableFuture<Path>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(cache.getFile(createFile("a")));
+        }
+        release.countDown();
+        for (CompletableFuture<Path> future : futures) {
+            assertEquals("a         ", new String(Files.readAllBytes(future.get(10, TimeUnit.SECONDS)), StandardCharsets.UTF_8));
+        }
+        cache.getFile(createFile("a")).get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, requests.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(4, cache.getCoalescedRequests());
+        assertEquals(5.0 / 6, cache.getHitRate(), 0.001);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedFilesAreEvicted() throws Exception {
+        release.countDown();
+        DownloadCache cache = new DownloadCache(downloader, tempDir.resolve("cache"), 25);
+        cache.getFile(createFile("a")).get(10, TimeUnit.SECONDS);
+        cache.getFile(createFile("b")).get(10, TimeUnit.SECONDS);
+        cache.getFile(createFile("a")).get(10, TimeUnit.SECONDS);
+        cache.getFile(createFile("c")).get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, cache.getEvictions());
+        assertEquals(20, cache.getSizeBytes());
+        assertTrue(cache.isCached(createFile("a")));
+        assertFalse(cache.isCached(createFile("b")));
+        assertFalse(Files.exists(tempDir.resolve("cache").resolve("b")));
+    }
+
+    @Test
+    public void testIndexIsReloadedFromDisk() throws Exception {
+        release.countDown();
+        Path directory = tempDir.resolve("cache");
+        DownloadCache cache = new DownloadCache(downloader, directory, 100);
+        cache.getFile(createFile("a")).get(10, TimeUnit.SECONDS);
+        cache.getFile(createFile("b")).get(10, TimeUnit.SECONDS);
+        // Left by a download interrupted by a crash
+        Files.write(directory.resolve("c.part"), new byte[5]);
+
+        DownloadCache reloaded = new DownloadCache(downloader, directory, 100);
+        assertEquals(2, reloaded.getFileCount());
+        assertEquals(20, reloaded.getSizeBytes());
+        assertFalse(Files.exists(directory.resolve("c.part")));
+        reloaded.getFile(createFile("b")).get(10, TimeUnit.SECONDS);
+        assertEquals(2, requests.get());
+        assertEquals(1, reloaded.getHits());
+    }
+
+    private static File createFile(String id) {
+        return new File("id-" + id, id, 10L, "documents/" + id);
+    }
+}
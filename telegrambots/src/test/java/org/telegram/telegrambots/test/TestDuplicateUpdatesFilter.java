@@ -0,0 +1,81 @@
+package org.telegram.telegrambots.test;
+
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.updatesreceivers.DuplicateUpdatesFilter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for DuplicateUpdatesFilter
+ */
+public class TestDuplicateUpdatesFilter {
+
+    @Test
+    public void testRepeatedUpdatesAreDuplicates() {
+        DuplicateUpdatesFilter filter = new DuplicateUpdatesFilter(64);
+        assertFalse(filter.isDuplicate(10));
+        assertFalse(filter.isDuplicate(11));
+        assertTrue(filter.isDuplicate(10));
+        assertTrue(filter.isDuplicate(11));
+        assertEquals(2, filter.getSuppressedUpdates());
+    }
+
+    @Test
+    public void testUpdatesOutOfOrderInsideWindowAreAccepted() {
+        DuplicateUpdatesFilter filter = new DuplicateUpdatesFilter(64);
+        assertFalse(filter.isDuplicate(100));
+        assertFalse(filter.isDuplicate(98));
+        assertFalse(filter.isDuplicate(99));
+        assertTrue(filter.isDuplicate(98));
+        assertEquals(1, filter.getSuppressedUpdates());
+    }
+
+    @Test
+    public void testUpdatesOlderThanWindowDontResetIt() {
+        DuplicateUpdatesFilter filter = new DuplicateUpdatesFilter(64);
+        assertFalse(filter.isDuplicate(1000));
+        assertFalse(filter.isDuplicate(1001));
+        // Can't be checked, let through
+        assertFalse(filter.isDuplicate(20));
+        assertFalse(filter.isDuplicate(20));
+        // Recent ids are still remembered
+        assertTrue(filter.isDuplicate(1000));
+        assertTrue(filter.isDuplicate(1001));
+        assertEquals(2, filter.getSuppressedUpdates());
+    }
+
+    @Test
+    public void testForgottenUpdatesAreAcceptedAgain() {
+        DuplicateUpdatesFilter filter = new DuplicateUpdatesFilter(64);
+        assertFalse(filter.isDuplicate(10));
+        assertFalse(filter.isDuplicate(11));
+        filter.forget(10);
+        assertFalse(filter.isDuplicate(10));
+        assertTrue(filter.isDuplicate(10));
+        assertTrue(filter.isDuplicate(11));
+    }
+
+    @Test
+    public void testSlidingWindowForgetsOldIds() {
+        DuplicateUpdatesFilter filter = new DuplicateUpdatesFilter(100);
+        assertEquals(128, filter.getWindow());
+        for (int id = 1; id <= 1000; id++) {
+            assertFalse(filter.isDuplicate(id));
+        }
+        // Bits reused by the ring must not be taken as already received
+        assertFalse(filter.isDuplicate(1200));
+        for (int id = 1073; id < 1200; id++) {
+            assertFalse(filter.isDuplicate(id));
+        }
+        assertTrue(filter.isDuplicate(1073));
+        assertEquals(1, filter.getSuppressedUpdates());
+    }
+
+    @Test
+    public void testInvalidWindowIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new DuplicateUpdatesFilter(0));
+    }
+}
@@ -0,0 +1,131 @@
+package org.telegram.telegrambots.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.bots.DefaultAbsSender;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.facilities.coalesce.EditCoalescer;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageReplyMarkup;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.test.Fakes.FakeBotApiServer;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for EditCoalescer
+ */
+public class TestEditCoalescer {
+    private FakeBotApiServer server;
+    private EditCoalescer coalescer;
+
+    @AfterEach
+    public void tearDown() {
+        if (coalescer != null) {
+            coalescer.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testOnlyTheLatestEditIsSent() throws Exception {
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        server = new FakeBotApiServer();
+        server.setHandler("editmessagetext", body -> {
+            sent.add(body);
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "{\"ok\":true,\"result\":true}";
+        });
+        coalescer = new EditCoalescer(0);
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl(server.getBaseUrl());
+        options.setEditCoalescer(coalescer);
+        DefaultAbsSender sender = new DefaultAbsSender(options, "TOKEN") {
+        };
+
+        List<CompletableFuture<Serializable>> futures = new ArrayList<>();
+        for (int i = 0; i <= 10; i++) {
+            futures.add(sender.executeAsync(createEdit(1, "Progress " + i * 10 + "%")));
+        }
+        for (CompletableFuture<Serializable> future : futures) {
+            assertEquals(true, future.get(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(2, sent.size());
+        assertTrue(sent.get(0).contains("Progress 0%"));
+        assertTrue(sent.get(1).contains("Progress 100%"));
+        assertEquals(11, coalescer.getSubmittedEdits());
+        assertEquals(2, coalescer.getSentEdits());
+        assertEquals(9, coalescer.getCoalescedEdits());
+        assertEquals(true, sender.execute(createEdit(1, "Done")));
+    }
+
+    @Test
+    public void testEditsOfTheSameMessageAreSpacedByTheInterval() throws Exception {
+        coalescer = new EditCoalescer(300);
+        List<Long> sentAt = Collections.synchronizedList(new ArrayList<>());
+        Function<BotApiMethod<Serializable>, CompletableFuture<Serializable>> send = method -> {
+            sentAt.add(System.nanoTime());
+            return CompletableFuture.completedFuture(true);
+        };
+
+        coalescer.submit(createEdit(1, "First"), send).get(5, TimeUnit.SECONDS);
+        coalescer.submit(createEdit(1, "Second"), send);
+        CompletableFuture<Serializable> last = coalescer.submit(createEdit(1, "Third"), send);
+        coalescer.submit(createEdit(2, "Other message"), send).get(5, TimeUnit.SECONDS);
+        assertFalse(last.isDone());
+        last.get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, sentAt.size());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(sentAt.get(2) - sentAt.get(0)) >= 250);
+        assertEquals(1, coalescer.getCoalescedEdits());
+        assertEquals(0, coalescer.getPendingEdits());
+    }
+
+    @Test
+    public void testOnlyEditsOfTheSameKindAreCoalesced() {
+        coalescer = new EditCoalescer();
+        EditMessageReplyMarkup markup = EditMessageReplyMarkup.builder()
+                .chatId(1L)
+                .messageId(1)
+                .replyMarkup(InlineKeyboardMarkup.builder().keyboard(new ArrayList<>()).build())
+                .build();
+
+        assertTrue(coalescer.isCoalesced(createEdit(1, "Text")));
+        assertTrue(coalescer.isCoalesced(markup));
+        assertFalse(coalescer.isCoalesced(SendMessage.builder().chatId(1L).text("Text").build()));
+
+        List<BotApiMethod<?>> sent = new ArrayList<>();
+        coalescer.submit(createEdit(1, "Text"), method -> {
+            sent.add(method);
+            return new CompletableFuture<>();
+        });
+        coalescer.submit(markup, method -> {
+            sent.add(method);
+            return new CompletableFuture<>();
+        });
+        assertEquals(2, sent.size());
+    }
+
+    private EditMessageText createEdit(int messageId, String text) {
+        return EditMessageText.builder().chatId(1L).messageId(messageId).text(text).build();
+    }
+}
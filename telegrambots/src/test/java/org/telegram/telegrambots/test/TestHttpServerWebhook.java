@@ -0,0 +1,101 @@
+package org.telegram.telegrambots.test;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.test.Fakes.FakeWebhook;
+import org.telegram.telegrambots.updatesreceivers.HttpServerWebhook;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test for HttpServerWebhook
+ */
+public class TestHttpServerWebhook {
+    private final FakeWebhook webhookBot = new FakeWebhook();
+    private HttpServerWebhook webhook;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        webhook = new HttpServerWebhook();
+        webhook.setInternalUrl("http://localhost:0");
+        webhook.registerWebhook(webhookBot);
+        webhook.startServer();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        webhook.stopServer(0);
+    }
+
+    @Test
+    public void testInternalUrlWithoutHostIsRejected() {
+        HttpServerWebhook otherWebhook = new HttpServerWebhook();
+        otherWebhook.setInternalUrl("http:/callback");
+        assertThrows(TelegramApiException.class, otherWebhook::startServer);
+    }
+
+    @Test
+    public void testResponseMethodIsReturned() throws Exception {
+        webhookBot.setReturnValue(BotApiMethodHelperFactory.getSendMessage());
+
+        HttpURLConnection connection = post("callback/testbot", "{\"update_id\": 10}");
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("{\"chat_id\":\"@test\",\"text\":\"Hithere\",\"parse_mode\":\"html\",\"reply_to_message_id\":12,\"reply_markup\":{\"force_reply\":true},\"method\":\"sendmessage\"}",
+                read(connection.getInputStream()));
+    }
+
+    @Test
+    public void testEmptyResponseWhenNoMethodIsReturned() throws Exception {
+        HttpURLConnection connection = post("callback/testbot", "{\"update_id\": 10}");
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("", read(connection.getInputStream()));
+    }
+
+    @Test
+    public void testUnknownBotIsNotFound() throws Exception {
+        assertEquals(404, post("callback/otherbot", "{\"update_id\": 10}").getResponseCode());
+    }
+
+    @Test
+    public void testInvalidUpdateIsRejected() throws Exception {
+        assertEquals(400, post("callback/testbot", "{\"update_id\": ").getResponseCode());
+    }
+
+    @Test
+    public void testGetReturnsGreeting() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) url("callback/testbot").openConnection();
+        assertEquals("Hi there testbot!", read(connection.getInputStream()));
+    }
+
+    private HttpURLConnection post(String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url(path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setDoOutput(true);
+        try (OutputStream output = connection.getOutputStream()) {
+            output.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return connection;
+    }
+
+    private URL url(String path) throws IOException {
+        return new URL("http://localhost:" + webhook.getAddress().getPort() + "/" + path);
+    }
+
+    private String read(InputStream input) throws IOException {
+        try (InputStream stream = input) {
+            return IOUtils.toString(stream, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.telegram.telegrambots.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.bots.DefaultAbsSender;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.facilities.batch.MessageBatcher;
+import org.telegram.telegrambots.meta.api.methods.CopyMessage;
+import org.telegram.telegrambots.meta.api.methods.ForwardMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.DeleteMessage;
+import org.telegram.telegrambots.meta.api.objects.MessageId;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.test.Fakes.FakeBotApiServer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for MessageBatcher
+ */
+public class TestMessageBatcher {
+    private static final Pattern MESSAGE_IDS = Pattern.compile("\"message_ids\":\\[([^\\]]*)]");
+
+    private FakeBotApiServer server;
+    private DefaultAbsSender sender;
+    private MessageBatcher batcher;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeBotApiServer();
+        // Copies get the original id plus 1000, message 13 is skipped
+        server.setHandler("copymessages", body -> {
+            Matcher matcher = MESSAGE_IDS.matcher(body);
+            assertTrue(matcher.find());
+            StringBuilder result = new StringBuilder();
+            for (String messageId : matcher.group(1).split(",")) {
+                if (!messageId.equals("13")) {
+                    result.append(result.length() == 0 ? "" : ",").append("{\"message_id\":").append(Integer.parseInt(messageId) + 1000).append("}");
+                }
+            }
+            return "{\"ok\":true,\"result\":[" + result + "]}";
+        });
+        server.setHandler("copymessage", body -> "{\"ok\":true,\"result\":{\"message_id\":2000}}");
+        server.setHandler("forwardmessage", body ->
+                "{\"ok\":true,\"result\":{\"message_id\":77,\"date\":0,\"chat\":{\"id\":1,\"type\":\"private\"},\"text\":\"Hello\"}}");
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl(server.getBaseUrl());
+        options.setMaxThreads(4);
+        sender = new DefaultAbsSender(options, "TOKEN") {
+        };
+        batcher = new MessageBatcher(sender, 50);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        batcher.close();
+        server.close();
+    }
+
+    @Test
+    public void testDeletesAreSentInBatchesOfUpToAHundred() throws Exception {
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 250; i > 0; i--) {
+            futures.add(batcher.delete(DeleteMessage.builder().chatId(1L).messageId(i).build()));
+        }
+        for (CompletableFuture<Boolean> future : futures) {
+            assertTrue(future.get(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(3, server.getCalls("deleteMessages"));
+        assertEquals(0, server.getCalls("deleteMessage"));
+        assertEquals(250, batcher.getBatchedCalls());
+        assertEquals(3, batcher.getSentRequests());
+    }
+
+    @Test
+    public void testCopiesGetTheIdOfTheirCopy() throws Exception {
+        CompletableFuture<MessageId> third = batcher.copy(createCopy(5));
+        CompletableFuture<MessageId> first = batcher.copy(createCopy(3));
+        CompletableFuture<MessageId> second = batcher.copy(createCopy(4));
+        CompletableFuture<MessageId> again = batcher.copy(createCopy(3));
+
+        assertEquals(1003L, first.get(10, TimeUnit.SECONDS).getMessageId());
+        assertEquals(1004L, second.get(10, TimeUnit.SECONDS).getMessageId());
+        assertEquals(1005L, third.get(10, TimeUnit.SECONDS).getMessageId());
+        // Copying the same message twice needs another request, alone it is sent as a single copy
+        again.get(10, TimeUnit.SECONDS);
+        assertEquals(1, server.getCalls("copyMessages"));
+        assertEquals(1, server.getCalls("copyMessage"));
+    }
+
+    @Test
+    public void testSkippedCopiesFailTheBatch() {
+        CompletableFuture<MessageId> copied = batcher.copy(createCopy(12));
+        CompletableFuture<MessageId> skipped = batcher.copy(createCopy(13));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> copied.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(TelegramApiException.class, exception.getCause());
+        assertThrows(ExecutionException.class, () -> skipped.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testSingleCallsAreSentWithTheirOwnMethod() throws Exception {
+        MessageId forwarded = batcher.forward(ForwardMessage.builder().chatId(2L).fromChatId(1L).messageId(5).build()).get(10, TimeUnit.SECONDS);
+
+        assertEquals(77L, forwarded.getMessageId());
+        assertEquals(1, server.getCalls("forwardMessage"));
+        assertEquals(0, server.getCalls("forwardMessages"));
+    }
+
+    private CopyMessage createCopy(int messageId) {
+        return CopyMessage.builder().chatId(2L).fromChatId(1L).messageId(messageId).build();
+    }
+}
@@ -0,0 +1,105 @@
+package org.telegram.telegrambots.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.bots.DefaultAbsSender;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.facilities.template.MethodTemplate;
+import org.telegram.telegrambots.facilities.template.TemplatedMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
+import org.telegram.telegrambots.meta.serialization.TelegramJsonMapper;
+import org.telegram.telegrambots.test.Fakes.FakeBotApiServer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test for MethodTemplate
+ */
+public class TestMethodTemplate {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void testRenderedMethodMatchesSerializedMethod() throws Exception {
+        MethodTemplate<Message> template = MethodTemplate.of(createMessage("0", "Hello"));
+
+        TemplatedMethod<Message> rendered = template.render(-1001234567890L);
+
+        assertEquals("-1001234567890", rendered.getChatId());
+        assertEquals(SendMessage.PATH, rendered.getMethod());
+        assertEquals(serialize(createMessage("-1001234567890", "Hello")), MAPPER.readTree(rendered.getBody()));
+    }
+
+    @Test
+    public void testOtherFieldsAreEscaped() throws Exception {
+        SendMessage prototype = createMessage("0", "Hello");
+        prototype.setMessageThreadId(1);
+        MethodTemplate<Message> template = MethodTemplate.of(prototype, "text", "message_thread_id");
+
+        String text = "Hi \"Ann\"\n\u00e9\u2713 \\o/";
+        TemplatedMethod<Message> rendered = template.render("42", text, "7");
+
+        SendMessage expected = createMessage("42", text);
+        expected.setMessageThreadId(7);
+        assertEquals(serialize(expected), MAPPER.readTree(rendered.getBody()));
+    }
+
+    @Test
+    public void testInvalidTemplatesAreRejected() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> MethodTemplate.of(createMessage("0", "Hello"), "message_thread_id"));
+        SendMessage prototype = createMessage("0", "Hello");
+        prototype.setMessageThreadId(1);
+        MethodTemplate<Message> template = MethodTemplate.of(prototype, "message_thread_id");
+        assertThrows(IllegalArgumentException.class, () -> template.render("1", "1,\"text\":\"injected\""));
+        assertThrows(IllegalArgumentException.class, () -> template.render("1"));
+        assertThrows(IllegalArgumentException.class, () -> template.render(""));
+    }
+
+    @Test
+    public void testRenderedMethodsAreSentWithTheirBody() throws Exception {
+        AtomicReference<String> body = new AtomicReference<>();
+        try (FakeBotApiServer server = new FakeBotApiServer()) {
+            server.setHandler("sendmessage", request -> {
+                body.set(request);
+                return "{\"ok\":true,\"result\":{\"message_id\":1,\"date\":0,\"chat\":{\"id\":7,\"type\":\"private\"},\"text\":\"Hello\"}}";
+            });
+            DefaultBotOptions options = new DefaultBotOptions();
+            options.setBaseUrl(server.getBaseUrl());
+            DefaultAbsSender sender = new DefaultAbsSender(options, "TOKEN") {
+            };
+            MethodTemplate<Message> template = MethodTemplate.of(createMessage("0", "Hello"));
+
+            Message message = sender.executeAsync(template.render(7L)).get(10, TimeUnit.SECONDS);
+
+            assertEquals(7L, message.getChatId());
+            assertEquals(serialize(createMessage("7", "Hello")), MAPPER.readTree(body.get().getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    private JsonNode serialize(SendMessage method) {
+        return TelegramJsonMapper.getDefault().getObjectMapper().valueToTree(method);
+    }
+
+    private SendMessage createMessage(String chatId, String text) {
+        List<List<InlineKeyboardButton>> rows = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            rows.add(Collections.singletonList(InlineKeyboardButton.builder().text("Button " + i).callbackData("data" + i).build()));
+        }
+        return SendMessage.builder()
+                .chatId(chatId)
+                .text(text)
+                .replyMarkup(InlineKeyboardMarkup.builder().keyboard(rows).build())
+                .build();
+    }
+}
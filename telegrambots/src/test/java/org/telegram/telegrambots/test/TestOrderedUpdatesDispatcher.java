@@ -0,0 +1,104 @@
+package org.telegram.telegrambots.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.updatesreceivers.OrderedUpdatesDispatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for OrderedUpdatesDispatcher
+ */
+public class TestOrderedUpdatesDispatcher {
+    private OrderedUpdatesDispatcher dispatcher;
+
+    @AfterEach
+    public void tearDown() {
+        if (dispatcher != null && dispatcher.isRunning()) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    public void testUpdatesFromSameChatKeepOrder() throws Exception {
+        Map<Long, List<Integer>> handled = new ConcurrentHashMap<>();
+        CountDownLatch latch = new CountDownLatch(300);
+        dispatcher = createDispatcher(4, 10, updates -> {
+            for (Update update : updates) {
+                handled.computeIfAbsent(update.getMessage().getChatId(), chat -> new ArrayList<>()).add(update.getUpdateId());
+                latch.countDown();
+            }
+        });
+
+        for (int i = 0; i < 300; i++) {
+            dispatcher.dispatch(createUpdate(i, i % 3));
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        for (List<Integer> chatUpdates : handled.values()) {
+            assertEquals(100, chatUpdates.size());
+            for (int i = 1; i < chatUpdates.size(); i++) {
+                assertTrue(chatUpdates.get(i - 1) < chatUpdates.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testSlowChatDoesNotBlockOtherChats() throws Exception {
+        CountDownLatch slowChat = new CountDownLatch(1);
+        CountDownLatch fastChat = new CountDownLatch(1);
+        dispatcher = createDispatcher(2, 10, updates -> {
+            try {
+                if (updates.get(0).getMessage().getChatId() == 1L) {
+                    slowChat.await();
+                } else {
+                    fastChat.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        dispatcher.dispatch(createUpdate(1, 1L));
+        dispatcher.dispatch(createUpdate(2, 2L));
+
+        assertTrue(fastChat.await(5, TimeUnit.SECONDS));
+        slowChat.countDown();
+    }
+
+    @Test
+    public void testInvalidConfigurationIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> createDispatcher(0, 10, updates -> {}));
+        assertThrows(IllegalArgumentException.class, () -> createDispatcher(1, 0, updates -> {}));
+    }
+
+    private OrderedUpdatesDispatcher createDispatcher(int threads, int queueSize, Consumer<List<Update>> handler) {
+        OrderedUpdatesDispatcher updatesDispatcher = new OrderedUpdatesDispatcher("Test Dispatcher", threads, queueSize, handler);
+        updatesDispatcher.start();
+        return updatesDispatcher;
+    }
+
+    private Update createUpdate(int updateId, long chatId) {
+        Chat chat = new Chat();
+        chat.setId(chatId);
+        Message message = new Message();
+        message.setChat(chat);
+        Update update = new Update();
+        update.setUpdateId(updateId);
+        update.setMessage(message);
+        return update;
+    }
+}
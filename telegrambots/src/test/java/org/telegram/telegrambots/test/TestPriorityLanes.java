@@ -0,0 +1,159 @@
+package org.telegram.telegrambots.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.bots.DefaultAbsSender;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.facilities.priority.PriorityLanes;
+import org.telegram.telegrambots.facilities.priority.RequestPriority;
+import org.telegram.telegrambots.facilities.ratelimit.TelegramRateLimiter;
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.test.Fakes.FakeBotApiServer;
+import org.telegram.telegrambots.util.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for PriorityLanes
+ */
+public class TestPriorityLanes {
+    private static final String MESSAGE_RESPONSE = "{\"ok\":true,\"result\":{\"message_id\":1,\"date\":0,\"chat\":{\"id\":1,\"type\":\"private\"},\"text\":\"Hello\"}}";
+
+    private FakeBotApiServer server;
+
+    @AfterEach
+    public void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testLanesShareTurnsByWeight() {
+        PriorityLanes lanes = new PriorityLanes(1, 4, 2, 1);
+        lanes.acquire(RequestPriority.NORMAL).join();
+
+        List<RequestPriority> granted = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            for (RequestPriority priority : RequestPriority.values()) {
+                lanes.acquire(priority).thenRun(() -> granted.add(priority));
+            }
+        }
+        assertEquals(20, lanes.getQueuedRequests(RequestPriority.BULK));
+
+        for (int i = 0; i < 14; i++) {
+            lanes.release();
+        }
+        assertEquals(8, granted.stream().filter(priority -> priority == RequestPriority.INTERACTIVE).count());
+        assertEquals(4, granted.stream().filter(priority -> priority == RequestPriority.NORMAL).count());
+        // Bulk requests are delayed, but not starved
+        assertEquals(2, granted.stream().filter(priority -> priority == RequestPriority.BULK).count());
+        assertEquals(1, lanes.getInFlightRequests());
+    }
+
+    @Test
+    public void testCancelledRequestsGiveUpTheirTurn() {
+        PriorityLanes lanes = new PriorityLanes(1);
+        lanes.acquire(RequestPriority.NORMAL).join();
+        CompletableFuture<Void> cancelled = lanes.acquire(RequestPriority.INTERACTIVE);
+        CompletableFuture<Void> waiting = lanes.acquire(RequestPriority.NORMAL);
+
+        cancelled.cancel(false);
+        lanes.release();
+        assertTrue(waiting.isDone());
+        lanes.release();
+        assertEquals(0, lanes.getInFlightRequests());
+    }
+
+    @Test
+    public void testInvalidConfigurationIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new PriorityLanes(0));
+        assertThrows(IllegalArgumentException.class, () -> new PriorityLanes(1, 1, 0, 1));
+    }
+
+    @Test
+    public void testInteractiveRequestsSkipQueuedBulkRequests() throws Exception {
+        server = new FakeBotApiServer();
+        server.setHandler("sendmessage", body -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return MESSAGE_RESPONSE;
+        });
+        PriorityLanes lanes = new PriorityLanes(1);
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl(server.getBaseUrl());
+        options.setPriorityLanes(lanes);
+        DefaultAbsSender sender = new DefaultAbsSender(options, "TOKEN") {
+        };
+
+        List<CompletableFuture<Message>> broadcast = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            broadcast.add(sender.executeAsync(SendMessage.builder().chatId(1L).text("Hello").build(), RequestPriority.BULK));
+        }
+        CompletableFuture<Boolean> answer = sender.executeAsync(AnswerCallbackQuery.builder().callbackQueryId("id").build());
+
+        assertTrue(answer.get(10, TimeUnit.SECONDS));
+        assertFalse(broadcast.get(broadcast.size() - 1).isDone());
+        for (CompletableFuture<Message> future : broadcast) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(1, lanes.getQueueLatency(RequestPriority.INTERACTIVE).getCount());
+        assertEquals(10, lanes.getQueueLatency(RequestPriority.BULK).getCount());
+        assertEquals(0, lanes.getInFlightRequests());
+    }
+
+    @Test
+    public void testRateLimitedRequestsDoNotHoldTheirTurn() throws Exception {
+        server = new FakeBotApiServer();
+        server.setHandler("sendmessage", body -> MESSAGE_RESPONSE);
+        TelegramRateLimiter rateLimiter = new TelegramRateLimiter(1000, 1, 1000);
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl(server.getBaseUrl());
+        options.setPriorityLanes(new PriorityLanes(1));
+        options.setRateLimiter(rateLimiter);
+        DefaultAbsSender sender = new DefaultAbsSender(options, "TOKEN") {
+        };
+        // Also warms up the connection
+        sender.executeAsync(SendMessage.builder().chatId(1L).text("Hello").build(), RequestPriority.BULK).get(10, TimeUnit.SECONDS);
+        // One message per second in the same chat, it waits for the rate limit
+        CompletableFuture<Message> limited = sender.executeAsync(SendMessage.builder().chatId(1L).text("Hello").build(), RequestPriority.BULK);
+        long start = System.nanoTime();
+        sender.executeAsync(SendMessage.builder().chatId(2L).text("Hello").build(), RequestPriority.INTERACTIVE).get(10, TimeUnit.SECONDS);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500);
+        assertFalse(limited.isDone());
+        limited.get(10, TimeUnit.SECONDS);
+        rateLimiter.close();
+    }
+
+    @Test
+    public void testLatencyHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(50.5, histogram.getMeanMillis(), 0.01);
+        assertEquals(100, histogram.getMaxMillis(), 0.01);
+        double p50 = histogram.getPercentileMillis(50);
+        assertTrue(p50 >= 50 && p50 <= 50 * 1.125, "p50 was " + p50);
+        double p99 = histogram.getPercentileMillis(99);
+        assertTrue(p99 >= 99 && p99 <= 100, "p99 was " + p99);
+
+        histogram.reset();
+        assertEquals(0, histogram.getPercentileMillis(99));
+    }
+}
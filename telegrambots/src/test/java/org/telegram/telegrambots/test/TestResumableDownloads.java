@@ -0,0 +1,162 @@
+package org.telegram.telegrambots.test;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.telegram.telegrambots.facilities.filedownloader.DownloaderOptions;
+import org.telegram.telegrambots.facilities.filedownloader.TelegramFileDownloader;
+import org.telegram.telegrambots.meta.api.objects.File;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.test.Fakes.FakeFileServer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for downloads into files resumed with range requests
+ */
+public class TestResumableDownloads {
+    private static final File FILE = new File("id", "unique", null, "documents/file.bin");
+
+    @TempDir
+    Path tempDir;
+
+    private byte[] content;
+    private FakeFileServer server;
+    private CloseableHttpClient httpClient;
+    private Path target;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        content = new byte[1024 * 1024];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        server = new FakeFileServer(content);
+        // File urls point to api.telegram.org, route them to the local server
+        HttpHost local = new HttpHost("localhost", server.getPort());
+        httpClient = HttpClients.custom().setRoutePlanner((host, request, context) -> new HttpRoute(local)).build();
+        target = tempDir.resolve("file.bin");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        httpClient.close();
+        server.close();
+    }
+
+    @Test
+    public void testFailedDownloadIsResumed() throws Exception {
+        TelegramFileDownloader downloader = new TelegramFileDownloader(httpClient, () -> "TOKEN");
+        server.setFailures(1);
+
+        assertEquals(content.length, downloader.downloadFileTo(FILE, target).get(10, TimeUnit.SECONDS));
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertNull(findPartialFile());
+        assertEquals(2, server.getRanges().size());
+        assertEquals("null", server.getRanges().get(0));
+        assertTrue(server.getRanges().get(1).startsWith("bytes="));
+        assertEquals(1, downloader.getResumedDownloads());
+    }
+
+    @Test
+    public void testPartialFileIsKeptForTheNextDownload() throws Exception {
+        Path partial = leavePartialFile(FILE);
+        assertFalse(Files.exists(target));
+        long partialSize = Files.size(partial);
+        assertTrue(partialSize > 0 && partialSize < content.length);
+
+        TelegramFileDownloader downloader = new TelegramFileDownloader(httpClient, () -> "TOKEN");
+        downloader.downloadFileTo(FILE, target).get(10, TimeUnit.SECONDS);
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals("bytes=" + partialSize + "-", server.getRanges().get(1));
+        assertEquals(1, downloader.getResumedDownloads());
+    }
+
+    @Test
+    public void testAnotherFileIntoTheSamePathStartsOver() throws Exception {
+        Path partial = leavePartialFile(FILE);
+
+        TelegramFileDownloader downloader = new TelegramFileDownloader(httpClient, () -> "TOKEN");
+        downloader.downloadFileTo(new File("other", "other", null, "documents/other.bin"), target).get(10, TimeUnit.SECONDS);
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals("null", server.getRanges().get(1));
+        assertEquals(0, downloader.getResumedDownloads());
+        // Never resumed, the partial file of the first file is deleted
+        assertFalse(Files.exists(partial));
+    }
+
+    @Test
+    public void testCompletePartialFileIsNotDownloadedAgain() throws Exception {
+        Path partial = leavePartialFile(FILE);
+        Files.write(partial, content);
+
+        TelegramFileDownloader downloader = new TelegramFileDownloader(httpClient, () -> "TOKEN");
+        assertEquals(content.length, downloader.downloadFileTo(FILE, target).get(10, TimeUnit.SECONDS));
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(0, downloader.getDownloadedBytes());
+    }
+
+    @Test
+    public void testDownloadStartsOverWithoutRangeSupport() throws Exception {
+        Path partial = leavePartialFile(FILE);
+        // Longer than the file
+        Files.write(partial, Arrays.copyOf(content, content.length + 10));
+        server.setRangesSupported(false);
+        server.setFailures(1);
+
+        TelegramFileDownloader downloader = new TelegramFileDownloader(httpClient, () -> "TOKEN");
+        downloader.downloadFileTo(FILE, target).get(10, TimeUnit.SECONDS);
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(0, downloader.getResumedDownloads());
+    }
+
+    @Test
+    public void testPartialTemporaryFilesAreDeleted() throws Exception {
+        DownloaderOptions options = new DownloaderOptions();
+        options.setMaxDownloadAttempts(1);
+        TelegramFileDownloader downloader = new TelegramFileDownloader(httpClient, () -> "TOKEN", options);
+        server.setFailures(1);
+
+        Assertions.assertThrows(TelegramApiException.class, () -> downloader.downloadFile(FILE, target.toFile()));
+        assertNull(findPartialFile());
+    }
+
+    /**
+     * Fail a download of the file into the target after writing part of it
+     * @return Partial file left
+     */
+    private Path leavePartialFile(File file) throws Exception {
+        DownloaderOptions options = new DownloaderOptions();
+        options.setMaxDownloadAttempts(1);
+        TelegramFileDownloader downloader = new TelegramFileDownloader(httpClient, () -> "TOKEN", options);
+        server.setFailures(1);
+        Assertions.assertThrows(ExecutionException.class, () -> downloader.downloadFileTo(file, target).get(10, TimeUnit.SECONDS));
+        Path partial = findPartialFile();
+        assertNotNull(partial);
+        return partial;
+    }
+
+    private Path findPartialFile() throws Exception {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".part")).findFirst().orElse(null);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package org.telegram.telegrambots.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.telegram.telegrambots.bots.DefaultAbsSender;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.facilities.broadcast.BroadcastCheckpoint;
+import org.telegram.telegrambots.facilities.broadcast.BroadcastOutcome;
+import org.telegram.telegrambots.facilities.broadcast.TelegramBroadcaster;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.test.Fakes.FakeBotApiServer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for TelegramBroadcaster
+ */
+public class TestTelegramBroadcaster {
+    private static final String MESSAGE_RESPONSE = "{\"ok\":true,\"result\":{\"message_id\":1,\"date\":0,\"chat\":{\"id\":1,\"type\":\"private\"},\"text\":\"Hello\"}}";
+    private static final Pattern CHAT_ID = Pattern.compile("\"chat_id\":\"([^\"]+)\"");
+
+    @TempDir
+    public Path directory;
+
+    private FakeBotApiServer server;
+    private DefaultAbsSender sender;
+    private final List<String> received = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger serverErrors = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeBotApiServer();
+        server.setHandler("sendmessage", body -> {
+            Matcher matcher = CHAT_ID.matcher(body);
+            String chatId = matcher.find() ? matcher.group(1) : "";
+            received.add(chatId);
+            switch (chatId) {
+                case "2":
+                    return "{\"ok\":false,\"error_code\":403,\"description\":\"Forbidden: bot was blocked by the user\"}";
+                case "3":
+                    return "{\"ok\":false,\"error_code\":400,\"description\":\"Bad Request: chat not found\"}";
+                case "4":
+                    return "{\"ok\":false,\"error_code\":400,\"description\":\"Bad Request: group chat was upgraded to a supergroup chat\",\"parameters\":{\"migrate_to_chat_id\":-1004}}";
+                case "5":
+                    return "{\"ok\":false,\"error_code\":400,\"description\":\"Bad Request: message text is empty\"}";
+                case "7":
+                    int errors = serverErrors.getAndDecrement();
+                    if (errors > 0) {
+                        // Alternate errors of the API with error pages of a gateway in front of it
+                        return errors % 2 == 0 ? "{\"ok\":false,\"error_code\":502,\"description\":\"Bad Gateway\"}" :
+                                "<html><body><h1>504 Gateway Time-out</h1></body></html>";
+                    }
+                    return MESSAGE_RESPONSE;
+                default:
+                    return MESSAGE_RESPONSE;
+            }
+        });
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl(server.getBaseUrl());
+        options.setMaxThreads(4);
+        sender = new DefaultAbsSender(options, "TOKEN") {
+        };
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testFailuresAreClassifiedInResultFiles() throws Exception {
+        Path recipients = directory.resolve("recipients.txt");
+        Files.write(recipients, Arrays.asList("1", "2", "3", "", "4", "5", "6"), StandardCharsets.UTF_8);
+        TelegramBroadcaster broadcaster = createBroadcaster();
+
+        broadcaster.broadcast(recipients, this::createMessage);
+
+        assertEquals(6, broadcaster.getDone());
+        assertEquals(2, broadcaster.getCount(BroadcastOutcome.SENT));
+        assertEquals(1, broadcaster.getCount(BroadcastOutcome.BLOCKED));
+        assertEquals(1, broadcaster.getCount(BroadcastOutcome.NOT_FOUND));
+        assertEquals(1, broadcaster.getCount(BroadcastOutcome.MIGRATED));
+        assertEquals(1, broadcaster.getCount(BroadcastOutcome.FAILED));
+        assertEquals(0, broadcaster.getInFlight());
+        assertTrue(broadcaster.getMessagesPerSecond() > 0);
+
+        Path results = directory.resolve("broadcast");
+        assertEquals(Collections.singletonList("2"), readLines(results.resolve(TelegramBroadcaster.BLOCKED_FILE)));
+        assertEquals(Collections.singletonList("3"), readLines(results.resolve(TelegramBroadcaster.NOT_FOUND_FILE)));
+        assertEquals(Collections.singletonList("4 -1004"), readLines(results.resolve(TelegramBroadcaster.MIGRATED_FILE)));
+        assertEquals(Collections.singletonList("5 400 Bad Request: message text is empty"), readLines(results.resolve(TelegramBroadcaster.FAILED_FILE)));
+    }
+
+    @Test
+    public void testBroadcastResumesAfterStopping() throws Exception {
+        List<String> recipients = new ArrayList<>();
+        for (int i = 100; i < 120; i++) {
+            recipients.add(String.valueOf(i));
+        }
+        TelegramBroadcaster broadcaster = createBroadcaster();
+        Iterator<String> crashing = recipients.stream().peek(chatId -> {
+            if (chatId.equals("110")) {
+                throw new IllegalStateException("Crash");
+            }
+        }).iterator();
+        assertThrows(IllegalStateException.class, () -> broadcaster.broadcast(crashing, this::createMessage));
+        assertEquals(10, received.size());
+
+        TelegramBroadcaster resumed = createBroadcaster();
+        resumed.broadcast(recipients.iterator(), this::createMessage);
+
+        assertEquals(20, received.size());
+        assertEquals(recipients.size(), received.stream().distinct().count());
+        assertEquals(20, resumed.getCount(BroadcastOutcome.SENT));
+    }
+
+    @Test
+    public void testTransientErrorsAreRetried() throws Exception {
+        serverErrors.set(2);
+        TelegramBroadcaster broadcaster = createBroadcaster();
+
+        broadcaster.broadcast(Arrays.asList("6", "7", "8").iterator(), this::createMessage);
+
+        assertEquals(3, broadcaster.getCount(BroadcastOutcome.SENT));
+        assertEquals(0, broadcaster.getCount(BroadcastOutcome.FAILED));
+        assertEquals(5, received.size());
+    }
+
+    @Test
+    public void testRecipientsFailingTransientlyAreResumed() throws Exception {
+        serverErrors.set(10);
+        TelegramBroadcaster broadcaster = createBroadcaster();
+        broadcaster.setMaxRetries(1);
+
+        assertThrows(IOException.class, () -> broadcaster.broadcast(Arrays.asList("6", "7", "8").iterator(), this::createMessage));
+        assertEquals(1, broadcaster.getDone());
+        assertEquals(0, broadcaster.getCount(BroadcastOutcome.FAILED));
+        assertTrue(readLines(directory.resolve("broadcast").resolve(TelegramBroadcaster.FAILED_FILE)).isEmpty());
+
+        serverErrors.set(0);
+        TelegramBroadcaster resumed = createBroadcaster();
+        resumed.broadcast(Arrays.asList("6", "7", "8").iterator(), this::createMessage);
+        assertEquals(3, resumed.getCount(BroadcastOutcome.SENT));
+        assertEquals(1, received.stream().filter("6"::equals).count());
+    }
+
+    @Test
+    public void testCheckpointKeepsRecipientsDoneOutOfOrder() throws Exception {
+        Path file = directory.resolve("checkpoint.bin");
+        try (BroadcastCheckpoint checkpoint = new BroadcastCheckpoint(file, 100)) {
+            assertEquals(128, checkpoint.getWindow());
+            checkpoint.markDone(1, BroadcastOutcome.SENT);
+            assertEquals(0, checkpoint.getWatermark());
+            checkpoint.markDone(0, BroadcastOutcome.BLOCKED);
+            checkpoint.markDone(5, BroadcastOutcome.SENT);
+            assertEquals(2, checkpoint.getWatermark());
+            assertThrows(IllegalArgumentException.class, () -> checkpoint.markDone(200, BroadcastOutcome.SENT));
+        }
+
+        try (BroadcastCheckpoint checkpoint = new BroadcastCheckpoint(file, 10)) {
+            assertEquals(128, checkpoint.getWindow());
+            assertEquals(2, checkpoint.getWatermark());
+            assertTrue(checkpoint.isDone(1));
+            assertFalse(checkpoint.isDone(3));
+            assertTrue(checkpoint.isDone(5));
+            assertEquals(3, checkpoint.getDone());
+            assertEquals(1, checkpoint.getCount(BroadcastOutcome.BLOCKED));
+        }
+    }
+
+    private TelegramBroadcaster createBroadcaster() {
+        TelegramBroadcaster broadcaster = new TelegramBroadcaster(sender, directory.resolve("broadcast"));
+        broadcaster.setMaxInFlight(1);
+        broadcaster.setMessagesPerSecond(0);
+        broadcaster.setRetryDelayMillis(10);
+        return broadcaster;
+    }
+
+    private SendMessage createMessage(String chatId) {
+        return SendMessage.builder().chatId(chatId).text("Hello").build();
+    }
+
+    private List<String> readLines(Path file) throws Exception {
+        return Files.readAllLines(file, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,132 @@
+package org.telegram.telegrambots.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.bots.DefaultAbsSender;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.facilities.ratelimit.TelegramRateLimiter;
+import org.telegram.telegrambots.meta.api.methods.GetMe;
+import org.telegram.telegrambots.meta.api.methods.send.SendChatAction;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import org.telegram.telegrambots.test.Fakes.FakeBotApiServer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for TelegramRateLimiter
+ */
+public class TestTelegramRateLimiter {
+    private static final String MESSAGE_RESPONSE = "{\"ok\":true,\"result\":{\"message_id\":1,\"date\":0,\"chat\":{\"id\":1,\"type\":\"private\"},\"text\":\"Hello\"}}";
+
+    private TelegramRateLimiter rateLimiter;
+    private FakeBotApiServer server;
+
+    @AfterEach
+    public void tearDown() {
+        if (rateLimiter != null) {
+            rateLimiter.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testGlobalLimitAllowsBurstOfOneSecond() {
+        rateLimiter = new TelegramRateLimiter(10, 1000, 1000);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, rateLimiter.reserve(createSendMessage(i)));
+        }
+        long delay = rateLimiter.reserve(createSendMessage(10));
+        assertTrue(delay > TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(delay <= TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(1, rateLimiter.getDelayedRequests());
+    }
+
+    @Test
+    public void testPrivateChatsAndGroupsHaveTheirOwnLimits() {
+        rateLimiter = new TelegramRateLimiter();
+        assertEquals(0, rateLimiter.reserve(createSendMessage(1)));
+        assertEquals(0, rateLimiter.reserve(createSendMessage(-1)));
+        // Other chats are not affected
+        assertEquals(0, rateLimiter.reserve(createSendMessage(2)));
+
+        long chatDelay = rateLimiter.reserve(createSendMessage(1));
+        assertTrue(chatDelay > TimeUnit.MILLISECONDS.toNanos(900));
+        assertTrue(chatDelay <= TimeUnit.SECONDS.toNanos(1));
+        long groupDelay = rateLimiter.reserve(createSendMessage(-1));
+        assertTrue(groupDelay > TimeUnit.MILLISECONDS.toNanos(2900));
+        assertTrue(groupDelay <= TimeUnit.SECONDS.toNanos(3));
+        assertEquals(3, rateLimiter.getTrackedChats());
+    }
+
+    @Test
+    public void testMethodsNotSendingMessagesAreNotLimited() {
+        rateLimiter = new TelegramRateLimiter(1, 1, 1);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, rateLimiter.reserve(new GetMe()));
+            assertEquals(0, rateLimiter.reserve(SendChatAction.builder().chatId(1L).action("typing").build()));
+        }
+        assertEquals(0, rateLimiter.getTrackedChats());
+    }
+
+    @Test
+    public void testAsyncRequestsAreQueuedInsteadOfFailing() throws Exception {
+        rateLimiter = new TelegramRateLimiter(1000, 5, 1000);
+        long start = System.nanoTime();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[3];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = rateLimiter.acquireAsync(createSendMessage(1));
+        }
+        assertTrue(futures[0].isDone());
+        assertFalse(futures[2].isDone());
+        assertEquals(2, rateLimiter.getQueuedRequests());
+
+        CompletableFuture.allOf(futures).get(5, TimeUnit.SECONDS);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 350);
+        assertEquals(0, rateLimiter.getQueuedRequests());
+    }
+
+    @Test
+    public void testInvalidRatesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new TelegramRateLimiter(0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TelegramRateLimiter(1, -1, 1));
+    }
+
+    @Test
+    public void testRetryAfterPausesTheChat() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        server = new FakeBotApiServer();
+        server.setHandler("sendmessage", body -> calls.incrementAndGet() == 1 ?
+                "{\"ok\":false,\"error_code\":429,\"description\":\"Too Many Requests: retry after 2\",\"parameters\":{\"retry_after\":2}}" :
+                MESSAGE_RESPONSE);
+        rateLimiter = new TelegramRateLimiter(1000, 1000, 1000);
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl(server.getBaseUrl());
+        options.setRateLimiter(rateLimiter);
+        DefaultAbsSender sender = new DefaultAbsSender(options, "TOKEN") {
+        };
+
+        TelegramApiRequestException exception = assertThrows(TelegramApiRequestException.class, () -> sender.execute(createSendMessage(1)));
+        assertEquals(429, exception.getErrorCode());
+        assertEquals(1, rateLimiter.getRetryAfterPenalties());
+
+        long start = System.nanoTime();
+        assertEquals("Hello", sender.executeAsync(createSendMessage(1)).get(10, TimeUnit.SECONDS).getText());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 1500);
+        // Other chats keep sending
+        assertEquals(0, rateLimiter.reserve(createSendMessage(2)));
+    }
+
+    private SendMessage createSendMessage(long chatId) {
+        return SendMessage.builder().chatId(chatId).text("Hello").build();
+    }
+}
@@ -0,0 +1,142 @@
+package org.telegram.telegrambots.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.bots.DefaultAbsSender;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.facilities.retry.TelegramRetryEngine;
+import org.telegram.telegrambots.meta.api.methods.GetMe;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.DeleteMessage;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import org.telegram.telegrambots.test.Fakes.FakeBotApiServer;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for TelegramRetryEngine
+ */
+public class TestTelegramRetryEngine {
+    private static final String MESSAGE_RESPONSE = "{\"ok\":true,\"result\":{\"message_id\":1,\"date\":0,\"chat\":{\"id\":1,\"type\":\"private\"},\"text\":\"Hello\"}}";
+    private static final String USER_RESPONSE = "{\"ok\":true,\"result\":{\"id\":1,\"is_bot\":true,\"first_name\":\"Bot\"}}";
+    private static final String SERVER_ERROR = "{\"ok\":false,\"error_code\":502,\"description\":\"Bad Gateway\"}";
+
+    private FakeBotApiServer server;
+    private TelegramRetryEngine retryEngine;
+    private DefaultAbsSender sender;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeBotApiServer();
+        retryEngine = new TelegramRetryEngine();
+        retryEngine.setBackoff(10, 50);
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl(server.getBaseUrl());
+        options.setRetryEngine(retryEngine);
+        sender = new DefaultAbsSender(options, "TOKEN") {
+        };
+    }
+
+    @AfterEach
+    public void tearDown() {
+        retryEngine.close();
+        server.close();
+    }
+
+    @Test
+    public void testFloodControlIsRetriedAfterRetryAfter() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        server.setHandler("sendmessage", body -> calls.incrementAndGet() == 1 ?
+                "{\"ok\":false,\"error_code\":429,\"description\":\"Too Many Requests: retry after 1\",\"parameters\":{\"retry_after\":1}}" :
+                MESSAGE_RESPONSE);
+
+        long start = System.nanoTime();
+        assertEquals("Hello", sender.executeAsync(createSendMessage()).get(10, TimeUnit.SECONDS).getText());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 1000);
+        assertEquals(2, server.getCalls("sendmessage"));
+        assertEquals(1, retryEngine.getRetries());
+    }
+
+    @Test
+    public void testServerErrorsAreRetriedForIdempotentMethods() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        server.setHandler("getme", body -> calls.incrementAndGet() < 3 ? SERVER_ERROR : USER_RESPONSE);
+
+        assertEquals("Bot", sender.execute(new GetMe()).getFirstName());
+        assertEquals(3, server.getCalls("getme"));
+        assertEquals(2, retryEngine.getRetries());
+    }
+
+    @Test
+    public void testGatewayErrorPagesAreRetried() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        server.setHandler("getme", body -> calls.incrementAndGet() == 1 ? "<html><body>502 Bad Gateway</body></html>" : USER_RESPONSE);
+
+        assertEquals("Bot", sender.execute(new GetMe()).getFirstName());
+        assertEquals(2, server.getCalls("getme"));
+    }
+
+    @Test
+    public void testDeletionsAreNotRetried() {
+        server.setHandler("deletemessage", body -> SERVER_ERROR);
+
+        assertThrows(TelegramApiRequestException.class, () -> sender.execute(DeleteMessage.builder().chatId("1").messageId(1).build()));
+        assertEquals(1, server.getCalls("deletemessage"));
+    }
+
+    @Test
+    public void testServerErrorsAreNotRetriedForOtherMethods() {
+        server.setHandler("sendmessage", body -> SERVER_ERROR);
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> sender.executeAsync(createSendMessage()).get(10, TimeUnit.SECONDS));
+        assertEquals(502, ((TelegramApiRequestException) exception.getCause()).getErrorCode());
+        assertEquals(1, server.getCalls("sendmessage"));
+        assertEquals(0, retryEngine.getRetries());
+    }
+
+    @Test
+    public void testMethodsCanOptInToRetries() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        server.setHandler("sendmessage", body -> calls.incrementAndGet() == 1 ? SERVER_ERROR : MESSAGE_RESPONSE);
+        retryEngine.addRetryableMethod(SendMessage.PATH);
+
+        assertEquals("Hello", sender.executeAsync(createSendMessage()).get(10, TimeUnit.SECONDS).getText());
+        assertEquals(2, server.getCalls("sendmessage"));
+    }
+
+    @Test
+    public void testRetriesAreLimitedPerRequest() {
+        server.setHandler("getme", body -> SERVER_ERROR);
+        retryEngine.setMaxRetries(2);
+
+        assertThrows(TelegramApiRequestException.class, () -> sender.execute(new GetMe()));
+        assertEquals(3, server.getCalls("getme"));
+        assertEquals(1, retryEngine.getExhaustedRetries());
+    }
+
+    @Test
+    public void testRetriesAreLimitedByBudget() throws Exception {
+        server.setHandler("getme", body -> SERVER_ERROR);
+        retryEngine.setMaxRetries(1);
+        retryEngine.setRetryBudget(1, 0);
+
+        assertThrows(ExecutionException.class, () -> sender.executeAsync(new GetMe()).get(10, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> sender.executeAsync(new GetMe()).get(10, TimeUnit.SECONDS));
+        // Only the first request could be retried
+        assertEquals(3, server.getCalls("getme"));
+        assertEquals(1, retryEngine.getBudgetRejections());
+        assertEquals(0, retryEngine.getAvailableBudget());
+    }
+
+    private SendMessage createSendMessage() {
+        return SendMessage.builder().chatId(1L).text("Hello").build();
+    }
+}
@@ -0,0 +1,230 @@
+package org.telegram.telegrambots.test;
+
+import org.apache.http.pool.PoolStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.bots.DefaultAbsSender;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.facilities.transport.AsyncHttpClientTransport;
+import org.telegram.telegrambots.facilities.transport.JsonEntity;
+import org.telegram.telegrambots.meta.api.methods.AnswerInlineQuery;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.inlinequery.inputmessagecontent.InputTextMessageContent;
+import org.telegram.telegrambots.meta.api.objects.inlinequery.result.InlineQueryResult;
+import org.telegram.telegrambots.meta.api.objects.inlinequery.result.InlineQueryResultArticle;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import org.telegram.telegrambots.meta.serialization.TelegramJsonMapper;
+import org.telegram.telegrambots.test.Fakes.FakeBotApiServer;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for the transports used by DefaultAbsSender
+ */
+public class TestTelegramTransport {
+    private static final String MESSAGE_RESPONSE = "{\"ok\":true,\"result\":{\"message_id\":1,\"date\":0,\"chat\":{\"id\":1,\"type\":\"private\"},\"text\":\"Hello\"}}";
+
+    private FakeBotApiServer server;
+    private AsyncHttpClientTransport transport;
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (transport != null) {
+            transport.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testAsyncTransportDoesNotNeedAThreadPerRequest() throws Exception {
+        server = new FakeBotApiServer();
+        server.setHandler("sendmessage", body -> {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return MESSAGE_RESPONSE;
+        });
+        DefaultAbsSender sender = createSender(true);
+        // First request warms up the connection
+        sender.executeAsync(createSendMessage()).get(10, TimeUnit.SECONDS);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Message>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(sender.executeAsync(createSendMessage()));
+        }
+        for (CompletableFuture<Message> future : futures) {
+            assertEquals("Hello", future.get(10, TimeUnit.SECONDS).getText());
+        }
+        // A single async thread would need at least 5 seconds to send them one after another
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 4000);
+    }
+
+    @Test
+    public void testAsyncTransportExecutesSyncMethods() throws Exception {
+        server = new FakeBotApiServer();
+        server.setHandler("sendmessage", body -> MESSAGE_RESPONSE);
+        DefaultAbsSender sender = createSender(true);
+
+        assertEquals("Hello", sender.execute(createSendMessage()).getText());
+    }
+
+    @Test
+    public void testErrorResponsesFailFuture() throws Exception {
+        server = new FakeBotApiServer();
+        server.setHandler("sendmessage", body -> "{\"ok\":false,\"error_code\":400,\"description\":\"Bad Request\"}");
+        DefaultAbsSender sender = createSender(true);
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> sender.executeAsync(createSendMessage()).get(10, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof TelegramApiRequestException);
+        assertEquals(400, ((TelegramApiRequestException) exception.getCause()).getErrorCode());
+    }
+
+    @Test
+    public void testDefaultTransportExecutesAsyncMethods() throws Exception {
+        server = new FakeBotApiServer();
+        server.setHandler("sendmessage", body -> MESSAGE_RESPONSE);
+        DefaultAbsSender sender = createSender(false);
+
+        assertEquals("Hello", sender.executeAsync(createSendMessage()).get(10, TimeUnit.SECONDS).getText());
+    }
+
+    @Test
+    public void testDefaultTransportSendsConcurrentRequestsToSameHost() throws Exception {
+        server = new FakeBotApiServer();
+        CountDownLatch received = new CountDownLatch(6);
+        CountDownLatch release = new CountDownLatch(1);
+        server.setHandler("sendmessage", body -> {
+            received.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return MESSAGE_RESPONSE;
+        });
+        DefaultBotOptions options = createOptions();
+        options.setMaxThreads(6);
+        DefaultAbsSender sender = new DefaultAbsSender(options, "TOKEN") {
+        };
+
+        List<CompletableFuture<Message>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(sender.executeAsync(createSendMessage()));
+        }
+        // All of them reach the server, instead of queueing behind a couple of connections
+        assertTrue(received.await(10, TimeUnit.SECONDS));
+        PoolStats stats = sender.getConnectionPoolStats();
+        assertEquals(6, stats.getLeased());
+        assertEquals(0, stats.getPending());
+
+        release.countDown();
+        for (CompletableFuture<Message> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(0, sender.getConnectionPoolStats().getLeased());
+        assertEquals(6, sender.getConnectionPoolStats().getAvailable());
+    }
+
+    @Test
+    public void testAsyncTransportReportsPoolStats() throws Exception {
+        server = new FakeBotApiServer();
+        server.setHandler("sendmessage", body -> MESSAGE_RESPONSE);
+        DefaultAbsSender sender = createSender(true);
+
+        sender.executeAsync(createSendMessage()).get(10, TimeUnit.SECONDS);
+        PoolStats stats = sender.getConnectionPoolStats();
+        assertEquals(0, stats.getLeased());
+        assertEquals(1, stats.getAvailable());
+        assertEquals(100, stats.getMax());
+    }
+
+    @Test
+    public void testAsyncTransportRejectsSocksProxy() {
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setProxyType(DefaultBotOptions.ProxyType.SOCKS5);
+        assertThrows(IllegalArgumentException.class, () -> new AsyncHttpClientTransport(options));
+    }
+
+    @Test
+    public void testJsonEntityWritesTheSerializedMethod() throws Exception {
+        AnswerInlineQuery method = createAnswerInlineQuery();
+        String expected = TelegramJsonMapper.getDefault().writeValueAsString(method);
+        JsonEntity entity = new JsonEntity(method, TelegramJsonMapper.getDefault());
+
+        for (int i = 0; i < 2; i++) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            entity.writeTo(content);
+            assertEquals(expected, new String(content.toByteArray(), StandardCharsets.UTF_8));
+        }
+        assertTrue(entity.isRepeatable());
+        assertEquals(expected, new String(entity.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testLargeMethodsAreStreamedByBothTransports() throws Exception {
+        server = new FakeBotApiServer();
+        AtomicReference<String> body = new AtomicReference<>();
+        server.setHandler("answerinlinequery", request -> {
+            body.set(request);
+            return "{\"ok\":true,\"result\":true}";
+        });
+        AnswerInlineQuery method = createAnswerInlineQuery();
+        String expected = TelegramJsonMapper.getDefault().writeValueAsString(method);
+
+        assertTrue(createSender(false).execute(method));
+        assertEquals(expected, body.getAndSet(null));
+        assertTrue(createSender(true).executeAsync(method).get(10, TimeUnit.SECONDS));
+        assertEquals(expected, body.get());
+    }
+
+    private DefaultAbsSender createSender(boolean async) {
+        DefaultBotOptions options = createOptions();
+        if (async) {
+            transport = new AsyncHttpClientTransport(options);
+            options.setTransport(transport);
+        }
+        return new DefaultAbsSender(options, "TOKEN") {
+        };
+    }
+
+    private DefaultBotOptions createOptions() {
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl(server.getBaseUrl());
+        return options;
+    }
+
+    private AnswerInlineQuery createAnswerInlineQuery() {
+        List<InlineQueryResult> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            results.add(InlineQueryResultArticle.builder()
+                    .id(String.valueOf(i))
+                    .title("Result \u2713 " + i)
+                    .inputMessageContent(InputTextMessageContent.builder().messageText("Text of \"result\" " + i).build())
+                    .build());
+        }
+        return AnswerInlineQuery.builder().inlineQueryId("query").results(results).build();
+    }
+
+    private SendMessage createSendMessage() {
+        return SendMessage.builder().chatId(1L).text("Hello").build();
+    }
+}
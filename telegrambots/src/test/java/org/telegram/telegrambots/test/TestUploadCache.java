@@ -0,0 +1,170 @@
+package org.telegram.telegrambots.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.telegram.telegrambots.bots.DefaultAbsSender;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.facilities.upload.UploadCache;
+import org.telegram.telegrambots.meta.api.methods.send.SendDocument;
+import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
+import org.telegram.telegrambots.meta.api.objects.InputFile;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import org.telegram.telegrambots.test.Fakes.FakeBotApiServer;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for UploadCache
+ */
+public class TestUploadCache {
+    private static final String CONTENT = "ONBOARDING-PICTURE-CONTENT";
+
+    @TempDir
+    Path tempDir;
+
+    private FakeBotApiServer server;
+    private List<String> photoBodies;
+    private List<String> documentBodies;
+    private Path media;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        photoBodies = new ArrayList<>();
+        server = new FakeBotApiServer();
+        server.setHandler("sendphoto", body -> {
+            synchronized (photoBodies) {
+                photoBodies.add(body);
+            }
+            return "{\"ok\":true,\"result\":{\"message_id\":1,\"date\":0,\"chat\":{\"id\":1,\"type\":\"private\"}," +
+                    "\"photo\":[{\"file_id\":\"SMALL\",\"file_unique_id\":\"s\",\"width\":90,\"height\":90}," +
+                    "{\"file_id\":\"PHOTO_ID\",\"file_unique_id\":\"p\",\"width\":800,\"height\":800}]}}";
+        });
+        documentBodies = new ArrayList<>();
+        server.setHandler("senddocument", body -> {
+            synchronized (documentBodies) {
+                documentBodies.add(body);
+            }
+            if (body.contains("EXPIRED")) {
+                return "{\"ok\":false,\"error_code\":400,\"description\":\"Bad Request: wrong file identifier/HTTP URL specified\"}";
+            }
+            if (body.contains("404")) {
+                return "{\"ok\":false,\"error_code\":400,\"description\":\"Bad Request: chat not found\"}";
+            }
+            return "{\"ok\":true,\"result\":{\"message_id\":1,\"date\":0,\"chat\":{\"id\":1,\"type\":\"private\"}," +
+                    "\"document\":{\"file_id\":\"DOCUMENT_ID\",\"file_unique_id\":\"d\"}}}";
+        });
+        media = tempDir.resolve("welcome.jpg");
+        Files.write(media, CONTENT.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testSameContentIsUploadedOnce() throws Exception {
+        UploadCache cache = new UploadCache(10);
+        DefaultAbsSender sender = createSender(cache);
+
+        sender.execute(new SendPhoto("1", new InputFile(media.toFile())));
+        sender.execute(new SendPhoto("2", new InputFile(media.toFile())));
+        // Same content as a stream with another name
+        sender.execute(new SendPhoto("3", new InputFile(new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.UTF_8)), "other.jpg")));
+
+        assertEquals(3, photoBodies.size());
+        assertTrue(photoBodies.get(0).contains(CONTENT));
+        assertFalse(photoBodies.get(1).contains(CONTENT));
+        assertTrue(photoBodies.get(1).contains("PHOTO_ID"));
+        assertFalse(photoBodies.get(2).contains(CONTENT));
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testFileIdsArePersisted() throws Exception {
+        Path store = tempDir.resolve("uploads.txt");
+        try (UploadCache cache = new UploadCache(store, 10)) {
+            createSender(cache).execute(new SendPhoto("1", new InputFile(media.toFile())));
+        }
+
+        try (UploadCache cache = new UploadCache(store, 10)) {
+            assertEquals(1, cache.getSize());
+            createSender(cache).execute(new SendPhoto("1", new InputFile(media.toFile())));
+            assertEquals(1, cache.getHits());
+            assertFalse(photoBodies.get(1).contains(CONTENT));
+
+            String key = cache.getKey(SendPhoto.PATH, new InputFile(media.toFile()));
+            cache.invalidate(key);
+        }
+
+        try (UploadCache cache = new UploadCache(store, 10)) {
+            assertEquals(0, cache.getSize());
+        }
+    }
+
+    @Test
+    public void testRejectedFileIdsAreReplacedByAnUpload() throws Exception {
+        UploadCache cache = new UploadCache(10);
+        String key = cache.getKey(SendDocument.PATH, new InputFile(media.toFile()));
+        cache.put(key, "EXPIRED");
+
+        createSender(cache).execute(new SendDocument("1", new InputFile(media.toFile())));
+
+        assertEquals(2, documentBodies.size());
+        assertTrue(documentBodies.get(1).contains(CONTENT));
+        assertEquals("DOCUMENT_ID", cache.getFileId(key));
+    }
+
+    @Test
+    public void testOtherErrorsKeepTheFileId() throws Exception {
+        UploadCache cache = new UploadCache(10);
+        String key = cache.getKey(SendDocument.PATH, new InputFile(media.toFile()));
+        cache.put(key, "DOCUMENT_ID");
+
+        DefaultAbsSender sender = createSender(cache);
+        assertThrows(TelegramApiRequestException.class, () -> sender.execute(new SendDocument("404", new InputFile(media.toFile()))));
+
+        assertEquals(1, documentBodies.size());
+        assertEquals("DOCUMENT_ID", cache.getFileId(key));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedFileIdsAreEvicted() throws Exception {
+        Path store = tempDir.resolve("uploads.txt");
+        try (UploadCache cache = new UploadCache(store, 2)) {
+            for (int i = 0; i < 10; i++) {
+                cache.put("key" + i, "id" + i);
+            }
+            assertEquals(2, cache.getSize());
+            assertEquals("id9", cache.getFileId("key9"));
+        }
+        // The file was compacted on the way
+        assertTrue(Files.readAllLines(store).size() < 10);
+        try (UploadCache cache = new UploadCache(store, 2)) {
+            assertEquals("id8", cache.getFileId("key8"));
+            assertNull(cache.getFileId("key1"));
+        }
+    }
+
+    private DefaultAbsSender createSender(UploadCache cache) {
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl(server.getBaseUrl());
+        options.setUploadCache(cache);
+        return new DefaultAbsSender(options, "TOKEN") {
+        };
+    }
+}